@@ -4,6 +4,10 @@
 -keep class com.swmansion.reanimated.** { *; }
 -keep class com.facebook.jni.** { *; }
 
+# Vosk is called through JNA, which binds by name
+-keep class com.sun.jna.** { *; }
+-keep class org.vosk.** { *; }
+
 # Keep native methods
 -keepclassmembers class * {
     native <methods>;
@@ -0,0 +1,232 @@
+package com.hellohari;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multi-pattern substring automaton over {@code char}s: one left-to-right
+ * pass reports every occurrence of every pattern, however many patterns
+ * there are.
+ *
+ * <p>States are ints (0 = root). Goto edges for all scripts live in one
+ * open-addressing table keyed by {@code (state, char)}, so a transition is a
+ * hash probe rather than a per-node map. The same goto edges double as a
+ * plain trie: {@link #child(int, char)} walks a token without failure
+ * links, and {@link #rangeLo}/{@link #rangeHi} give the ids of all patterns
+ * that extend the walked prefix.
+ *
+ * <p>Patterns must be distinct and sorted ({@link String#compareTo}), so ids
+ * are list indexes and every trie subtree covers a contiguous id range.
+ * Immutable after construction; safe to share between threads.
+ */
+final class AhoCorasick {
+
+    private static final long EMPTY = -1L;
+
+    // Goto table: key = state << 16 | char
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+
+    private final int[] fail;
+    private final int[] term;       // pattern id ending exactly here, or -1
+    private final int[] dict;       // nearest proper suffix state with term >= 0, or -1
+    private final int[] depth;
+    private final int[] lo, hi;     // ids of patterns in this subtree: [lo, hi)
+    private final int size;
+
+    AhoCorasick(List<String> patterns) {
+        int chars = 0;
+        for (int i = 0; i < patterns.size(); i++) {
+            if (i > 0 && patterns.get(i - 1).compareTo(patterns.get(i)) >= 0) {
+                throw new IllegalArgumentException("Patterns must be sorted and distinct at " + i);
+            }
+            chars += patterns.get(i).length();
+        }
+        // Build the trie against a table sized for the worst case (no shared
+        // prefixes), then rehash into one sized for the states that exist
+        int maxStates = chars + 1;
+        long[] tKeys = newTable(maxStates - 1);
+        int[] tTargets = new int[tKeys.length];
+        int[] tTerm = new int[maxStates];
+        int[] tParent = new int[maxStates];
+        int[] tDepth = new int[maxStates];
+        char[] tLabel = new char[maxStates];
+        Arrays.fill(tTerm, -1);
+        int n = 1;
+        for (int id = 0; id < patterns.size(); id++) {
+            String p = patterns.get(id);
+            int s = 0;
+            for (int i = 0; i < p.length(); i++) {
+                int next = find(tKeys, tTargets, s, p.charAt(i));
+                if (next < 0) {
+                    next = n++;
+                    tParent[next] = s;
+                    tDepth[next] = tDepth[s] + 1;
+                    tLabel[next] = p.charAt(i);
+                    put(tKeys, tTargets, s, p.charAt(i), next);
+                }
+                s = next;
+            }
+            tTerm[s] = id;
+        }
+        size = n;
+        term = Arrays.copyOf(tTerm, n);
+        depth = Arrays.copyOf(tDepth, n);
+        edgeKeys = newTable(n - 1);
+        edgeTargets = new int[edgeKeys.length];
+        for (int s = 1; s < n; s++) put(edgeKeys, edgeTargets, tParent[s], tLabel[s], s);
+
+        // Subtree id ranges: children are always numbered after their parent
+        lo = new int[n];
+        hi = new int[n];
+        Arrays.fill(lo, Integer.MAX_VALUE);
+        Arrays.fill(hi, Integer.MIN_VALUE);
+        for (int s = n - 1; s >= 0; s--) {
+            if (term[s] >= 0) {
+                lo[s] = Math.min(lo[s], term[s]);
+                hi[s] = Math.max(hi[s], term[s] + 1);
+            }
+            if (s > 0 && lo[s] < hi[s]) {
+                lo[tParent[s]] = Math.min(lo[tParent[s]], lo[s]);
+                hi[tParent[s]] = Math.max(hi[tParent[s]], hi[s]);
+            }
+        }
+
+        // Failure and dictionary links, breadth first
+        fail = new int[n];
+        dict = new int[n];
+        Arrays.fill(dict, -1);
+        int[][] children = childLists(tParent);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c : children[0]) queue.add(c);
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int c : children[s]) {
+                char ch = tLabel[c];
+                int f = fail[s];
+                int t;
+                while ((t = child(f, ch)) < 0 && f != 0) f = fail[f];
+                fail[c] = t >= 0 && t != c ? t : 0;
+                dict[c] = term[fail[c]] >= 0 ? fail[c] : dict[fail[c]];
+                queue.add(c);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Goto edge only (trie walk), or -1. */
+    int child(int state, char c) {
+        return find(edgeKeys, edgeTargets, state, c);
+    }
+
+    /** Automaton transition: goto, falling back along failure links. */
+    int step(int state, char c) {
+        while (true) {
+            int next = child(state, c);
+            if (next >= 0) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    /**
+     * First state on {@code state}'s output chain (itself if a pattern ends
+     * there), or -1. Continue with {@link #nextMatch(int)}; the pattern is
+     * {@link #patternAt(int)}.
+     */
+    int firstMatch(int state) {
+        return term[state] >= 0 ? state : dict[state];
+    }
+
+    int nextMatch(int matchState) {
+        return dict[matchState];
+    }
+
+    int patternAt(int matchState) {
+        return term[matchState];
+    }
+
+    /** Length of the string spelled by {@code state}. */
+    int depth(int state) {
+        return depth[state];
+    }
+
+    /** Ids of patterns having {@code state}'s string as a prefix are {@code [rangeLo, rangeHi)}. */
+    int rangeLo(int state) {
+        return lo[state];
+    }
+
+    int rangeHi(int state) {
+        return hi[state];
+    }
+
+    /** Per state, the OR of {@code perPattern} over every pattern in its subtree. */
+    long[] subtreeOr(long[] perPattern) {
+        // Parents aren't kept after construction; recover them from the edges
+        int[] parent = new int[size];
+        for (int i = 0; i < edgeKeys.length; i++) {
+            if (edgeKeys[i] != EMPTY) parent[edgeTargets[i]] = (int) (edgeKeys[i] >>> 16);
+        }
+        long[] out = new long[size];
+        for (int s = size - 1; s >= 0; s--) {
+            if (term[s] >= 0) out[s] |= perPattern[term[s]];
+            if (s > 0) out[parent[s]] |= out[s];
+        }
+        return out;
+    }
+
+    /** Estimated heap bytes, see {@link HeapSize}. */
+    long footprint() {
+        return HeapSize.OBJECT + HeapSize.of(edgeKeys) + HeapSize.of(edgeTargets)
+                + HeapSize.of(fail) + HeapSize.of(term) + HeapSize.of(dict) + HeapSize.of(depth) + HeapSize.of(lo) + HeapSize.of(hi);
+    }
+
+    // ---- edge table ----
+
+    /** Empty table for {@code edges} edges, at most half full. */
+    private static long[] newTable(int edges) {
+        long[] keys = new long[Integer.highestOneBit(Math.max(4, edges * 2 - 1)) << 1];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private static int find(long[] keys, int[] targets, int state, char c) {
+        long key = ((long) state << 16) | c;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return targets[i];
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    private static void put(long[] keys, int[] targets, int state, char c, int target) {
+        long key = ((long) state << 16) | c;
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY) i = (i + 1) & mask;
+        keys[i] = key;
+        targets[i] = target;
+    }
+
+    // ---- construction helpers ----
+
+    private int[][] childLists(int[] parent) {
+        int[] counts = new int[size];
+        for (int s = 1; s < size; s++) counts[parent[s]]++;
+        int[][] lists = new int[size][];
+        for (int s = 0; s < size; s++) lists[s] = new int[counts[s]];
+        int[] fill = new int[size];
+        for (int s = 1; s < size; s++) lists[parent[s]][fill[parent[s]]++] = s;
+        return lists;
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,65 @@
+package com.hellohari;
+
+import android.os.Process;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide background executors.
+ *
+ * <p>One small scheduled pool replaces the ad-hoc {@code Timer}s and
+ * threads that components used to spin up per call. Work submitted here must
+ * be short; anything touching views posts back to the main thread.
+ */
+public final class AppExecutors {
+
+    private AppExecutors() {}
+
+    /**
+     * Shared scheduler for event delivery and periodic/deferred work. Single
+     * thread, so events submitted in order are delivered in order.
+     */
+    public static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Shared single-threaded executor for disk and database work, so writers
+     * never contend with each other or with event delivery.
+     */
+    public static ScheduledExecutorService io() {
+        return IoHolder.INSTANCE;
+    }
+
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService INSTANCE =
+                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("hh-sched"));
+    }
+
+    private static final class IoHolder {
+        static final ScheduledExecutorService INSTANCE =
+                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("hh-io"));
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -6,33 +6,96 @@ import android.media.AudioRecord;
 import android.media.MediaRecorder;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Manages the ASR pipeline with automatic fallback:
  *
  *   Primary:  WebSocket → hello-hari-recorder backend (IndicConformer + Whisper)
+ *   Offline:  on-device Vosk recognizer, when a model for the language is installed
  *   Fallback: Android SpeechRecognizer (Google Cloud)
  *
- * Captures microphone audio via AudioRecord (16 kHz mono PCM int16) and streams
- * it to whichever engine is active. Scam analysis is handled:
- *   - By the backend (primary) — results arrive in the WebSocket messages
+ * Captures call audio via AudioRecord (16 kHz PCM int16), in frames that
+ * {@link CaptureFrameSizer} keeps short unless the uplink falls behind, and
+ * streams only the remote party's side to whichever engine is active — from the call's
+ * downlink where the device allows it, else from the speakerphone mic split
+ * by {@link SpeakerSegmenter} (see {@link CaptureMode}). Scam analysis is handled:
+ *   - By the backend (primary) — results arrive in the WebSocket messages, and
+ *     each chunk is also matched by the local session for its indicators
+ *   - By ScamPatternEngine locally (offline) — on the capture thread, partials included
  *   - By ScamPatternEngine locally (fallback) — run on Google's transcript
+ *
+ * Call lifecycle: {@link #prewarm()} on RINGING opens the WebSocket, allocates
+ * the AudioRecord + capture buffer and creates the analysis session, so
+ * {@link #start()} on OFFHOOK only has to begin reading the mic. If the call
+ * is rejected, {@link #cancelPrewarm()} drops all of it.
  */
 public final class AsrManager {
 
     private static final String TAG = "AsrManager";
     private static final int SAMPLE_RATE = 16000;
+    // Buffer capacity; reads are sized by CaptureFrameSizer and usually far smaller
+    private static final int CAPTURE_FRAMES = CaptureFrameSizer.MAX_FRAME;
+    private static final int SILENT_SOURCE_SECONDS = 3;
+    static final String KNOWN_RECORDING_LABEL = "Known scam recording";
+    // Keypad entries of PIN / OTP length; shorter ones are IVR menu choices
+    private static final int MIN_SECRET_KEYS = 4;
+    private static final String FINANCIAL_INDICATOR = "FINANCIAL_RISK";
+    static final String KEYPAD_AFTER_DEMAND_LABEL = "Digits typed after a financial request";
+    static final String KEYPAD_ENTRY_LABEL = "Digits typed on the keypad";
+    private static final int KEYPAD_AFTER_DEMAND_SCORE = 90;
+    private static final int KEYPAD_ENTRY_SCORE = 30;
+    // Local scoring: hits only combine within a few minutes and fade meanwhile
+    private static final long SCORE_WINDOW_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SCORE_HALF_LIFE_MS = TimeUnit.MINUTES.toMillis(2);
+
+    public enum Engine { NONE, BACKEND, GOOGLE, OFFLINE }
 
-    public enum Engine { NONE, BACKEND, GOOGLE }
+    /**
+     * Where our own capture gets the call audio. Only the remote party is
+     * transcribed; the user's side is reduced to a local digit-reading signal.
+     */
+    public enum CaptureMode {
+        /** Stereo call path: uplink (user) left, downlink (caller) right. */
+        VOICE_CALL_STEREO,
+        /** Downlink on its own, plus the uplink if that opens as well. */
+        DOWNLINK,
+        /** Speakerphone mic, split by {@link SpeakerSegmenter}. */
+        MIC_SEGMENTED
+    }
 
     public interface Listener {
         void onEngineChanged(Engine engine);
         void onListening();
-        void onTranscription(String text, String language);
-        void onScamResult(boolean isScam, int riskScore, String explanation);
+        /**
+         * @param matchSpans {@code [start, end)} pairs of pattern hits in {@code text}
+         *                   from the local session, or {@code null} if there was
+         *                   none to match the chunk
+         */
+        void onTranscription(String text, String language, int[] matchSpans);
+        void onScamResult(boolean isScam, int riskScore, String explanation, List<String> matchedPatterns);
         void onError(String message);
         void onSessionEnd();
+        /** The user's side of the call sounds like digits being read out (OTP, card number). */
+        default void onUserReadingDigits() {}
+        /**
+         * The user typed a PIN- or OTP-length entry on the keypad; the digits
+         * are not captured. {@code afterFinancialDemand} if the caller had
+         * asked for money or credentials.
+         */
+        default void onKeypadEntry(int keys, boolean afterFinancialDemand) {}
+        /** The call was scored a scam and its audio from a minute before the alert on is saved here. */
+        default void onEvidenceSaved(File file, long durationMs) {}
     }
 
     private final Context context;
@@ -40,6 +103,7 @@ public final class AsrManager {
 
     private StreamingAsrClient streamingClient;
     private GoogleAsrClient googleClient;
+    private volatile OfflineAsr offlineAsr;   // fed by the capture thread
     private ScamPatternEngine patternEngine;
 
     private Listener listener;
@@ -47,15 +111,42 @@ public final class AsrManager {
     private String language = "hi";
     private String serverUrl = "";
 
-    // Audio capture
+    // Per-call local analysis (backend chunks too), created on prewarm or start;
+    // windowed, so a long call doesn't pair a minute-1 context with a minute-25 demand
+    private ScamPatternEngine.Session session;
+
+    // Persistent history (optional) — one record per start()/stop(); guarded by historyLabels
+    private CallHistoryStore historyStore;
+    private String callerNumber;
+    private long historyCallId = 0;
+    private int historyMaxScore = 0;
+    private boolean historyScam = false;
+    private final LinkedHashSet<String> historyLabels = new LinkedHashSet<>();
+
+    // Ringing-time pre-warm: socket open, capture allocated, not yet streaming
+    private final Object prewarmLock = new Object();
+    private boolean prewarming = false;
+    private boolean backendReady = false;
+
+    // Audio capture; buffers and detectors are set up in prepareCapture() and
+    // then only touched by the capture thread
     private AudioRecord audioRecord;
+    private AudioRecord uplinkRecord;          // DOWNLINK mode, if the uplink opens too
+    private volatile CaptureMode captureMode = CaptureMode.MIC_SEGMENTED;
+    private short[] captureBuffer;
+    private short[] remoteBuffer;              // the caller's audio, sent for transcription
+    private short[] userBuffer;                // the user's side, for the digit detector only
+    private SpeakerSegmenter segmenter;        // MIC_SEGMENTED only
+    private DigitCadenceDetector digitCadence;
+    private DtmfDetector dtmf;                 // keypad tones on the user's side
+    private EvidenceRecorder evidence;         // last minute of the call, kept only on a scam verdict
     private Thread captureThread;
     private volatile boolean capturing = false;
 
     public AsrManager(Context context) {
         this.context = context;
         try {
-            this.patternEngine = ScamPatternEngine.getInstance(context);
+            this.patternEngine = PatternBundleLoader.getInstance(context);
         } catch (Exception e) {
             Log.e(TAG, "Failed to load ScamPatternEngine", e);
         }
@@ -73,12 +164,80 @@ public final class AsrManager {
         this.language = language;
     }
 
+    /** Persist every chunk and its analysis to this store (optional). */
+    public void setHistoryStore(CallHistoryStore store) {
+        this.historyStore = store;
+    }
+
+    /** Caller number for the next history record, if known. */
+    public void setCallerNumber(String number) {
+        this.callerNumber = number;
+    }
+
+    /** History record of the running session, or 0 if none is being written. */
+    public long getHistoryCallId() {
+        synchronized (historyLabels) {
+            return historyCallId;
+        }
+    }
+
     public Engine getActiveEngine() {
         return activeEngine;
     }
 
+    /** Audio source of the current or last capture (not used by the Google engine). */
+    public CaptureMode getCaptureMode() {
+        return captureMode;
+    }
+
+    /** Analysis session for the current call, or {@code null} when idle. */
+    public ScamPatternEngine.Session getSession() {
+        return session;
+    }
+
+    /**
+     * Prepare everything that doesn't need the call to be answered: backend
+     * handshake, AudioRecord init and the analysis session. Safe to call on
+     * RINGING; follow with {@link #start()} or {@link #cancelPrewarm()}.
+     */
+    public void prewarm() {
+        if (activeEngine != Engine.NONE || prewarming) return;
+        synchronized (prewarmLock) {
+            prewarming = true;
+            backendReady = false;
+        }
+        newSession();
+        boolean offline = OfflineAsrModels.isAvailable(context, language);
+        // Also the backend's fallback, so load the model either way
+        if (offline) OfflineAsrModels.preload(context, language);
+        if (!serverUrl.isEmpty() || offline) {
+            // Google's recognizer owns the mic itself — only pre-allocate for our own capture
+            prepareCapture();
+        }
+        if (!serverUrl.isEmpty()) startWithBackend();
+        Log.i(TAG, "Pre-warmed (backend=" + !serverUrl.isEmpty() + ", offline=" + offline + ")");
+    }
+
+    /** Tear down a pre-warm whose call was never answered. */
+    public void cancelPrewarm() {
+        synchronized (prewarmLock) {
+            if (!prewarming) return;
+            prewarming = false;
+            backendReady = false;
+        }
+        if (streamingClient != null) {
+            streamingClient.disconnect();
+            streamingClient = null;
+        }
+        releaseCapture();
+        session = null;
+        Log.i(TAG, "Pre-warm cancelled");
+    }
+
     /**
-     * Start the ASR pipeline. Tries backend first, falls back to Google.
+     * Start the ASR pipeline. Tries backend first, then the offline
+     * recognizer, then Google.
+     * Reuses a pre-warmed connection and capture buffers when available.
      */
     public void start() {
         if (activeEngine != Engine.NONE) {
@@ -86,15 +245,35 @@ public final class AsrManager {
             return;
         }
 
-        if (!serverUrl.isEmpty()) {
+        boolean wasPrewarmed;
+        boolean ready;
+        synchronized (prewarmLock) {
+            wasPrewarmed = prewarming;
+            ready = backendReady;
+            prewarming = false;
+        }
+        if (session == null) newSession();
+        beginHistory();
+
+        if (wasPrewarmed && streamingClient != null) {
+            // Either already connected, or onConnected() will activate it.
+            if (ready) activateBackend();
+            return;
+        }
+
+        if (!serverUrl.isEmpty() && !wasPrewarmed) {
             startWithBackend();
         } else {
-            startWithGoogle();
+            startFallback();
         }
     }
 
     public void stop() {
+        // The backend keeps sending queued chunks after "stop" — close the
+        // history record when it reports the session end instead.
+        boolean draining = activeEngine == Engine.BACKEND && streamingClient != null;
         stopCapture();
+        closeOffline(true);
         if (streamingClient != null) {
             streamingClient.stop();
             // Don't disconnect — server will close after draining
@@ -103,13 +282,18 @@ public final class AsrManager {
             googleClient.stop();
         }
         activeEngine = Engine.NONE;
+        session = null;
+        if (!draining) endHistory();
         notifyOnMainThread(() -> {
             if (listener != null) listener.onSessionEnd();
         });
     }
 
     public void destroy() {
+        cancelPrewarm();
         stopCapture();
+        closeOffline(false);
+        endHistory();
         if (streamingClient != null) {
             streamingClient.disconnect();
             streamingClient = null;
@@ -128,23 +312,46 @@ public final class AsrManager {
         streamingClient.setListener(new StreamingAsrClient.Listener() {
             @Override
             public void onConnected() {
-                activeEngine = Engine.BACKEND;
-                notifyOnMainThread(() -> {
-                    if (listener != null) {
-                        listener.onEngineChanged(Engine.BACKEND);
-                        listener.onListening();
+                synchronized (prewarmLock) {
+                    if (prewarming) {
+                        // Call still ringing — hold the socket open until start()
+                        backendReady = true;
+                        Log.i(TAG, "Backend pre-warmed, waiting for OFFHOOK");
+                        return;
                     }
-                });
-                startCapture();
+                }
+                activateBackend();
             }
 
             @Override
             public void onTranscription(String text, String lang, boolean isScam,
-                                        double riskScore, String explanation) {
+                                        double riskScore, String explanation,
+                                        List<String> matchedPatterns) {
+                int score = (int) Math.round(riskScore * 100);
+                ScamPatternEngine.Session s = session;
+                ScamPatternEngine.Result result;
+                int[] spans = null;
+                if (s != null) {
+                    // Matched locally as well, so indicators such as FINANCIAL_INDICATOR
+                    // are known for later audio signals, and the words can be highlighted
+                    synchronized (s) {
+                        result = s.analyzeExternal(text, SystemClock.elapsedRealtime(), score, isScam,
+                                explanation, matchedPatterns);
+                        spans = s.getLastChunkSpans();
+                    }
+                } else {
+                    result = new ScamPatternEngine.Result(isScam, score, score / 100.0,
+                            matchedPatterns != null ? matchedPatterns : Collections.emptyList(),
+                            explanation, Collections.emptyList());
+                }
+                final int[] chunkSpans = spans;
+                recordHistory(text, lang, result.getRiskScore(), result.isScam(), result.getMatchedPatterns());
                 notifyOnMainThread(() -> {
                     if (listener != null) {
-                        listener.onTranscription(text, lang);
-                        listener.onScamResult(isScam, (int) Math.round(riskScore * 100), explanation);
+                        listener.onTranscription(text, lang, chunkSpans);
+                        // The session's result, so call signals (DTMF, recordings) aren't dropped
+                        listener.onScamResult(result.isScam(), result.getRiskScore(), result.getExplanation(),
+                                result.getMatchedPatterns());
                     }
                 });
             }
@@ -155,6 +362,7 @@ public final class AsrManager {
             @Override
             public void onSessionEnd(int totalChunks) {
                 activeEngine = Engine.NONE;
+                endHistory();
                 notifyOnMainThread(() -> {
                     if (listener != null) listener.onSessionEnd();
                 });
@@ -162,21 +370,116 @@ public final class AsrManager {
 
             @Override
             public void onError(String message) {
-                Log.w(TAG, "Backend error: " + message + " — falling back to Google");
                 stopCapture();
                 if (streamingClient != null) {
                     streamingClient.disconnect();
                 }
-                notifyOnMainThread(() -> startWithGoogle());
+                synchronized (prewarmLock) {
+                    if (prewarming) {
+                        // Let start() pick the fallback once the call is answered
+                        Log.w(TAG, "Backend pre-warm failed: " + message);
+                        backendReady = false;
+                        streamingClient = null;
+                        return;
+                    }
+                }
+                Log.w(TAG, "Backend error: " + message + " — falling back");
+                notifyOnMainThread(() -> startFallback());
             }
         });
 
         streamingClient.connect(serverUrl, language);
     }
 
+    private void activateBackend() {
+        activeEngine = Engine.BACKEND;
+        notifyOnMainThread(() -> {
+            if (listener != null) {
+                listener.onEngineChanged(Engine.BACKEND);
+                listener.onListening();
+            }
+        });
+        startCapture();
+    }
+
+    /** No backend: the on-device recognizer if it has a model, else Google. */
+    private void startFallback() {
+        if (OfflineAsrModels.isAvailable(context, language)) {
+            startOffline();
+        } else {
+            startWithGoogle();
+        }
+    }
+
+    // --- On-device recognizer (offline) ---
+
+    private void startOffline() {
+        final String lang = language;
+        final ScamPatternEngine.Session s = session;
+        if (s == null) {
+            startWithGoogle();
+            return;
+        }
+        // Usually pre-loaded while ringing; otherwise this is the slow part
+        Thread loader = new Thread(() -> {
+            OfflineAsr asr;
+            try {
+                asr = new OfflineAsr(OfflineAsrModels.load(context, lang), SAMPLE_RATE, s,
+                        (text, isFinal, result, spans) -> onOfflineTranscript(lang, text, isFinal, result, spans));
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Offline recognizer unavailable — falling back to Google", e);
+                notifyOnMainThread(() -> startWithGoogle());
+                return;
+            }
+            notifyOnMainThread(() -> {
+                if (session != s) {
+                    asr.close();   // stopped while the model loaded
+                    return;
+                }
+                offlineAsr = asr;
+                activeEngine = Engine.OFFLINE;
+                if (listener != null) {
+                    listener.onEngineChanged(Engine.OFFLINE);
+                    listener.onListening();
+                }
+                startCapture();
+            });
+        }, "OfflineAsrStart");
+        loader.start();
+    }
+
+    /**
+     * Capture thread. The session has already scored the text; partials only
+     * move the risk score, and finals are shown and recorded as chunks.
+     */
+    private void onOfflineTranscript(String lang, String text, boolean isFinal,
+                                     ScamPatternEngine.Result result, int[] spans) {
+        if (isFinal) {
+            PipelineLatency.onTranscriptReceived(System.nanoTime());
+            recordHistory(text, lang, result.getRiskScore(), result.isScam(), result.getMatchedPatterns());
+        }
+        notifyOnMainThread(() -> {
+            if (listener == null) return;
+            if (isFinal) listener.onTranscription(text, lang, spans);
+            listener.onScamResult(result.isScam(), result.getRiskScore(), result.getExplanation(),
+                    result.getMatchedPatterns());
+        });
+    }
+
+    /** After the capture thread has stopped: optionally flush the last utterance, then free the recognizer. */
+    private void closeOffline(boolean flush) {
+        OfflineAsr asr = offlineAsr;
+        if (asr == null) return;
+        offlineAsr = null;
+        if (flush) asr.finish(SystemClock.elapsedRealtime());
+        asr.close();
+    }
+
     // --- Google SpeechRecognizer (fallback) ---
 
     private void startWithGoogle() {
+        // SpeechRecognizer opens its own mic — release any pre-warmed AudioRecord
+        releaseCapture();
         googleClient = new GoogleAsrClient(context);
 
         if (!googleClient.isAvailable()) {
@@ -205,13 +508,9 @@ public final class AsrManager {
 
             @Override
             public void onFinalResult(String text, float confidence) {
-                notifyOnMainThread(() -> {
-                    if (listener != null) {
-                        listener.onTranscription(text, language);
-                    }
-                    // Run scam analysis locally
-                    analyzeLocally(text);
-                });
+                PipelineLatency.onTranscriptReceived(System.nanoTime());
+                // Run scam analysis locally, then report chunk + result together
+                notifyOnMainThread(() -> analyzeLocally(text));
             }
 
             @Override
@@ -229,40 +528,172 @@ public final class AsrManager {
         mainHandler.post(() -> googleClient.start(language, true));
     }
 
+    private void newSession() {
+        // Pick up an OTA-updated engine; the session then keeps this snapshot
+        ScamPatternEngine current = PatternBundleLoader.current();
+        if (current != null) patternEngine = current;
+        session = patternEngine != null
+                ? patternEngine.newSession(SCORE_WINDOW_MS, SCORE_HALF_LIFE_MS) : null;
+    }
+
     /** Analyze transcript locally using ScamPatternEngine (for Google fallback). */
     private void analyzeLocally(String text) {
-        if (patternEngine == null || text == null || text.trim().isEmpty()) return;
+        ScamPatternEngine.Session s = session;
+        if (s == null || text == null || text.trim().isEmpty()) {
+            // Unscored, but still shown — the UI pages history row-for-row with what it displayed
+            if (text != null) recordHistory(text, language, 0, false, Collections.emptyList());
+            if (listener != null) listener.onTranscription(text, language, null);
+            return;
+        }
 
-        ScamPatternEngine.Result result = patternEngine.analyze(text);
+        ScamPatternEngine.Result result;
+        int[] spans;
+        long analyzeStart = System.nanoTime();
+        synchronized (s) {
+            result = s.analyze(text, SystemClock.elapsedRealtime());
+            spans = s.getLastChunkSpans();
+        }
+        PipelineLatency.record(PipelineLatency.Stage.LOCAL_ANALYSIS, analyzeStart, System.nanoTime());
+        Log.d(TAG, "Local analysis score=" + result.getRiskScore() + " scam=" + result.isScam());
+        recordHistory(text, language, result.getRiskScore(), result.isScam(), result.getMatchedPatterns());
         if (listener != null) {
+            listener.onTranscription(text, language, spans);
             listener.onScamResult(
                     result.isScam(),
                     result.getRiskScore(),
-                    result.getExplanation()
+                    result.getExplanation(),
+                    result.getMatchedPatterns()
             );
         }
     }
 
-    // --- Audio capture (for backend streaming only) ---
+    // --- History ---
 
-    private void startCapture() {
-        int bufferSize = AudioRecord.getMinBufferSize(
-                SAMPLE_RATE,
-                AudioFormat.CHANNEL_IN_MONO,
-                AudioFormat.ENCODING_PCM_16BIT);
-
-        // Use at least 4096 samples per read
-        bufferSize = Math.max(bufferSize, 4096 * 2);
-
-        audioRecord = new AudioRecord(
-                MediaRecorder.AudioSource.MIC,
-                SAMPLE_RATE,
-                AudioFormat.CHANNEL_IN_MONO,
-                AudioFormat.ENCODING_PCM_16BIT,
-                bufferSize);
-
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+    private void beginHistory() {
+        synchronized (historyLabels) {
+            historyMaxScore = 0;
+            historyScam = false;
+            historyLabels.clear();
+            historyCallId = historyStore != null ? historyStore.beginCall(callerNumber) : 0;
+        }
+    }
+
+    /**
+     * Called from the main thread (Google) or the WebSocket thread (backend).
+     * Every chunk handed to {@link Listener#onTranscription} must come through
+     * here first, in the same order: the transcript view pages stored chunks
+     * by position.
+     */
+    private void recordHistory(String text, String lang, int score, boolean isScam, List<String> labels) {
+        if (isScam) keepEvidence();
+        synchronized (historyLabels) {
+            if (historyStore == null || historyCallId == 0) return;
+            historyStore.recordChunk(historyCallId, System.currentTimeMillis(), text, lang, score, labels);
+            historyMaxScore = Math.max(historyMaxScore, score);
+            historyScam |= isScam;
+            historyLabels.addAll(labels);
+        }
+    }
+
+    /** A signal that isn't a transcript chunk still counts toward the call's record. */
+    private void noteHistorySignal(int score, boolean isScam, List<String> labels) {
+        if (isScam) keepEvidence();
+        synchronized (historyLabels) {
+            if (historyStore == null || historyCallId == 0) return;
+            historyMaxScore = Math.max(historyMaxScore, score);
+            historyScam |= isScam;
+            historyLabels.addAll(labels);
+        }
+    }
+
+    /** Any thread: the call crossed the scam threshold — persist its audio (once per call). */
+    private void keepEvidence() {
+        EvidenceRecorder e = evidence;
+        if (e != null) e.keep();
+    }
+
+    private void endHistory() {
+        synchronized (historyLabels) {
+            if (historyStore == null || historyCallId == 0) return;
+            historyStore.endCall(historyCallId, historyMaxScore, historyScam, new ArrayList<>(historyLabels));
+            historyCallId = 0;
+            callerNumber = null;
+        }
+    }
+
+    // --- Audio capture (backend streaming and the offline recognizer) ---
+
+    /**
+     * Allocate the AudioRecord(s) and buffers without starting the mic,
+     * preferring sources that keep the two sides of the call apart.
+     */
+    private boolean prepareCapture() {
+        if (audioRecord != null) return true;
+
+        // Only privileged or OEM-whitelisted apps get the call paths; others fail to initialize
+        audioRecord = openRecord(MediaRecorder.AudioSource.VOICE_CALL, AudioFormat.CHANNEL_IN_STEREO);
+        if (audioRecord != null) {
+            captureMode = CaptureMode.VOICE_CALL_STEREO;
+        } else if ((audioRecord = openRecord(MediaRecorder.AudioSource.VOICE_DOWNLINK,
+                AudioFormat.CHANNEL_IN_MONO)) != null) {
+            captureMode = CaptureMode.DOWNLINK;
+            uplinkRecord = openRecord(MediaRecorder.AudioSource.VOICE_UPLINK, AudioFormat.CHANNEL_IN_MONO);
+        } else if ((audioRecord = openRecord(MediaRecorder.AudioSource.MIC,
+                AudioFormat.CHANNEL_IN_MONO)) != null) {
+            captureMode = CaptureMode.MIC_SEGMENTED;
+        } else {
             Log.e(TAG, "AudioRecord failed to initialize");
+            return false;
+        }
+        allocateCaptureBuffers();
+        Log.i(TAG, "Capture: " + captureMode + (uplinkRecord != null ? " + uplink" : ""));
+        return true;
+    }
+
+    /** An initialized record for {@code source}, or {@code null} if this device or app can't have it. */
+    private static AudioRecord openRecord(int source, int channelMask) {
+        int channels = channelMask == AudioFormat.CHANNEL_IN_STEREO ? 2 : 1;
+        int bufferSize = AudioRecord.getMinBufferSize(SAMPLE_RATE, channelMask, AudioFormat.ENCODING_PCM_16BIT);
+        if (bufferSize <= 0) return null;
+        // Room for the largest read, so a loop that falls behind doesn't drop audio
+        bufferSize = Math.max(bufferSize, CAPTURE_FRAMES * 2 * channels);
+        try {
+            AudioRecord record = new AudioRecord(source, SAMPLE_RATE, channelMask,
+                    AudioFormat.ENCODING_PCM_16BIT, bufferSize);
+            if (record.getState() == AudioRecord.STATE_INITIALIZED) return record;
+            record.release();
+        } catch (IllegalArgumentException | SecurityException | UnsupportedOperationException e) {
+            Log.d(TAG, "Audio source " + source + " unavailable: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void allocateCaptureBuffers() {
+        int channels = captureMode == CaptureMode.VOICE_CALL_STEREO ? 2 : 1;
+        captureBuffer = new short[CAPTURE_FRAMES * channels];
+        remoteBuffer = new short[SpeakerSegmenter.maxOutput(CAPTURE_FRAMES)];
+        userBuffer = new short[CAPTURE_FRAMES];
+        digitCadence = new DigitCadenceDetector();
+        dtmf = new DtmfDetector(new DtmfDetector.Listener() {
+            @Override
+            public void onKey(char key) { /* counted per entry; PINs stay out of logs */ }
+
+            @Override
+            public void onEntry(int keys) {
+                onKeypadEntry(keys);
+            }
+        });
+        segmenter = captureMode == CaptureMode.MIC_SEGMENTED ? new SpeakerSegmenter(digitCadence) : null;
+        if (evidence == null) {
+            evidence = new EvidenceRecorder(context, (file, durationMs) ->
+                    notifyOnMainThread(() -> {
+                        if (listener != null) listener.onEvidenceSaved(file, durationMs);
+                    }));
+        }
+    }
+
+    private void startCapture() {
+        if (!prepareCapture()) {
             notifyOnMainThread(() -> {
                 if (listener != null) listener.onError("Microphone not available");
             });
@@ -270,38 +701,238 @@ public final class AsrManager {
         }
 
         capturing = true;
+        evidence.begin(getHistoryCallId());
         audioRecord.startRecording();
+        if (uplinkRecord != null) uplinkRecord.startRecording();
 
         captureThread = new Thread(() -> {
-            short[] buffer = new short[4096];
+            // Audio priority rather than URGENT_AUDIO: this thread also fingerprints
+            // and, offline, runs the recognizer
+            Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
+            CaptureFrameSizer sizer = new CaptureFrameSizer();
+            int frames = sizer.frameSize();
+            // Known scam recordings (IVR messages) are spotted from the audio itself
+            FingerprintIndex known = FingerprintStore.getInstance(context).index();
+            FingerprintMatcher matcher = known != null ? new FingerprintMatcher(known) : null;
+            AudioFingerprinter fingerprinter = matcher != null ? new AudioFingerprinter(matcher) : null;
+            long silentFrames = 0;
+            boolean heard = false;
             while (capturing) {
-                int read = audioRecord.read(buffer, 0, buffer.length);
-                if (read > 0 && streamingClient != null) {
-                    streamingClient.sendAudio(buffer, read);
+                int channels = captureMode == CaptureMode.VOICE_CALL_STEREO ? 2 : 1;
+                int read = audioRecord.read(captureBuffer, 0, frames * channels);
+                if (read <= 0) continue;
+                long readAt = System.nanoTime();
+                int n = routeCapture(read);
+                if (!heard) {
+                    // Some HALs open the call paths but only ever deliver zeros
+                    heard = hasSignal(remoteBuffer, n);
+                    silentFrames += read / channels;
+                    if (!heard && captureMode != CaptureMode.MIC_SEGMENTED
+                            && silentFrames > SILENT_SOURCE_SECONDS * SAMPLE_RATE) {
+                        switchToMic();
+                        silentFrames = 0;
+                        continue;
+                    }
+                }
+                if (n == 0) continue;
+                if (fingerprinter != null) {
+                    fingerprinter.process(remoteBuffer, 0, n);
+                    int recording = matcher.takeMatch();
+                    if (recording >= 0) onKnownRecording(known, recording);
                 }
+                OfflineAsr offline = offlineAsr;
+                StreamingAsrClient streaming = streamingClient;
+                long queued = 0;
+                if (offline != null) {
+                    PipelineLatency.onFrameCaptured(readAt);
+                    offline.accept(remoteBuffer, n, SystemClock.elapsedRealtime());
+                } else if (streaming != null) {
+                    PipelineLatency.onFrameCaptured(readAt);
+                    streaming.sendAudio(remoteBuffer, n);
+                    PipelineLatency.record(PipelineLatency.Stage.CAPTURE_TO_SEND, readAt, System.nanoTime());
+                    queued = streaming.queuedBytes();
+                }
+                int next = sizer.update(queued);
+                if (next != frames) {
+                    Log.d(TAG, "Capture frame " + frames + " -> " + next + " samples (send backlog "
+                            + sizer.backlogMs() + " ms)");
+                    frames = next;
+                }
+                PipelineLatency.onCaptureFrame(frames, sizer.effectiveLatencyMs());
             }
         }, "AudioCapture");
         captureThread.start();
     }
 
+    /**
+     * Capture thread: put the remote party's audio for this read into
+     * {@link #remoteBuffer} and run the user's side through the digit
+     * detector only.
+     *
+     * @return remote samples to transcribe
+     */
+    private int routeCapture(int read) {
+        boolean digits = false;
+        int n;
+        switch (captureMode) {
+            case VOICE_CALL_STEREO:
+                // Left is the uplink (the user), right the downlink (the caller)
+                n = read / 2;
+                for (int i = 0; i < n; i++) {
+                    userBuffer[i] = captureBuffer[2 * i];
+                    remoteBuffer[i] = captureBuffer[2 * i + 1];
+                }
+                digits = digitCadence.feed(userBuffer, 0, n);
+                dtmf.process(userBuffer, 0, n);
+                evidence.writeMix(remoteBuffer, userBuffer, n, n);
+                break;
+            case DOWNLINK:
+                n = read;
+                System.arraycopy(captureBuffer, 0, remoteBuffer, 0, n);
+                int up = uplinkRecord != null ? uplinkRecord.read(userBuffer, 0, n) : 0;
+                if (up > 0) {
+                    digits = digitCadence.feed(userBuffer, 0, up);
+                    dtmf.process(userBuffer, 0, up);
+                }
+                evidence.writeMix(remoteBuffer, userBuffer, Math.max(up, 0), n);
+                break;
+            default:
+                // Keypad tones come from the phone's own speaker, so they're in the mic mix
+                dtmf.process(captureBuffer, 0, read);
+                evidence.write(captureBuffer, 0, read);
+                n = segmenter.process(captureBuffer, read, remoteBuffer);
+                digits = segmenter.takeDigitsDetected();
+        }
+        if (digits) {
+            Log.i(TAG, "User side sounds like digits being read out");
+            notifyOnMainThread(() -> {
+                if (listener != null) listener.onUserReadingDigits();
+            });
+        }
+        return n;
+    }
+
+    /** Capture thread: the caller's audio matched a recording in the fingerprint index. */
+    private void onKnownRecording(FingerprintIndex known, int recording) {
+        String explanation = "Known scam recording playing: " + known.name(recording);
+        Log.w(TAG, explanation);
+        publishSignal(KNOWN_RECORDING_LABEL, known.score(recording), explanation);
+    }
+
+    /**
+     * Capture thread: the user typed {@code keys} keys in one go. A few keys
+     * is menu navigation; a PIN- or OTP-length entry counts against the
+     * call, heavily once the caller has asked for money or credentials.
+     * The keys themselves are never logged or kept.
+     */
+    private void onKeypadEntry(int keys) {
+        if (keys < MIN_SECRET_KEYS) {
+            Log.d(TAG, "Keypad: " + keys + " key(s)");
+            return;
+        }
+        ScamPatternEngine.Session s = session;
+        boolean afterDemand = s != null && s.hasIndicator(FINANCIAL_INDICATOR);
+        Log.i(TAG, "Keypad entry of " + keys + " keys" + (afterDemand ? " after a financial demand" : ""));
+        if (afterDemand) {
+            publishSignal(KEYPAD_AFTER_DEMAND_LABEL, KEYPAD_AFTER_DEMAND_SCORE,
+                    "Typed " + keys + " digits on the keypad after being asked for financial details");
+        } else {
+            publishSignal(KEYPAD_ENTRY_LABEL, KEYPAD_ENTRY_SCORE,
+                    "Typed " + keys + " digits on the keypad during the call");
+        }
+        notifyOnMainThread(() -> {
+            if (listener != null) listener.onKeypadEntry(keys, afterDemand);
+        });
+    }
+
+    /** Score evidence found in the audio rather than the transcript, and show it like any result. */
+    private void publishSignal(String label, int score, String explanation) {
+        ScamPatternEngine.Session s = session;
+        boolean isScam;
+        List<String> labels;
+        if (s != null) {
+            ScamPatternEngine.Result r = s.reportSignal(label, score, explanation);
+            score = r.getRiskScore();
+            isScam = r.isScam();
+            labels = r.getMatchedPatterns();
+        } else {
+            isScam = score >= 60;
+            labels = Collections.singletonList(label);
+        }
+        noteHistorySignal(score, isScam, labels);
+        final int finalScore = score;
+        notifyOnMainThread(() -> {
+            if (listener != null) listener.onScamResult(isScam, finalScore, explanation, labels);
+        });
+    }
+
+    /**
+     * Capture thread: the call path stayed digitally silent — fall back to the
+     * speakerphone mic. {@link #stopCapture} waits for this thread before it
+     * releases anything, so the record and buffers are swapped here alone.
+     */
+    private void switchToMic() {
+        Log.w(TAG, captureMode + " delivered only silence — switching to MIC with segmentation");
+        releaseCapture();
+        audioRecord = openRecord(MediaRecorder.AudioSource.MIC, AudioFormat.CHANNEL_IN_MONO);
+        if (!capturing) return;     // stopped while the mic was opening; stopCapture() releases it
+        if (audioRecord == null) {
+            capturing = false;
+            notifyOnMainThread(() -> {
+                if (listener != null) listener.onError("Microphone not available");
+            });
+            return;
+        }
+        captureMode = CaptureMode.MIC_SEGMENTED;
+        allocateCaptureBuffers();
+        audioRecord.startRecording();
+    }
+
+    private static boolean hasSignal(short[] pcm, int n) {
+        for (int i = 0; i < n; i++) {
+            if (pcm[i] != 0) return true;
+        }
+        return false;
+    }
+
     private void stopCapture() {
         capturing = false;
-        if (captureThread != null) {
-            try {
-                captureThread.join(2000);
-            } catch (InterruptedException ignored) {
+        Thread t = captureThread;
+        if (t != null && t != Thread.currentThread()) {
+            // No timeout: the thread may be swapping the record in switchToMic(),
+            // and releasing it underneath would race. A read returns within a frame.
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    t.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
             }
-            captureThread = null;
+            if (interrupted) Thread.currentThread().interrupt();
         }
-        if (audioRecord != null) {
-            try {
-                audioRecord.stop();
-                audioRecord.release();
-            } catch (Exception e) {
-                Log.w(TAG, "Error releasing AudioRecord", e);
+        captureThread = null;
+        if (evidence != null) evidence.end();
+        releaseCapture();
+    }
+
+    private void releaseCapture() {
+        audioRecord = release(audioRecord);
+        uplinkRecord = release(uplinkRecord);
+    }
+
+    private static AudioRecord release(AudioRecord record) {
+        if (record == null) return null;
+        try {
+            if (record.getRecordingState() == AudioRecord.RECORDSTATE_RECORDING) {
+                record.stop();
             }
-            audioRecord = null;
+            record.release();
+        } catch (Exception e) {
+            Log.w(TAG, "Error releasing AudioRecord", e);
         }
+        return null;
     }
 
     private void notifyOnMainThread(Runnable r) {
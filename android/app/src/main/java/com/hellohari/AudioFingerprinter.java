@@ -0,0 +1,214 @@
+package com.hellohari;
+
+import java.util.Arrays;
+
+/**
+ * Streaming spectral-peak landmarks of 16 kHz mono PCM, the same way for a
+ * known scam recording going into a {@link FingerprintIndex} and for the
+ * live call being matched against it.
+ *
+ * <p>Every {@link #HOP} samples (32 ms) a Hann-windowed {@link #FFT_SIZE}-point
+ * spectrum is taken and its strongest bin in each of a few log-spaced bands
+ * between 150 Hz and 4 kHz (the telephone band, with room for wideband
+ * calls) becomes a peak if it has just appeared (see {@link #isPeak}) and
+ * stands out from the frame's other band maxima. Each peak is then an anchor paired with the first
+ * {@link #FAN_OUT} peaks that follow it within {@link #MAX_DT} frames and
+ * {@link #MAX_DF} bins; a pair's (anchor bin, bin difference, frame
+ * difference) is a 20-bit hash that survives gain changes, codecs and
+ * moderate noise, because only the positions of peaks count, never their
+ * level. The anchor's frame number goes with it so the matcher can check
+ * that hashes line up in time.
+ *
+ * <p>{@link #process} allocates nothing. Not thread-safe; one instance per
+ * stream.
+ */
+public final class AudioFingerprinter {
+
+    /** Bumped whenever a change here alters the hashes; indexes carry it. */
+    public static final int PARAMS_VERSION = 1;
+    public static final int SAMPLE_RATE = 16000;
+    static final int FFT_SIZE = 1024;
+    static final int HOP = 512;                      // 32 ms
+    static final int MAX_DT = 31;                    // frames, ~1 s
+    static final int MAX_DF = 63;                    // bins, ~1 kHz
+    static final int FAN_OUT = 3;
+    /** Band edges in FFT bins (15.6 Hz each): 156 Hz to 4 kHz. */
+    private static final int[] BANDS = {10, 20, 40, 80, 120, 180, 256};
+    private static final int MAX_PEAKS = BANDS.length - 1;
+    /** Quietest peak worth a landmark, in dB of windowed FFT power; keeps line noise out. */
+    private static final float MIN_PEAK_DB = 70f;
+    /** A peak must have grown this much (power ratio, 3 dB) since the last frame. */
+    private static final float ONSET_RATIO = 2f;
+
+    /** Receives landmarks as they complete. */
+    public interface LandmarkSink {
+        void onLandmark(int hash, int anchorFrame);
+    }
+
+    private final LandmarkSink sink;
+    private final short[] samples = new short[FFT_SIZE];
+    private int filled;
+    private int frame;
+    // FFT state
+    private final float[] re = new float[FFT_SIZE], im = new float[FFT_SIZE];
+    private static final float[] WINDOW = new float[FFT_SIZE];
+    private static final float[] COS = new float[FFT_SIZE / 2], SIN = new float[FFT_SIZE / 2];
+    private static final int[] BIT_REVERSE = new int[FFT_SIZE];
+    // Peaks of the last MAX_DT + 1 frames: bin, and pairs made so far as an anchor
+    private final int[] peakBin = new int[(MAX_DT + 1) * MAX_PEAKS];
+    private final int[] peakPairs = new int[(MAX_DT + 1) * MAX_PEAKS];
+    private final int[] peakCount = new int[MAX_DT + 1];
+    private float[] power = new float[BANDS[BANDS.length - 1] + 1];
+    private float[] prevPower = new float[BANDS[BANDS.length - 1] + 1];
+    private final float[] bandDb = new float[MAX_PEAKS];
+    private final int[] bandBin = new int[MAX_PEAKS];
+
+    static {
+        int bits = Integer.numberOfTrailingZeros(FFT_SIZE);
+        for (int i = 0; i < FFT_SIZE; i++) {
+            WINDOW[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / FFT_SIZE));
+            BIT_REVERSE[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+        for (int i = 0; i < FFT_SIZE / 2; i++) {
+            COS[i] = (float) Math.cos(2 * Math.PI * i / FFT_SIZE);
+            SIN[i] = (float) -Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+    }
+
+    public AudioFingerprinter(LandmarkSink sink) {
+        this.sink = sink;
+    }
+
+    /** Frames analysed so far; landmark times count in these. */
+    public int frames() {
+        return frame;
+    }
+
+    /** Seconds of audio that {@code frames} frames span. */
+    public static double frameSeconds(int frames) {
+        return (double) frames * HOP / SAMPLE_RATE;
+    }
+
+    /** Feed {@code pcm[off, off + n)}; landmarks go to the sink as they complete. */
+    public void process(short[] pcm, int off, int n) {
+        for (int i = off, end = off + n; i < end; ) {
+            int take = Math.min(FFT_SIZE - filled, end - i);
+            System.arraycopy(pcm, i, samples, filled, take);
+            filled += take;
+            i += take;
+            if (filled == FFT_SIZE) {
+                analyzeFrame();
+                System.arraycopy(samples, HOP, samples, 0, FFT_SIZE - HOP);
+                filled = FFT_SIZE - HOP;
+            }
+        }
+    }
+
+    public void reset() {
+        filled = 0;
+        frame = 0;
+        Arrays.fill(peakCount, 0);
+        Arrays.fill(power, 0);
+    }
+
+    /** Landmark hash: anchor bin (8 bits), bin difference + 64 (7 bits), frame difference (5 bits). */
+    static int hash(int anchorBin, int targetBin, int dt) {
+        return anchorBin << 12 | (targetBin - anchorBin + 64) << 5 | dt;
+    }
+
+    private void analyzeFrame() {
+        for (int i = 0; i < FFT_SIZE; i++) {
+            int j = BIT_REVERSE[i];
+            re[j] = samples[i] * WINDOW[i];
+            im[j] = 0;
+        }
+        fft(re, im);
+        float[] p = prevPower;
+        prevPower = power;
+        power = p;
+        for (int k = 0; k < power.length; k++) power[k] = re[k] * re[k] + im[k] * im[k];
+
+        // Strongest bin per band, if it's a local maximum loud enough to matter
+        int bands = 0;
+        float sumDb = 0;
+        for (int b = 0; b < MAX_PEAKS; b++) {
+            int best = -1;
+            float bestPower = 0;
+            for (int k = BANDS[b]; k < BANDS[b + 1]; k++) {
+                if (power[k] > bestPower) {
+                    bestPower = power[k];
+                    best = k;
+                }
+            }
+            if (best < 0 || !isPeak(best)) continue;
+            float db = (float) (10 * Math.log10(bestPower));
+            if (db < MIN_PEAK_DB) continue;
+            bandBin[bands] = best;
+            bandDb[bands++] = db;
+            sumDb += db;
+        }
+
+        // Keep the band maxima that stand out from this frame's others
+        int slot = frame % (MAX_DT + 1);
+        int base = slot * MAX_PEAKS;
+        int count = 0;
+        float mean = bands > 0 ? sumDb / bands : 0;
+        for (int b = 0; b < bands; b++) {
+            if (bandDb[b] >= mean) {
+                peakBin[base + count] = bandBin[b];
+                peakPairs[base + count] = 0;
+                count++;
+            }
+        }
+        peakCount[slot] = count;
+
+        // Pair each new peak, as a target, with earlier anchors that still have room
+        for (int t = 0; t < count; t++) {
+            int target = peakBin[base + t];
+            for (int dt = 1; dt <= MAX_DT && dt <= frame; dt++) {
+                int aSlot = (frame - dt) % (MAX_DT + 1);
+                int aBase = aSlot * MAX_PEAKS;
+                for (int a = 0; a < peakCount[aSlot]; a++) {
+                    if (peakPairs[aBase + a] >= FAN_OUT) continue;
+                    int anchor = peakBin[aBase + a];
+                    if (Math.abs(target - anchor) > MAX_DF) continue;
+                    peakPairs[aBase + a]++;
+                    sink.onLandmark(hash(anchor, target, dt), frame - dt);
+                }
+            }
+        }
+        frame++;
+    }
+
+    /**
+     * A local maximum across frequency that is also new in time: a steady
+     * tone or vowel would repeat one hash every frame and line up with any
+     * recording holding the same note, so only onsets and moving partials
+     * make peaks.
+     */
+    private boolean isPeak(int k) {
+        float pk = power[k];
+        if (pk <= power[k - 1] || pk < power[k + 1]) return false;
+        float before = Math.max(prevPower[k], Math.max(prevPower[k - 1], prevPower[k + 1]));
+        return pk >= ONSET_RATIO * before;
+    }
+
+    /** In-place radix-2 FFT of bit-reversed input. */
+    private static void fft(float[] re, float[] im) {
+        for (int size = 2; size <= FFT_SIZE; size <<= 1) {
+            int half = size >> 1, step = FFT_SIZE / size;
+            for (int start = 0; start < FFT_SIZE; start += size) {
+                for (int k = 0; k < half; k++) {
+                    float wr = COS[k * step], wi = SIN[k * step];
+                    int a = start + k, b = a + half;
+                    float tr = re[b] * wr - im[b] * wi;
+                    float ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+}
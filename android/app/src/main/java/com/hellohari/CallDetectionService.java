@@ -10,8 +10,6 @@ import android.content.Intent;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.IBinder;
-import android.telephony.PhoneStateListener;
-import android.telephony.TelephonyManager;
 import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
@@ -27,8 +25,9 @@ public class CallDetectionService extends Service {
     private static final String CHANNEL_ID = "CallDetectionChannel";
     private static final int NOTIFICATION_ID = 1001;
     
-    private TelephonyManager telephonyManager;
-    private CallStateListener callStateListener;
+    private CallSessionCoordinator callCoordinator;
+    private final CallSessionCoordinator.Subscriber callSubscriber = this::onCallEvent;
+    private long recordingCallId = 0;
     private MediaRecorder mediaRecorder;
     private String currentRecordingPath;
     private MultiLanguageScamDetector scamDetector;
@@ -48,7 +47,7 @@ public class CallDetectionService extends Service {
         // Initialize components
         scamDetector = new MultiLanguageScamDetector(this);
         try {
-            patternEngine = ScamPatternEngine.getInstance(this);
+            patternEngine = PatternBundleLoader.getInstance(this);
             Log.i(TAG, "ScamPatternEngine ready — schema=" + patternEngine.getSchemaVersion()
                     + " phrases=" + patternEngine.getPatternCount()
                     + " generated=" + patternEngine.getGeneratedAt());
@@ -56,11 +55,9 @@ public class CallDetectionService extends Service {
             // Non-fatal: legacy detector still works. Log loudly so we notice.
             Log.e(TAG, "Failed to load patterns.json — falling back to legacy detector only", e);
         }
-        telephonyManager = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        callStateListener = new CallStateListener();
-        
-        // Start listening for call state changes
-        telephonyManager.listen(callStateListener, PhoneStateListener.LISTEN_CALL_STATE);
+        // Start listening for call state changes (shared subscription)
+        callCoordinator = CallSessionCoordinator.getInstance(this);
+        callCoordinator.subscribe(callSubscriber);
     }
     
     @Override
@@ -82,7 +79,7 @@ public class CallDetectionService extends Service {
         stopRecording();
         
         // Stop listening for call state changes
-        telephonyManager.listen(callStateListener, PhoneStateListener.LISTEN_NONE);
+        callCoordinator.unsubscribe(callSubscriber);
         
         super.onDestroy();
     }
@@ -129,7 +126,7 @@ public class CallDetectionService extends Service {
             
             // Create file name based on timestamp and phone number
             String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
-            String caller = phoneNumber.replaceAll("[^0-9]", "");
+            String caller = phoneNumber != null ? phoneNumber.replaceAll("[^0-9]", "") : "";
             if (caller.isEmpty()) {
                 caller = "unknown";
             }
@@ -152,7 +149,8 @@ public class CallDetectionService extends Service {
             // Update notification
             NotificationManager notificationManager =
                     (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-            notificationManager.notify(NOTIFICATION_ID, createNotification("Recording call from " + phoneNumber));
+            notificationManager.notify(NOTIFICATION_ID, createNotification("Recording call from "
+                    + (phoneNumber != null ? phoneNumber : "unknown number")));
             
         } catch (IOException e) {
             Log.e(TAG, "Error starting recording", e);
@@ -213,6 +211,8 @@ public class CallDetectionService extends Service {
      * @return engine result, or {@code null} if the engine failed to load
      */
     public ScamPatternEngine.Result analyzeTranscript(String transcript) {
+        ScamPatternEngine current = PatternBundleLoader.current();
+        if (current != null) patternEngine = current;   // follow OTA bundle swaps
         if (patternEngine == null) {
             Log.w(TAG, "analyzeTranscript called but pattern engine is not loaded");
             return null;
@@ -252,37 +252,36 @@ public class CallDetectionService extends Service {
     }
     
     /**
-     * Listener for call state changes
+     * Call events from the shared {@link CallSessionCoordinator}.
      */
-    private class CallStateListener extends PhoneStateListener {
-        private boolean wasRinging = false;
-        private String incomingNumber = null;
-        
-        @Override
-        public void onCallStateChanged(int state, String phoneNumber) {
-            switch (state) {
-                case TelephonyManager.CALL_STATE_RINGING:
-                    Log.d(TAG, "Incoming call from: " + phoneNumber);
-                    wasRinging = true;
-                    incomingNumber = phoneNumber;
-                    break;
-                    
-                case TelephonyManager.CALL_STATE_OFFHOOK:
-                    if (wasRinging) {
-                        Log.d(TAG, "Call answered, starting recording");
-                        startRecording(incomingNumber);
-                    }
-                    break;
-                    
-                case TelephonyManager.CALL_STATE_IDLE:
-                    if (isRecording) {
-                        Log.d(TAG, "Call ended, stopping recording");
-                        stopRecording();
-                    }
-                    wasRinging = false;
-                    incomingNumber = null;
-                    break;
-            }
+    private void onCallEvent(CallSessionCoordinator.CallEvent event) {
+        switch (event.getType()) {
+            case RINGING:
+                Log.d(TAG, "Incoming call from: " + event.getPhoneNumber());
+                break;
+
+            case ANSWERED:
+                // Another component (e.g. live ASR) may already own the mic
+                if (callCoordinator.acquireCapture(event.getCallId(), this)) {
+                    Log.d(TAG, "Call answered, starting recording");
+                    recordingCallId = event.getCallId();
+                    startRecording(event.getPhoneNumber());
+                } else {
+                    Log.d(TAG, "Call answered, capture owned elsewhere — not recording");
+                }
+                break;
+
+            case ENDED:
+                if (isRecording) {
+                    Log.d(TAG, "Call ended, stopping recording");
+                    stopRecording();
+                }
+                callCoordinator.releaseCapture(recordingCallId, this);
+                recordingCallId = 0;
+                break;
+
+            default:
+                break;
         }
     }
 }
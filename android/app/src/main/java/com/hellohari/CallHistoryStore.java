@@ -0,0 +1,561 @@
+package com.hellohari;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Persistent per-call analysis history: transcript chunks with timestamps,
+ * scores and matched labels, searchable across calls.
+ *
+ * <p>Storage layout (SQLite):
+ * <ul>
+ *   <li>{@code calls} — one row per call (start/end, peak score, labels).</li>
+ *   <li>{@code chunks} — one row per ASR chunk; transcript text and caller
+ *       number are AES-GCM encrypted with a key held in the Android Keystore.</li>
+ *   <li>{@code chunks_fts} — contentless FTS4 index (docid = chunk id) over
+ *       blinded tokens, not words: each normalized token is replaced by a
+ *       truncated HMAC-SHA256 under a random index key, and a chunk's tokens
+ *       are de-duplicated and sorted so positions say nothing about word
+ *       order. FTS keeps its terms in cleartext segment tables, so indexing
+ *       the words themselves would leave the transcript readable on disk.
+ *       Framework SQLite ships FTS3/4 but not FTS5.</li>
+ *   <li>{@code meta} — the index key, AES-GCM encrypted like the chunks.</li>
+ * </ul>
+ *
+ * <p>Writes are queued and flushed in one transaction per batch on
+ * {@link AppExecutors#io()} — callers on the main or capture thread never
+ * touch the database. Queries are blocking and paged; run them off the main
+ * thread.
+ */
+public final class CallHistoryStore {
+
+    private static final String TAG = "CallHistoryStore";
+    private static final String DB_NAME = "call_history.db";
+    private static final int DB_VERSION = 2;
+    private static final String KEY_ALIAS = "hello_hari_history";
+    private static final String META_INDEX_KEY = "index_key";
+    private static final int TOKEN_DIGEST_BYTES = 12;
+
+    private static final int FLUSH_BATCH = 32;
+    private static final long FLUSH_DELAY_MS = 500;
+
+    private static volatile CallHistoryStore sInstance;
+
+    private final Helper helper;
+    private final AtomicLong lastCallId = new AtomicLong();
+
+    // Pending writes — guarded by pendingLock
+    private final Object pendingLock = new Object();
+    private List<Runnable> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Loaded lazily from the Keystore on first encrypt/decrypt
+    private SecretKey key;
+    // Unwrapped from the meta table on first index write or search
+    private byte[] indexKey;
+
+    public static CallHistoryStore getInstance(Context ctx) {
+        CallHistoryStore local = sInstance;
+        if (local == null) {
+            synchronized (CallHistoryStore.class) {
+                local = sInstance;
+                if (local == null) {
+                    local = new CallHistoryStore(ctx.getApplicationContext());
+                    sInstance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private CallHistoryStore(Context context) {
+        this.helper = new Helper(context, this);
+    }
+
+    // ---- Writes (non-blocking, batched) ----
+
+    /**
+     * Start a call record. Returns immediately; the id is allocated in
+     * memory (monotonic wall-clock millis) so no database round trip is needed.
+     */
+    public long beginCall(String phoneNumber) {
+        final long now = System.currentTimeMillis();
+        final long callId = lastCallId.accumulateAndGet(now, (prev, t) -> Math.max(prev + 1, t));
+        enqueue(() -> {
+            ContentValues v = new ContentValues();
+            v.put("id", callId);
+            v.put("started_at", now);
+            if (phoneNumber != null) v.put("phone_enc", encrypt(phoneNumber));
+            db().insertWithOnConflict("calls", null, v, SQLiteDatabase.CONFLICT_REPLACE);
+        }, false);
+        return callId;
+    }
+
+    /** Queue one transcript chunk with its analysis. */
+    public void recordChunk(long callId, long timestampMs, String text, String language,
+                            int riskScore, List<String> labels) {
+        if (callId == 0 || text == null || text.trim().isEmpty()) return;
+        final String joined = join(labels);
+        enqueue(() -> {
+            ContentValues v = new ContentValues();
+            v.put("call_id", callId);
+            v.put("ts_ms", timestampMs);
+            v.put("language", language);
+            v.put("text_enc", encrypt(text));
+            v.put("score", riskScore);
+            v.put("labels", joined);
+            long chunkId = db().insert("chunks", null, v);
+            if (chunkId > 0) index(db(), chunkId, text);
+        }, false);
+    }
+
+    /** Close a call record; flushes the queue promptly. */
+    public void endCall(long callId, int maxScore, boolean isScam, List<String> labels) {
+        if (callId == 0) return;
+        final String joined = join(labels);
+        final long now = System.currentTimeMillis();
+        enqueue(() -> {
+            ContentValues v = new ContentValues();
+            v.put("ended_at", now);
+            v.put("max_score", maxScore);
+            v.put("is_scam", isScam ? 1 : 0);
+            v.put("labels", joined);
+            db().update("calls", v, "id = ?", new String[]{String.valueOf(callId)});
+        }, true);
+    }
+
+    private void enqueue(Runnable write, boolean urgent) {
+        synchronized (pendingLock) {
+            pending.add(write);
+            boolean flushNow = urgent || pending.size() >= FLUSH_BATCH;
+            if (flushNow) {
+                if (scheduledFlush != null) scheduledFlush.cancel(false);
+                scheduledFlush = null;
+                AppExecutors.io().execute(this::flush);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = AppExecutors.io().schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Runs on the io thread: drain the queue into one transaction. */
+    private void flush() {
+        List<Runnable> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new ArrayList<>();
+            scheduledFlush = null;
+        }
+        SQLiteDatabase db = db();
+        db.beginTransaction();
+        try {
+            for (Runnable w : batch) w.run();
+            db.setTransactionSuccessful();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "History batch of " + batch.size() + " failed", e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // ---- Queries (blocking, paged) ----
+
+    /**
+     * Calls, newest first. Keyset-paged: pass {@code Long.MAX_VALUE} for the
+     * first page, then the last returned {@link CallSummary#id}.
+     */
+    public List<CallSummary> listCalls(long beforeCallId, int limit) {
+        List<CallSummary> out = new ArrayList<>(limit);
+        try (Cursor c = db().rawQuery(
+                "SELECT id, started_at, ended_at, max_score, is_scam, labels, "
+                        + "(SELECT COUNT(*) FROM chunks WHERE call_id = calls.id) "
+                        + "FROM calls WHERE id < ? ORDER BY id DESC LIMIT ?",
+                new String[]{String.valueOf(beforeCallId), String.valueOf(limit)})) {
+            while (c.moveToNext()) {
+                out.add(new CallSummary(c.getLong(0), c.getLong(1), c.getLong(2),
+                        c.getInt(3), c.getInt(4) != 0, split(c.getString(5)), c.getInt(6)));
+            }
+        }
+        return out;
+    }
+
+    /** Chunks of one call in time order, {@code offset}/{@code limit} paged. */
+    public List<Chunk> getChunks(long callId, int offset, int limit) {
+        return queryChunks(
+                "SELECT id, call_id, ts_ms, language, text_enc, score, labels FROM chunks "
+                        + "WHERE call_id = ? ORDER BY ts_ms, id LIMIT ? OFFSET ?",
+                new String[]{String.valueOf(callId), String.valueOf(limit), String.valueOf(offset)});
+    }
+
+    /** Most recent chunks across all calls, newest first. */
+    public List<Chunk> getRecentChunks(int offset, int limit) {
+        return queryChunks(
+                "SELECT id, call_id, ts_ms, language, text_enc, score, labels FROM chunks "
+                        + "ORDER BY id DESC LIMIT ? OFFSET ?",
+                new String[]{String.valueOf(limit), String.valueOf(offset)});
+    }
+
+    /**
+     * Search across every stored call. Words in {@code query} must all occur
+     * in a chunk; {@code OR} between two words accepts either (e.g.
+     * {@code digital arrest}, {@code otp OR pin}). The index holds no word
+     * order, so a quoted phrase matches its words anywhere in the chunk.
+     * Newest hits first.
+     */
+    public List<Chunk> search(String query, int offset, int limit) {
+        if (query == null || query.trim().isEmpty()) return Collections.emptyList();
+        String match = blindQuery(db(), query);
+        if (match.isEmpty()) return Collections.emptyList();
+        return queryChunks(
+                "SELECT c.id, c.call_id, c.ts_ms, c.language, c.text_enc, c.score, c.labels "
+                        + "FROM chunks_fts JOIN chunks c ON c.id = chunks_fts.docid "
+                        + "WHERE chunks_fts MATCH ? ORDER BY c.id DESC LIMIT ? OFFSET ?",
+                new String[]{match, String.valueOf(limit), String.valueOf(offset)});
+    }
+
+    private List<Chunk> queryChunks(String sql, String[] args) {
+        List<Chunk> out = new ArrayList<>();
+        try (Cursor c = db().rawQuery(sql, args)) {
+            while (c.moveToNext()) {
+                out.add(new Chunk(c.getLong(0), c.getLong(1), c.getLong(2), c.getString(3),
+                        decrypt(c.getBlob(4)), c.getInt(5), split(c.getString(6))));
+            }
+        }
+        return out;
+    }
+
+    private SQLiteDatabase db() {
+        return helper.getWritableDatabase();
+    }
+
+    // ---- Encryption (Android Keystore AES-GCM) ----
+
+    private synchronized SecretKey key() throws GeneralSecurityException {
+        if (key != null) return key;
+        try {
+            KeyStore ks = KeyStore.getInstance("AndroidKeyStore");
+            ks.load(null);
+            KeyStore.Entry entry = ks.getEntry(KEY_ALIAS, null);
+            if (entry instanceof KeyStore.SecretKeyEntry) {
+                key = ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+                return key;
+            }
+            KeyGenerator gen = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, "AndroidKeyStore");
+            gen.init(new KeyGenParameterSpec.Builder(KEY_ALIAS,
+                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                    .setKeySize(256)
+                    .build());
+            key = gen.generateKey();
+            return key;
+        } catch (IOException e) {
+            throw new GeneralSecurityException("Keystore unavailable", e);
+        }
+    }
+
+    private byte[] encrypt(String plain) {
+        return seal(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decrypt(byte[] blob) {
+        byte[] plain = open(blob);
+        return plain == null ? "" : new String(plain, StandardCharsets.UTF_8);
+    }
+
+    /** IV (12 bytes) followed by ciphertext + tag. */
+    private byte[] seal(byte[] plain) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key());
+            byte[] iv = cipher.getIV();
+            byte[] body = cipher.doFinal(plain);
+            byte[] out = new byte[iv.length + body.length];
+            System.arraycopy(iv, 0, out, 0, iv.length);
+            System.arraycopy(body, 0, out, iv.length, body.length);
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("History encryption failed", e);
+        }
+    }
+
+    /**
+     * Encrypt {@code plain} into {@code target} in the {@link #seal} layout,
+     * streamed so a long file is never held in memory. For files that belong
+     * to a call record, such as {@link EvidenceRecorder} clips.
+     */
+    void sealFile(File plain, File target) throws IOException, GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key());
+        try (InputStream in = new FileInputStream(plain);
+             FileOutputStream out = new FileOutputStream(target)) {
+            out.write(cipher.getIV());
+            byte[] buf = new byte[64 * 1024];
+            for (int n; (n = in.read(buf)) > 0; ) {
+                byte[] body = cipher.update(buf, 0, n);
+                if (body != null) out.write(body);
+            }
+            out.write(cipher.doFinal());
+            out.getFD().sync();
+        }
+    }
+
+    /** {@code null} when the blob is empty or does not authenticate. */
+    private byte[] open(byte[] blob) {
+        if (blob == null || blob.length <= 12) return null;
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key(), new GCMParameterSpec(128, blob, 0, 12));
+            return cipher.doFinal(blob, 12, blob.length - 12);
+        } catch (GeneralSecurityException e) {
+            Log.w(TAG, "Could not decrypt history entry", e);
+            return null;
+        }
+    }
+
+    // ---- Blind index ----
+
+    /**
+     * Random HMAC key for index tokens, stored sealed under the Keystore key.
+     * Kept in software once unwrapped: a Keystore HMAC would cost an IPC per
+     * token. Takes the database explicitly because it also runs inside
+     * {@link Helper#onUpgrade}.
+     */
+    private synchronized byte[] indexKey(SQLiteDatabase db) {
+        if (indexKey != null) return indexKey;
+        try (Cursor c = db.rawQuery("SELECT v FROM meta WHERE k = ?", new String[]{META_INDEX_KEY})) {
+            if (c.moveToFirst()) indexKey = open(c.getBlob(0));
+        }
+        if (indexKey == null) {
+            // First use, or the Keystore key was lost and old tokens are unreadable anyway
+            byte[] fresh = new byte[32];
+            new SecureRandom().nextBytes(fresh);
+            ContentValues v = new ContentValues();
+            v.put("k", META_INDEX_KEY);
+            v.put("v", seal(fresh));
+            db.insertWithOnConflict("meta", null, v, SQLiteDatabase.CONFLICT_REPLACE);
+            indexKey = fresh;
+        }
+        return indexKey;
+    }
+
+    private void index(SQLiteDatabase db, long chunkId, String text) {
+        Mac mac = mac(db);
+        TreeSet<String> blind = new TreeSet<>();
+        for (String token : tokens(text)) blind.add(digest(mac, token));
+        if (blind.isEmpty()) return;
+        ContentValues f = new ContentValues();
+        f.put("docid", chunkId);
+        f.put("text", String.join(" ", blind));
+        db.insert("chunks_fts", null, f);
+    }
+
+    /** {@code query} rewritten over index tokens; empty if it has no words. */
+    private String blindQuery(SQLiteDatabase db, String query) {
+        Mac mac = mac(db);
+        StringBuilder sb = new StringBuilder();
+        boolean or = false;
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                or = sb.length() > 0;
+                continue;
+            }
+            for (String token : tokens(word)) {
+                if (sb.length() > 0) sb.append(or ? " OR " : " ");
+                or = false;
+                sb.append(digest(mac, token));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Re-index stored chunks after the plaintext index was dropped (v1 → v2). */
+    private void reindex(SQLiteDatabase db) {
+        try (Cursor c = db.rawQuery("SELECT id, text_enc FROM chunks", null)) {
+            while (c.moveToNext()) {
+                String text = decrypt(c.getBlob(1));
+                if (!text.isEmpty()) index(db, c.getLong(0), text);
+            }
+        }
+    }
+
+    private Mac mac(SQLiteDatabase db) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(indexKey(db), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("History index key unusable", e);
+        }
+    }
+
+    private static String digest(Mac mac, String token) {
+        byte[] h = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(TOKEN_DIGEST_BYTES * 2);
+        for (int i = 0; i < TOKEN_DIGEST_BYTES; i++) {
+            sb.append(Character.forDigit((h[i] >> 4) & 0xF, 16)).append(Character.forDigit(h[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * NFKC, lower-cased runs of letters, digits and combining marks — the
+     * marks keep Devanagari and other Indic words in one piece.
+     */
+    static List<String> tokens(String text) {
+        String s = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < s.length(); ) {
+            int cp = s.codePointAt(i);
+            int type = Character.getType(cp);
+            boolean word = Character.isLetterOrDigit(cp)
+                    || type == Character.NON_SPACING_MARK
+                    || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK;
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(s.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(cp);
+        }
+        if (start >= 0) out.add(s.substring(start));
+        return out;
+    }
+
+    // ---- Helpers ----
+
+    private static String join(List<String> labels) {
+        if (labels == null || labels.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder();
+        for (String l : labels) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(l);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> split(String joined) {
+        if (joined == null || joined.isEmpty()) return Collections.emptyList();
+        List<String> out = new ArrayList<>();
+        Collections.addAll(out, joined.split("\n"));
+        return out;
+    }
+
+    private static final class Helper extends SQLiteOpenHelper {
+        private final CallHistoryStore store;
+
+        Helper(Context context, CallHistoryStore store) {
+            super(context, DB_NAME, null, DB_VERSION);
+            this.store = store;
+        }
+
+        @Override
+        public void onConfigure(SQLiteDatabase db) {
+            db.enableWriteAheadLogging();
+            // Zero freed pages, so a dropped or deleted index leaves nothing behind
+            DatabaseUtils.longForQuery(db, "PRAGMA secure_delete = ON", null);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE calls ("
+                    + "id INTEGER PRIMARY KEY, started_at INTEGER NOT NULL, ended_at INTEGER, "
+                    + "phone_enc BLOB, max_score INTEGER DEFAULT 0, is_scam INTEGER DEFAULT 0, "
+                    + "labels TEXT)");
+            db.execSQL("CREATE TABLE chunks ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT, call_id INTEGER NOT NULL, "
+                    + "ts_ms INTEGER NOT NULL, language TEXT, text_enc BLOB, "
+                    + "score INTEGER DEFAULT 0, labels TEXT)");
+            db.execSQL("CREATE INDEX chunks_by_call ON chunks(call_id, ts_ms)");
+            createIndex(db);
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            if (oldVersion < 2) {
+                // v1 indexed the words themselves; rebuild over blinded tokens
+                db.execSQL("DROP TABLE IF EXISTS chunks_fts");
+                createIndex(db);
+                store.reindex(db);
+            }
+        }
+
+        private static void createIndex(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS meta (k TEXT PRIMARY KEY, v BLOB)");
+            db.execSQL("CREATE VIRTUAL TABLE chunks_fts USING fts4(content=\"\", text)");
+        }
+    }
+
+    // ---- Data classes ----
+
+    public static final class CallSummary {
+        public final long id;
+        public final long startedAt;
+        public final long endedAt;      // 0 while the call is open
+        public final int maxScore;
+        public final boolean isScam;
+        public final List<String> labels;
+        public final int chunkCount;
+
+        CallSummary(long id, long startedAt, long endedAt, int maxScore, boolean isScam,
+                    List<String> labels, int chunkCount) {
+            this.id = id; this.startedAt = startedAt; this.endedAt = endedAt;
+            this.maxScore = maxScore; this.isScam = isScam; this.labels = labels;
+            this.chunkCount = chunkCount;
+        }
+    }
+
+    public static final class Chunk {
+        public final long id;
+        public final long callId;
+        public final long timestampMs;
+        public final String language;
+        public final String text;
+        public final int riskScore;
+        public final List<String> labels;
+
+        Chunk(long id, long callId, long timestampMs, String language, String text,
+              int riskScore, List<String> labels) {
+            this.id = id; this.callId = callId; this.timestampMs = timestampMs;
+            this.language = language; this.text = text; this.riskScore = riskScore;
+            this.labels = labels;
+        }
+    }
+}
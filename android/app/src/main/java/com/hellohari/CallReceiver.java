@@ -6,6 +6,12 @@ import android.content.Intent;
 import android.telephony.TelephonyManager;
 import android.util.Log;
 
+/**
+ * Phone-state broadcast receiver, registered by {@link CallSessionCoordinator}
+ * on API 31+ only to learn the caller's number ({@code TelephonyCallback}
+ * doesn't provide it). Call state itself comes from the coordinator's
+ * telephony callback.
+ */
 public class CallReceiver extends BroadcastReceiver {
     private static final String TAG = "CallReceiver";
 
@@ -14,9 +20,10 @@ public class CallReceiver extends BroadcastReceiver {
         if (TelephonyManager.ACTION_PHONE_STATE_CHANGED.equals(intent.getAction())) {
             String state = intent.getStringExtra(TelephonyManager.EXTRA_STATE);
             if (TelephonyManager.EXTRA_STATE_RINGING.equals(state)) {
+                // Only delivered when READ_CALL_LOG is granted
                 String number = intent.getStringExtra(TelephonyManager.EXTRA_INCOMING_NUMBER);
                 Log.d(TAG, "Incoming call from: " + number);
-                // We'll handle the call here once permissions are working
+                CallSessionCoordinator.getInstance(context).reportIncomingNumber(number);
             }
         }
     }
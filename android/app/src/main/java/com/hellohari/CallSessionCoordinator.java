@@ -0,0 +1,302 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.telephony.PhoneStateListener;
+import android.telephony.TelephonyCallback;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Single owner of the telephony call-state subscription.
+ *
+ * <p>Detectors and services used to each register their own receiver or
+ * {@link PhoneStateListener} and could all start recording the same call.
+ * Now they {@link #subscribe(Subscriber)} here and receive typed
+ * {@link CallEvent}s on the main thread, and whoever wants the microphone
+ * must win {@link #acquireCapture(long, Object)} for that call first — so
+ * there is exactly one capture pipeline per call.
+ *
+ * <p>API 31+ uses {@link TelephonyCallback}; older releases fall back to
+ * {@link PhoneStateListener}. {@code TelephonyCallback} no longer carries the
+ * caller's number, so on 31+ the number arrives separately from the
+ * phone-state broadcast ({@link CallReceiver}) as a
+ * {@link EventType#CALLER_NUMBER} event.
+ */
+public final class CallSessionCoordinator {
+
+    private static final String TAG = "CallSession";
+
+    public enum EventType {
+        /** Incoming call started ringing. Number may be null on API 31+. */
+        RINGING,
+        /** Caller number resolved after {@link #RINGING} (API 31+). */
+        CALLER_NUMBER,
+        /** Incoming call picked up. */
+        ANSWERED,
+        /** Outgoing call started (OFFHOOK without ringing). */
+        OUTGOING,
+        /** Call over — check {@link CallEvent#wasAnswered()} for missed/rejected. */
+        ENDED
+    }
+
+    public interface Subscriber {
+        void onCallEvent(CallEvent event);
+    }
+
+    /** Immutable call event; {@code callId} is stable for one call's lifetime. */
+    public static final class CallEvent {
+        private final EventType type;
+        private final long callId;
+        private final String phoneNumber;
+        private final boolean answered;
+        private final long timestampMs;
+
+        CallEvent(EventType type, long callId, String phoneNumber, boolean answered) {
+            this.type = type;
+            this.callId = callId;
+            this.phoneNumber = phoneNumber;
+            this.answered = answered;
+            this.timestampMs = System.currentTimeMillis();
+        }
+
+        public EventType getType()      { return type; }
+        public long getCallId()         { return callId; }
+        public String getPhoneNumber()  { return phoneNumber; }
+        public boolean wasAnswered()    { return answered; }
+        public long getTimestampMs()    { return timestampMs; }
+
+        @Override
+        public String toString() {
+            return type + "#" + callId + (phoneNumber != null ? " " + phoneNumber : "");
+        }
+    }
+
+    private static volatile CallSessionCoordinator sInstance;
+
+    private final Context context;
+    private final TelephonyManager telephonyManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Telephony registration (one of the two, depending on API level)
+    private Object telephonyCallback;
+    private PhoneStateListener phoneStateListener;
+    private CallReceiver numberReceiver;
+
+    // Current call — touched only on the main thread
+    private int lastState = TelephonyManager.CALL_STATE_IDLE;
+    private long nextCallId = 1;
+    private long currentCallId = 0;
+    private String currentNumber;
+    private String pendingNumber;   // broadcast beat the callback to RINGING
+    private boolean currentAnswered = false;
+
+    // Capture ownership for the current call
+    private final Object captureLock = new Object();
+    private long captureCallId = 0;
+    private Object captureOwner;
+
+    public static CallSessionCoordinator getInstance(Context ctx) {
+        CallSessionCoordinator local = sInstance;
+        if (local == null) {
+            synchronized (CallSessionCoordinator.class) {
+                local = sInstance;
+                if (local == null) {
+                    local = new CallSessionCoordinator(ctx.getApplicationContext());
+                    sInstance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private CallSessionCoordinator(Context context) {
+        this.context = context;
+        this.telephonyManager = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+    }
+
+    // ---- Subscription ----
+
+    /**
+     * Register for call events. The telephony subscription is opened with
+     * the first subscriber and closed with the last. Call on the main thread.
+     */
+    public void subscribe(Subscriber subscriber) {
+        if (subscribers.addIfAbsent(subscriber) && subscribers.size() == 1) {
+            registerTelephony();
+        }
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+            unregisterTelephony();
+        }
+    }
+
+    private void registerTelephony() {
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+                CallStateCallback cb = new CallStateCallback();
+                telephonyManager.registerTelephonyCallback(mainExecutor(), cb);
+                telephonyCallback = cb;
+
+                numberReceiver = new CallReceiver();
+                context.registerReceiver(numberReceiver,
+                        new IntentFilter(TelephonyManager.ACTION_PHONE_STATE_CHANGED));
+            } else {
+                phoneStateListener = new LegacyListener();
+                telephonyManager.listen(phoneStateListener, PhoneStateListener.LISTEN_CALL_STATE);
+            }
+            Log.i(TAG, "Telephony subscription opened");
+        } catch (SecurityException e) {
+            Log.e(TAG, "READ_PHONE_STATE not granted — call events unavailable", e);
+        }
+    }
+
+    private void unregisterTelephony() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && telephonyCallback != null) {
+            telephonyManager.unregisterTelephonyCallback((TelephonyCallback) telephonyCallback);
+            telephonyCallback = null;
+        }
+        if (phoneStateListener != null) {
+            telephonyManager.listen(phoneStateListener, PhoneStateListener.LISTEN_NONE);
+            phoneStateListener = null;
+        }
+        if (numberReceiver != null) {
+            try {
+                context.unregisterReceiver(numberReceiver);
+            } catch (IllegalArgumentException ignored) {
+            }
+            numberReceiver = null;
+        }
+        Log.i(TAG, "Telephony subscription closed");
+    }
+
+    private Executor mainExecutor() {
+        return mainHandler::post;
+    }
+
+    // ---- Capture ownership ----
+
+    /**
+     * Claim the microphone for a call. Only the first owner per call gets
+     * {@code true}; everyone else must not open a recorder. Ownership is
+     * dropped automatically when the call ends.
+     */
+    public boolean acquireCapture(long callId, Object owner) {
+        synchronized (captureLock) {
+            if (captureCallId == callId && captureOwner != null) {
+                return captureOwner == owner;
+            }
+            captureCallId = callId;
+            captureOwner = owner;
+            Log.d(TAG, "Capture for call #" + callId + " owned by " + owner.getClass().getSimpleName());
+            return true;
+        }
+    }
+
+    public void releaseCapture(long callId, Object owner) {
+        synchronized (captureLock) {
+            if (captureCallId == callId && captureOwner == owner) {
+                captureOwner = null;
+            }
+        }
+    }
+
+    // ---- State machine ----
+
+    /** Caller number from the phone-state broadcast (API 31+ path). */
+    void reportIncomingNumber(String number) {
+        mainHandler.post(() -> {
+            if (number == null || number.isEmpty()) return;
+            if (currentCallId == 0) {
+                pendingNumber = number;
+                return;
+            }
+            if (number.equals(currentNumber)) return;
+            currentNumber = number;
+            publish(new CallEvent(EventType.CALLER_NUMBER, currentCallId, number, currentAnswered));
+        });
+    }
+
+    private void onStateChanged(int state, String number) {
+        if (number != null && number.isEmpty()) number = null;
+        if (state == lastState) return;
+
+        switch (state) {
+            case TelephonyManager.CALL_STATE_RINGING:
+                startCall(number);
+                publish(new CallEvent(EventType.RINGING, currentCallId, currentNumber, false));
+                break;
+
+            case TelephonyManager.CALL_STATE_OFFHOOK:
+                if (lastState == TelephonyManager.CALL_STATE_RINGING) {
+                    currentAnswered = true;
+                    publish(new CallEvent(EventType.ANSWERED, currentCallId, currentNumber, true));
+                } else {
+                    startCall(number);
+                    currentAnswered = true;
+                    publish(new CallEvent(EventType.OUTGOING, currentCallId, currentNumber, true));
+                }
+                break;
+
+            case TelephonyManager.CALL_STATE_IDLE:
+                if (currentCallId != 0) {
+                    long ended = currentCallId;
+                    publish(new CallEvent(EventType.ENDED, ended, currentNumber, currentAnswered));
+                    synchronized (captureLock) {
+                        if (captureCallId == ended) captureOwner = null;
+                    }
+                }
+                currentCallId = 0;
+                currentNumber = null;
+                pendingNumber = null;
+                currentAnswered = false;
+                break;
+        }
+        lastState = state;
+    }
+
+    private void startCall(String number) {
+        currentCallId = nextCallId++;
+        currentNumber = number != null ? number : pendingNumber;
+        pendingNumber = null;
+        currentAnswered = false;
+    }
+
+    private void publish(CallEvent event) {
+        Log.d(TAG, "Event " + event);
+        for (Subscriber s : subscribers) {
+            try {
+                s.onCallEvent(event);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Subscriber failed on " + event, e);
+            }
+        }
+    }
+
+    // ---- Telephony adapters ----
+
+    private final class CallStateCallback extends TelephonyCallback
+            implements TelephonyCallback.CallStateListener {
+        @Override
+        public void onCallStateChanged(int state) {
+            onStateChanged(state, null);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private final class LegacyListener extends PhoneStateListener {
+        @Override
+        public void onCallStateChanged(int state, String phoneNumber) {
+            onStateChanged(state, phoneNumber);
+        }
+    }
+}
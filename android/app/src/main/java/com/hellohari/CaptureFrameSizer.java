@@ -0,0 +1,74 @@
+package com.hellohari;
+
+/**
+ * Picks how many samples the capture loop reads at a time.
+ *
+ * <p>A frame can't leave the phone before it has been read in full, so its
+ * length is a floor on latency: the old fixed 4096-sample read held audio
+ * back for 256 ms. While the link keeps up, frames stay at 20–40 ms. When
+ * the WebSocket's send queue grows, the link is behind and every message
+ * adds framing and a wake-up, so the size steps up (up to
+ * {@link #MAX_FRAME}) until the backlog drains, and steps back down once the
+ * queue has stayed empty for {@link #SHRINK_AFTER_MS}. Engines without a
+ * queue (offline recognizer) report no backlog and stay small.
+ *
+ * <p>Capture thread only.
+ */
+final class CaptureFrameSizer {
+
+    static final int SAMPLE_RATE = 16000;
+    /** 20, 40, 80, 160 and 256 ms at 16 kHz. */
+    private static final int[] SIZES = {320, 640, 1280, 2560, 4096};
+    static final int MAX_FRAME = SIZES[SIZES.length - 1];
+    private static final int INITIAL_STEP = 1;                 // 40 ms until the link proves itself
+    private static final int GROW_BACKLOG_FRAMES = 4;          // queued frames before batching more
+    private static final int SHRINK_AFTER_MS = 2000;
+    private static final int BYTES_PER_MS = SAMPLE_RATE * 2 / 1000;
+
+    private int step = INITIAL_STEP;
+    private int backlogMs;
+    private int healthyMs;
+
+    /** Samples (per channel) to read next. */
+    int frameSize() {
+        return SIZES[step];
+    }
+
+    /** Audio still waiting to be sent as of the last {@link #update}, in milliseconds. */
+    int backlogMs() {
+        return backlogMs;
+    }
+
+    /** Read-to-send delay a sample sees: filling its frame, then the queue ahead of it. */
+    int effectiveLatencyMs() {
+        return frameMs(SIZES[step]) + backlogMs;
+    }
+
+    /**
+     * After each read: adjust the size from the bytes still queued for
+     * sending ({@code 0} when nothing queues).
+     *
+     * @return the frame size for the next read
+     */
+    int update(long queuedBytes) {
+        backlogMs = (int) Math.min(Integer.MAX_VALUE, queuedBytes / BYTES_PER_MS);
+        int frameMs = frameMs(SIZES[step]);
+        if (backlogMs > GROW_BACKLOG_FRAMES * frameMs) {
+            if (step < SIZES.length - 1) step++;
+            healthyMs = 0;
+        } else if (backlogMs <= frameMs) {
+            healthyMs += frameMs;
+            if (healthyMs >= SHRINK_AFTER_MS && step > 0) {
+                step--;
+                healthyMs = 0;
+            }
+        } else {
+            healthyMs = 0;
+        }
+        return SIZES[step];
+    }
+
+    private static int frameMs(int samples) {
+        return samples * 1000 / SAMPLE_RATE;
+    }
+}
@@ -0,0 +1,124 @@
+package com.hellohari;
+
+import android.content.Intent;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pipeline latency percentiles from {@link PipelineLatency}, with refresh,
+ * reset and share. Opened by long-pressing the shield on the main screen.
+ * Layout is built in code, like the transcript rows.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private static final String TAG = "Diagnostics";
+    private static final String REPORT_FILE = "latency_report.txt";
+
+    private TextView reportView;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        int pad = dp(16);
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.setPadding(pad, pad, pad, pad);
+
+        TextView title = new TextView(this);
+        title.setText("Pipeline latency");
+        title.setTextSize(18);
+        title.setTypeface(Typeface.DEFAULT_BOLD);
+        title.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
+        root.addView(title);
+
+        reportView = new TextView(this);
+        reportView.setTypeface(Typeface.MONOSPACE);
+        reportView.setTextSize(11);
+        reportView.setTextColor(ContextCompat.getColor(this, R.color.text_secondary));
+        reportView.setPadding(0, pad, 0, pad);
+        reportView.setTextIsSelectable(true);
+        root.addView(reportView);
+
+        LinearLayout buttons = new LinearLayout(this);
+        buttons.setOrientation(LinearLayout.HORIZONTAL);
+        buttons.addView(button("Refresh", () -> refresh()));
+        buttons.addView(button("Reset", () -> {
+            PipelineLatency.reset();
+            refresh();
+        }));
+        buttons.addView(button("Share", this::share));
+        root.addView(buttons);
+
+        ScrollView scroll = new ScrollView(this);
+        scroll.addView(root);
+        setContentView(scroll);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        reportView.setText(buildReport());
+    }
+
+    private String buildReport() {
+        StringBuilder sb = new StringBuilder(PipelineLatency.report());
+        ScamPatternEngine engine = PatternBundleLoader.current();
+        if (engine != null) {
+            sb.append("\npatterns: ").append(engine.getPatternCount())
+              .append(" phrases, bundle ").append(engine.getGeneratedAt()).append('\n')
+              .append("model heap: ").append(engine.getMemoryFootprint() / 1024).append(" KiB\n");
+        }
+        return sb.toString();
+    }
+
+    /** Log the report, write it to app files and hand it to the share sheet. */
+    private void share() {
+        String report = buildReport();
+        Log.i(TAG, "Latency report\n" + report);
+        File out = new File(getFilesDir(), REPORT_FILE);
+        try (FileOutputStream fos = new FileOutputStream(out)) {
+            fos.write(report.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + out, e);
+        }
+        Intent send = new Intent(Intent.ACTION_SEND);
+        send.setType("text/plain");
+        send.putExtra(Intent.EXTRA_SUBJECT, "Hello Hari latency report");
+        send.putExtra(Intent.EXTRA_TEXT, report);
+        startActivity(Intent.createChooser(send, "Share report"));
+    }
+
+    private Button button(String label, Runnable action) {
+        Button b = new Button(this);
+        b.setText(label);
+        b.setOnClickListener(v -> action.run());
+        LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+                0, ViewGroup.LayoutParams.WRAP_CONTENT, 1);
+        lp.rightMargin = dp(8);
+        b.setLayoutParams(lp);
+        return b;
+    }
+
+    private int dp(int dp) {
+        return (int) (dp * getResources().getDisplayMetrics().density);
+    }
+}
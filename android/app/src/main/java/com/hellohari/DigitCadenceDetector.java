@@ -0,0 +1,85 @@
+package com.hellohari;
+
+/**
+ * Cheap local signal from the user's side of the call, which is no longer
+ * transcribed: does it sound like someone reading out digits (an OTP, card
+ * or account number)?
+ *
+ * <p>Digits read aloud come as a run of short, evenly separated bursts —
+ * "four … two … seven … nine" — unlike running speech, whose syllables
+ * merge into longer voiced stretches. Per 20 ms frame the detector only
+ * needs "user speaking or not" and counts bursts of
+ * {@link #MIN_BURST}–{@link #MAX_BURST} frames separated by gaps of
+ * {@link #MIN_GAP}–{@link #MAX_GAP} frames; {@link #DIGITS_TO_FIRE} in a
+ * row fire once, then it stays quiet for {@link #COOLDOWN} frames.
+ * A heuristic: it can't know the words, only the rhythm.
+ */
+final class DigitCadenceDetector {
+
+    // In 20 ms frames
+    static final int MIN_BURST = 6, MAX_BURST = 30;     // 120–600 ms per digit
+    static final int MIN_GAP = 4, MAX_GAP = 45;         // 80–900 ms between digits
+    static final int DIGITS_TO_FIRE = 4;
+    static final int COOLDOWN = 500;                    // 10 s
+
+    private final SpeakerSegmenter.Vad vad = new SpeakerSegmenter.Vad();
+    private int framed;
+    private long frameEnergy;
+    private boolean speaking;
+    private int run;          // frames in the current burst or gap
+    private int digits;       // qualifying bursts in a row
+    private int cooldown;
+
+    /**
+     * Feed one frame of the user's side.
+     *
+     * @return true when this frame completes a digit-reading run
+     */
+    boolean onFrame(boolean userSpeaking) {
+        if (cooldown > 0) cooldown--;
+        if (userSpeaking == speaking) {
+            run++;
+            // A burst or gap that runs too long isn't a digit sequence
+            if ((speaking && run > MAX_BURST) || (!speaking && run > MAX_GAP)) digits = 0;
+            return false;
+        }
+        boolean fired = false;
+        if (speaking) {
+            // A burst just ended
+            if (run >= MIN_BURST && run <= MAX_BURST) {
+                if (++digits >= DIGITS_TO_FIRE && cooldown == 0) {
+                    fired = true;
+                    digits = 0;
+                    cooldown = COOLDOWN;
+                }
+            } else {
+                digits = 0;
+            }
+        } else if (run < MIN_GAP) {
+            // Too short a gap: the previous burst and this one are one word
+            digits = Math.max(0, digits - 1);
+        }
+        speaking = userSpeaking;
+        run = 1;
+        return fired;
+    }
+
+    /**
+     * Feed raw PCM of a channel that only carries the user (uplink), with
+     * its own voice activity detection.
+     *
+     * @return true if a digit-reading run completed in these samples
+     */
+    boolean feed(short[] pcm, int off, int n) {
+        boolean fired = false;
+        for (int i = off; i < off + n; i++) {
+            frameEnergy += pcm[i] * pcm[i];
+            if (++framed == SpeakerSegmenter.FRAME) {
+                fired |= onFrame(vad.isSpeech(SpeakerSegmenter.Vad.toDb(frameEnergy, framed)));
+                framed = 0;
+                frameEnergy = 0;
+            }
+        }
+        return fired;
+    }
+}
@@ -0,0 +1,167 @@
+package com.hellohari;
+
+/**
+ * Keypad (DTMF) tones in 16 kHz PCM, which speech recognition ignores:
+ * "press 1" IVR menus, and victims typing a card PIN or OTP during a call.
+ *
+ * <p>Eight Goertzel filters, one per DTMF frequency, run sample by sample
+ * over {@link #BLOCK}-sample (25 ms) blocks, so input can arrive in any
+ * sizes and nothing is allocated. A block holds a key when one
+ * row and one column tone are both loud enough, each stands
+ * {@link #DOMINANCE} above the rest of its group, their levels are within
+ * the usual twist limits, and together they carry most of the block's
+ * energy, and the column tone has no second harmonic, as a voiced sound
+ * landing on the same frequencies would — which keeps speech and music
+ * from passing as keys. A
+ * key counts once it is held for two blocks (the standard 40 ms minimum),
+ * one of which may be a block the tone only partly covers, and is
+ * released after two blocks without it. Presses separated by less
+ * than {@link #SEQUENCE_GAP_BLOCKS} form one entry, reported when the gap
+ * passes or on {@code #}.
+ *
+ * <p>About 8 multiply-adds per sample; the harmonic check only runs on the
+ * rare block that passes everything else. Not thread-safe; one per stream.
+ */
+final class DtmfDetector {
+
+    static final int SAMPLE_RATE = 16000;
+    static final int BLOCK = 400;                       // 25 ms, 40 Hz resolution
+    static final int SEQUENCE_GAP_BLOCKS = 120;         // 3 s
+    private static final double MIN_AMPLITUDE = 300;    // per tone, about -40 dBFS
+    private static final double DOMINANCE = 4;          // 6 dB over the group's next tone
+    private static final double MAX_FORWARD_TWIST = 6.3; // column above row, 8 dB
+    private static final double MAX_REVERSE_TWIST = 2.5; // row above column, 4 dB
+    private static final double MIN_TONE_SHARE = 0.6;   // of block energy, in one of the two blocks
+    private static final double MIN_EDGE_SHARE = 0.4;   // in the other, which may be part silence
+    private static final double MAX_HARMONIC = 0.1;     // second harmonic at least 10 dB down
+
+    private static final double[] FREQS = {697, 770, 852, 941, 1209, 1336, 1477, 1633};
+    private static final char[][] KEYS = {
+            {'1', '2', '3', 'A'},
+            {'4', '5', '6', 'B'},
+            {'7', '8', '9', 'C'},
+            {'*', '0', '#', 'D'},
+    };
+    private static final double[] COEF = new double[FREQS.length];
+    static {
+        for (int i = 0; i < FREQS.length; i++) COEF[i] = 2 * Math.cos(2 * Math.PI * FREQS[i] / SAMPLE_RATE);
+    }
+
+    /** Called on the feeding thread. */
+    interface Listener {
+        /** A key press, once confirmed. */
+        void onKey(char key);
+        /** An entry of {@code keys} presses has ended (gap or {@code #}). */
+        void onEntry(int keys);
+    }
+
+    private final Listener listener;
+    private final double[] s1 = new double[FREQS.length], s2 = new double[FREQS.length];
+    private final double[] power = new double[FREQS.length];
+    private final short[] block = new short[BLOCK];   // kept for the harmonic check
+    private double energy;
+    private int filled;
+    private char candidate;       // key seen in the previous block, or 0
+    private boolean candidateFull;
+    private boolean full;         // the last detect() passed MIN_TONE_SHARE, not just the edge share
+    private char held;            // confirmed key still down, or 0
+    private int missing;          // blocks without the held key
+    private int keys;             // presses in the current entry
+    private int idle;             // blocks since the last press
+
+    DtmfDetector(Listener listener) {
+        this.listener = listener;
+    }
+
+    void process(short[] pcm, int off, int n) {
+        final double[] c = COEF;
+        for (int i = off, end = off + n; i < end; i++) {
+            double x = pcm[i];
+            block[filled] = pcm[i];
+            energy += x * x;
+            for (int f = 0; f < c.length; f++) {
+                double s = x + c[f] * s1[f] - s2[f];
+                s2[f] = s1[f];
+                s1[f] = s;
+            }
+            if (++filled == BLOCK) endBlock();
+        }
+    }
+
+    /** Key in this block per the tone tests, or 0. */
+    private char detect() {
+        int row = strongest(0), col = strongest(4);
+        double pr = power[row], pc = power[col];
+        // Goertzel power of a tone of amplitude a over the block is (a·N/2)²
+        double minPower = MIN_AMPLITUDE * BLOCK / 2;
+        minPower *= minPower;
+        if (pr < minPower || pc < minPower) return 0;
+        if (pc > pr * MAX_FORWARD_TWIST || pr > pc * MAX_REVERSE_TWIST) return 0;
+        for (int f = 0; f < 4; f++) {
+            if (f != row && power[f] * DOMINANCE > pr) return 0;
+            if (f + 4 != col && power[f + 4] * DOMINANCE > pc) return 0;
+        }
+        // A tone's share of block energy is 2·power/N
+        double share = 2 * (pr + pc) / BLOCK / energy;
+        if (share < MIN_EDGE_SHARE) return 0;
+        // Only the column's: twice a row frequency lands next to a column tone
+        if (goertzel(2 * FREQS[col]) > pc * MAX_HARMONIC) return 0;
+        full = share >= MIN_TONE_SHARE;
+        return KEYS[row][col - 4];
+    }
+
+    private void endBlock() {
+        for (int f = 0; f < FREQS.length; f++) {
+            power[f] = s1[f] * s1[f] + s2[f] * s2[f] - COEF[f] * s1[f] * s2[f];
+            s1[f] = s2[f] = 0;
+        }
+        char key = detect();
+        energy = 0;
+        filled = 0;
+
+        if (held != 0) {
+            if (key == held) {
+                missing = 0;
+            } else if (++missing >= 2) {
+                held = 0;
+            }
+        } else if (key != 0 && key == candidate && (full || candidateFull)) {
+            held = key;
+            missing = 0;
+            idle = 0;
+            keys++;
+            listener.onKey(key);
+            if (key == '#') endEntry();
+        }
+        candidate = key;
+        candidateFull = key != 0 && full;
+        if (held == 0 && keys > 0 && ++idle >= SEQUENCE_GAP_BLOCKS) endEntry();
+    }
+
+    private void endEntry() {
+        int n = keys;
+        keys = 0;
+        idle = 0;
+        listener.onEntry(n);
+    }
+
+    /** Power at {@code freq} over the block just ended. */
+    private double goertzel(double freq) {
+        double c = 2 * Math.cos(2 * Math.PI * freq / SAMPLE_RATE);
+        double a = 0, b = 0;
+        for (int i = 0; i < BLOCK; i++) {
+            double s = block[i] + c * a - b;
+            b = a;
+            a = s;
+        }
+        return a * a + b * b - c * a * b;
+    }
+
+    private int strongest(int from) {
+        int best = from;
+        for (int f = from + 1; f < from + 4; f++) {
+            if (power[f] > power[best]) best = f;
+        }
+        return best;
+    }
+}
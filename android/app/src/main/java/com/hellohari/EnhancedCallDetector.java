@@ -1,9 +1,8 @@
 package com.hellohari;
 
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
 import android.telephony.TelephonyManager;
 import android.util.Log;
 import android.widget.Toast;
@@ -14,19 +13,22 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.Timer;
-import java.util.TimerTask;
 
 public class EnhancedCallDetector {
     private static final String TAG = "EnhancedCallDetector";
     private Context context;
-    private BroadcastReceiver callReceiver;
+    private CallSessionCoordinator.Subscriber callSubscriber;
     private boolean isMonitoring = false;
     private MediaRecorder mediaRecorder;
     private String currentRecordingPath;
     private boolean isRecording = false;
-    private Timer riskAnalysisTimer;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ScamPatternEngine.Session riskSession;
+    private int lastAlertLevel = 0;
     private CallRecordingAnalyzer analyzer;
+    private AsrManager asrManager;
+    private boolean callAnswered = false;
+    private long currentCallId = 0;
     
     // Define constants for switch-case compatibility
     private static final String STATE_RINGING = TelephonyManager.EXTRA_STATE_RINGING;
@@ -35,6 +37,7 @@ public class EnhancedCallDetector {
     
     public interface CallDetectionListener {
         void onCallStateChanged(String state, String phoneNumber);
+        /** {@code filePath} is null when the call is captured by the live ASR pipeline. */
         void onRecordingStatusChanged(boolean isRecording, String filePath);
         void onRiskLevelChanged(int riskScore, String analysis);
     }
@@ -50,6 +53,14 @@ public class EnhancedCallDetector {
         this.listener = listener;
     }
 
+    /**
+     * Optional live transcription pipeline. When set, it is pre-warmed on
+     * RINGING and started on OFFHOOK so analysis begins at the first word.
+     */
+    public void setAsrManager(AsrManager asrManager) {
+        this.asrManager = asrManager;
+    }
+
     public boolean startCallDetection() {
         if (isMonitoring) {
             Log.d(TAG, "Enhanced call detection already running");
@@ -57,35 +68,14 @@ public class EnhancedCallDetector {
         }
 
         try {
-            callReceiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    String action = intent.getAction();
-                    Log.d(TAG, "Received broadcast: " + action);
-                    
-                    if (TelephonyManager.ACTION_PHONE_STATE_CHANGED.equals(action)) {
-                        String state = intent.getStringExtra(TelephonyManager.EXTRA_STATE);
-                        String phoneNumber = intent.getStringExtra(TelephonyManager.EXTRA_INCOMING_NUMBER);
-                        
-                        Log.d(TAG, "Phone state changed: " + state + ", Number: " + phoneNumber);
-                        
-                        // Handle different call states with recording
-                        handleCallStateChangeWithRecording(state, phoneNumber);
-                        
-                        // Notify listener
-                        if (listener != null) {
-                            listener.onCallStateChanged(state, phoneNumber);
-                        }
-                    }
-                }
-            };
+            callSubscriber = this::onCallEvent;
 
-            IntentFilter filter = new IntentFilter();
-            filter.addAction(TelephonyManager.ACTION_PHONE_STATE_CHANGED);
-            filter.setPriority(IntentFilter.SYSTEM_HIGH_PRIORITY);
-            
-            context.registerReceiver(callReceiver, filter);
+            // Shared telephony subscription — see CallSessionCoordinator
+            CallSessionCoordinator.getInstance(context).subscribe(callSubscriber);
             isMonitoring = true;
+
+            // Map the reputation store now so the ringing path never waits on I/O
+            loadReputationStore();
             
             Log.d(TAG, "Enhanced call detection started successfully");
             showToast("🎤 Hello Hari: Advanced call monitoring started");
@@ -99,7 +89,7 @@ public class EnhancedCallDetector {
     }
 
     public boolean stopCallDetection() {
-        if (!isMonitoring || callReceiver == null) {
+        if (!isMonitoring || callSubscriber == null) {
             Log.d(TAG, "Enhanced call detection not running");
             return false;
         }
@@ -108,15 +98,12 @@ public class EnhancedCallDetector {
             // Stop any ongoing recording
             stopRecording();
             
-            context.unregisterReceiver(callReceiver);
-            callReceiver = null;
+            CallSessionCoordinator.getInstance(context).unsubscribe(callSubscriber);
+            callSubscriber = null;
             isMonitoring = false;
             
-            // Cancel risk analysis timer
-            if (riskAnalysisTimer != null) {
-                riskAnalysisTimer.cancel();
-                riskAnalysisTimer = null;
-            }
+            // Detach from the live analysis session
+            stopRealTimeAnalysis();
             
             Log.d(TAG, "Enhanced call detection stopped");
             showToast("🛑 Hello Hari: Advanced monitoring stopped");
@@ -140,16 +127,53 @@ public class EnhancedCallDetector {
         return currentRecordingPath;
     }
 
-    private void handleCallStateChangeWithRecording(String state, String phoneNumber) {
-        if (STATE_RINGING.equals(state)) {
-            Log.i(TAG, "📞 INCOMING CALL detected - Preparing recording");
-            onIncomingCallDetected(phoneNumber);
-        } else if (STATE_OFFHOOK.equals(state)) {
-            Log.i(TAG, "📱 CALL ANSWERED - Starting recording and analysis");
-            onCallAnswered(phoneNumber);
-        } else if (STATE_IDLE.equals(state)) {
-            Log.i(TAG, "📴 CALL ENDED - Stopping recording and analyzing");
-            onCallEnded(phoneNumber);
+    private void loadReputationStore() {
+        if (analyzer.reputationStore != null) return;
+        new Thread(() -> {
+            try {
+                analyzer.reputationStore = NumberReputationStore.getInstance(context);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load number reputation store — using prefix heuristics only", e);
+            }
+        }, "ReputationLoad").start();
+    }
+
+    private void onCallEvent(CallSessionCoordinator.CallEvent event) {
+        String phoneNumber = event.getPhoneNumber();
+        Log.d(TAG, "Call event: " + event);
+
+        String state = null;
+        switch (event.getType()) {
+            case RINGING:
+                Log.i(TAG, "📞 INCOMING CALL detected - Preparing recording");
+                currentCallId = event.getCallId();
+                state = STATE_RINGING;
+                onIncomingCallDetected(phoneNumber);
+                break;
+            case CALLER_NUMBER:
+                // Number resolved after RINGING (API 31+) — redo the number check
+                if (asrManager != null) asrManager.setCallerNumber(phoneNumber);
+                notifyNumberRisk(phoneNumber);
+                break;
+            case ANSWERED:
+                Log.i(TAG, "📱 CALL ANSWERED - Starting recording and analysis");
+                currentCallId = event.getCallId();
+                state = STATE_OFFHOOK;
+                onCallAnswered(phoneNumber);
+                break;
+            case OUTGOING:
+                state = STATE_OFFHOOK;
+                break;
+            case ENDED:
+                Log.i(TAG, "📴 CALL ENDED - Stopping recording and analyzing");
+                state = STATE_IDLE;
+                onCallEnded(phoneNumber);
+                currentCallId = 0;
+                break;
+        }
+
+        if (state != null && listener != null) {
+            listener.onCallStateChanged(state, phoneNumber);
         }
     }
 
@@ -159,8 +183,23 @@ public class EnhancedCallDetector {
         
         // Prepare recording setup
         prepareRecording(phoneNumber);
+
+        // Open the ASR connection and capture buffers while the phone rings —
+        // only if no other component has claimed the mic for this call.
+        callAnswered = false;
+        if (asrManager != null) {
+            asrManager.setCallerNumber(phoneNumber);
+        }
+        if (asrManager != null
+                && CallSessionCoordinator.getInstance(context).acquireCapture(currentCallId, this)) {
+            asrManager.prewarm();
+        }
         
         // Start initial risk assessment based on number
+        notifyNumberRisk(phoneNumber);
+    }
+
+    private void notifyNumberRisk(String phoneNumber) {
         int initialRisk = analyzer.analyzePhoneNumber(phoneNumber);
         if (listener != null) {
             listener.onRiskLevelChanged(initialRisk, "Initial number analysis");
@@ -170,9 +209,23 @@ public class EnhancedCallDetector {
     private void onCallAnswered(String phoneNumber) {
         String displayNumber = phoneNumber != null ? phoneNumber : "Unknown Number";
         showToast("🎤 Recording call with " + displayNumber + " for safety");
-        
-        // Start recording
-        if (startRecording()) {
+
+        callAnswered = true;
+        if (!CallSessionCoordinator.getInstance(context).acquireCapture(currentCallId, this)) {
+            Log.i(TAG, "Capture for this call is owned by another component");
+            return;
+        }
+
+        // One capture pipeline per call: live ASR when attached, else MediaRecorder
+        boolean capturing;
+        if (asrManager != null) {
+            asrManager.start();
+            capturing = true;
+            if (listener != null) listener.onRecordingStatusChanged(true, null);
+        } else {
+            capturing = startRecording();
+        }
+        if (capturing) {
             // Start real-time risk analysis
             startRealTimeAnalysis(phoneNumber);
         }
@@ -180,6 +233,16 @@ public class EnhancedCallDetector {
 
     private void onCallEnded(String phoneNumber) {
         showToast("📴 Call ended - Analyzing recording for scams...");
+
+        if (asrManager != null) {
+            if (callAnswered) {
+                asrManager.stop();
+            } else {
+                asrManager.cancelPrewarm();
+            }
+        }
+        CallSessionCoordinator.getInstance(context).releaseCapture(currentCallId, this);
+        callAnswered = false;
         
         // Stop recording and analyze
         String recordingPath = stopRecording();
@@ -283,41 +346,49 @@ public class EnhancedCallDetector {
         }
     }
 
+    /**
+     * Subscribe to the live analysis session. Updates are pushed only when
+     * the session's score changes, on the shared scheduler — no polling.
+     */
     private void startRealTimeAnalysis(String phoneNumber) {
-        if (riskAnalysisTimer != null) {
-            riskAnalysisTimer.cancel();
+        stopRealTimeAnalysis();
+        final int numberRisk = analyzer.analyzePhoneNumber(phoneNumber);
+
+        riskSession = asrManager != null ? asrManager.getSession() : null;
+        if (riskSession == null) {
+            // No live transcript: the number check is all we have and it won't change
+            AppExecutors.scheduler().execute(() ->
+                    onRiskUpdate(numberRisk, analyzer.getRiskAnalysisText(numberRisk)));
+            return;
         }
-        
-        riskAnalysisTimer = new Timer();
-        riskAnalysisTimer.scheduleAtFixedRate(new TimerTask() {
-            private int analysisCount = 0;
-            
-            @Override
-            public void run() {
-                analysisCount++;
-                
-                // Simulate real-time analysis (in production, this would analyze actual audio)
-                int riskScore = analyzer.performRealTimeAnalysis(analysisCount, phoneNumber);
-                String analysis = analyzer.getRiskAnalysisText(riskScore, analysisCount);
-                
-                if (listener != null) {
-                    listener.onRiskLevelChanged(riskScore, analysis);
-                }
-                
-                // Show high-risk alerts
-                if (riskScore > 70) {
-                    showToast("🚨 HIGH RISK: Potential scam detected!");
-                } else if (riskScore > 50) {
-                    showToast("⚠️ MEDIUM RISK: Suspicious patterns detected");
-                }
-            }
-        }, 3000, 5000); // Start after 3s, repeat every 5s
+
+        riskSession.setRiskListener((riskScore, isScam, explanation) -> {
+            int combined = Math.max(numberRisk, riskScore);
+            onRiskUpdate(combined, explanation != null && !explanation.isEmpty()
+                    ? explanation : analyzer.getRiskAnalysisText(combined));
+        }, AppExecutors.scheduler());
     }
 
     private void stopRealTimeAnalysis() {
-        if (riskAnalysisTimer != null) {
-            riskAnalysisTimer.cancel();
-            riskAnalysisTimer = null;
+        if (riskSession != null) {
+            riskSession.setRiskListener(null, null);
+            riskSession = null;
+        }
+        lastAlertLevel = 0;
+    }
+
+    /** Runs on the shared scheduler; alerts only when the risk band goes up. */
+    private void onRiskUpdate(int riskScore, String analysis) {
+        if (listener != null) {
+            listener.onRiskLevelChanged(riskScore, analysis);
+        }
+
+        int level = riskScore > 70 ? 2 : riskScore > 50 ? 1 : 0;
+        if (level > lastAlertLevel) {
+            lastAlertLevel = level;
+            showToast(level == 2
+                    ? "🚨 HIGH RISK: Potential scam detected!"
+                    : "⚠️ MEDIUM RISK: Suspicious patterns detected");
         }
     }
 
@@ -353,17 +424,31 @@ public class EnhancedCallDetector {
     }
 
     private void showToast(String message) {
-        Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+        // Risk updates and post-call analysis arrive on background threads
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+        } else {
+            mainHandler.post(() -> Toast.makeText(context, message, Toast.LENGTH_LONG).show());
+        }
     }
     
     // Inner class for call recording analysis
     private static class CallRecordingAnalyzer {
+
+        // Mapped blocklist; null until loaded (or if loading failed).
+        volatile NumberReputationStore reputationStore;
         
         public int analyzePhoneNumber(String phoneNumber) {
             if (phoneNumber == null) return 30;
             
             // Simple risk assessment based on number patterns
             int risk = 10;
+
+            // Known scam numbers / series from the local blocklist
+            NumberReputationStore store = reputationStore;
+            if (store != null) {
+                risk = Math.max(risk, store.lookup(phoneNumber));
+            }
             
             // Check for common scam patterns
             if (phoneNumber.startsWith("+1800") || phoneNumber.startsWith("1800")) {
@@ -379,25 +464,19 @@ public class EnhancedCallDetector {
             return Math.min(risk, 100);
         }
         
-        public int performRealTimeAnalysis(int analysisCount, String phoneNumber) {
-            // Without a transcript, we can only use phone-number heuristics.
-            // Real-time audio analysis requires VOSK integration.
-            return analyzePhoneNumber(phoneNumber);
-        }
-        
         public int analyzeFinalRecording(String recordingPath, String phoneNumber) {
             // Without a real ASR transcript, return the phone-number heuristic
             // only. Do not fabricate a score.
             return analyzePhoneNumber(phoneNumber);
         }
         
-        public String getRiskAnalysisText(int riskScore, int analysisCount) {
+        public String getRiskAnalysisText(int riskScore) {
             if (riskScore > 70) {
-                return "High risk patterns detected - Analysis " + analysisCount;
+                return "High risk patterns detected";
             } else if (riskScore > 40) {
-                return "Monitoring for suspicious patterns - Analysis " + analysisCount;
+                return "Monitoring for suspicious patterns";
             } else {
-                return "Call appears normal - Analysis " + analysisCount;
+                return "Call appears normal";
             }
         }
         
@@ -0,0 +1,382 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Keeps the last minute of call audio in memory and writes it out only
+ * if the call turns out to be a scam.
+ *
+ * <p>The capture thread copies every frame into a preallocated ring of
+ * {@link #CAPACITY} samples (about 65 s of 16 kHz PCM) — no allocation and
+ * no I/O, so a benign call never touches disk. When {@link #keep} is called
+ * (the score crossed the engine's {@code scam_threshold}), a writer thread
+ * encodes the ring from {@link #PRE_ALERT_SAMPLES} back and then keeps
+ * draining it as the capture thread goes on writing, until the call ends:
+ * the minute before the alert plus the rest of the call, as AAC in
+ * {@code files/call_recordings/evidence_<time>_call<id>.m4a.enc} (WAV if no
+ * AAC encoder is available), where {@code id} is the call's
+ * {@link CallHistoryStore} record. The caller's number stays in that
+ * encrypted record and out of file names. The ring itself is the hand-off,
+ * so the capture thread works the same before and after the alert; the
+ * writer has a full ring of slack before it would lose audio.
+ *
+ * <p>The clip is the call's voice, so it is encrypted with the history's
+ * Keystore key ({@link CallHistoryStore#sealFile}). The muxer needs a
+ * seekable plaintext file, so the clip is encoded in app storage first and
+ * deleted as soon as it is sealed. If sealing fails nothing is kept.
+ *
+ * <p>Each call gets its own {@link Clip}; the ring of a call that was
+ * never kept is reused by the next, and one still being written is left
+ * to its writer while the next call takes a spare.
+ */
+final class EvidenceRecorder {
+
+    private static final String TAG = "EvidenceRecorder";
+    static final int SAMPLE_RATE = 16000;
+    static final int CAPACITY = 1 << 20;                  // ~65 s
+    private static final int MASK = CAPACITY - 1;
+    /** Audio kept from before the alert; the rest of the ring is the writer's head start. */
+    static final int PRE_ALERT_SAMPLES = 60 * SAMPLE_RATE;
+    private static final int CHUNK = 2048;
+    private static final long DRAIN_INTERVAL_MS = 200;
+    private static final int AAC_BIT_RATE = 32000;
+    static final String DIR_NAME = "call_recordings";
+
+    /** Called on the writer thread. */
+    interface Listener {
+        void onEvidenceSaved(File file, long durationMs);
+    }
+
+    /** One call's audio: the ring and how far the capture thread has filled it. */
+    private static final class Clip {
+        final short[] ring;
+        final long historyCallId;   // 0 without a history record
+        volatile long written;      // samples since the call began; the newest CAPACITY are in the ring
+        volatile boolean ended;
+        long keptFrom;              // first sample to save
+        boolean kept;               // guarded by the recorder
+        boolean writing;            // guarded by the recorder: its writer still owns the ring
+        boolean retired;            // guarded by the recorder: the next call has begun
+
+        Clip(short[] ring, long historyCallId) {
+            this.ring = ring;
+            this.historyCallId = historyCallId;
+        }
+    }
+
+    private final File dir;
+    private final CallHistoryStore store;
+    private final Listener listener;
+    private volatile Clip current;
+    private short[] spare;          // guarded by this
+
+    EvidenceRecorder(Context ctx, Listener listener) {
+        this.dir = new File(ctx.getFilesDir(), DIR_NAME);
+        this.store = CallHistoryStore.getInstance(ctx);
+        this.listener = listener;
+        this.spare = new short[CAPACITY];
+    }
+
+    /** A call's capture is starting; {@code historyCallId} names its file (0 if none). */
+    synchronized void begin(long historyCallId) {
+        Clip prev = current;
+        short[] ring = null;
+        if (prev != null) {
+            prev.retired = true;
+            if (!prev.writing) ring = prev.ring;
+        }
+        if (ring == null) {
+            ring = spare != null ? spare : new short[CAPACITY];
+            spare = null;
+        }
+        current = new Clip(ring, historyCallId);
+    }
+
+    /** The call's capture has stopped; a {@link #keep} still writes what the ring holds. */
+    void end() {
+        Clip c = current;
+        if (c != null) c.ended = true;
+    }
+
+    /**
+     * Persist the current call: the ring's contents, then everything
+     * captured until {@link #end}. Any thread; only the first call per
+     * call does anything.
+     */
+    void keep() {
+        Clip c;
+        synchronized (this) {
+            c = current;
+            if (c == null || c.kept || c.retired) return;
+            if (c.written == 0 && c.ended) return;
+            c.kept = true;
+            c.writing = true;
+            c.keptFrom = Math.max(0, c.written - PRE_ALERT_SAMPLES);
+        }
+        Log.i(TAG, "Keeping call audio as evidence");
+        Thread writer = new Thread(() -> persist(c), "EvidenceWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // --- Capture thread ---
+
+    /** Append {@code pcm[off, off + n)}. */
+    void write(short[] pcm, int off, int n) {
+        Clip c = current;
+        if (c == null || n <= 0) return;
+        long w = c.written;
+        int at = (int) (w & MASK);
+        int first = Math.min(n, CAPACITY - at);
+        System.arraycopy(pcm, off, c.ring, at, first);
+        System.arraycopy(pcm, off + first, c.ring, 0, n - first);
+        c.written = w + n;
+    }
+
+    /** Append {@code a} mixed with the first {@code nb} samples of {@code b}; both sides of the call. */
+    void writeMix(short[] a, short[] b, int nb, int n) {
+        Clip c = current;
+        if (c == null || n <= 0) return;
+        long w = c.written;
+        short[] ring = c.ring;
+        for (int i = 0; i < n; i++) {
+            int s = i < nb ? a[i] + b[i] : a[i];
+            ring[(int) ((w + i) & MASK)] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, s));
+        }
+        c.written = w + n;
+    }
+
+    // --- Writer thread ---
+
+    private void persist(Clip c) {
+        File file = null;
+        File sealed = null;
+        long samples = 0;
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+            String name = "evidence_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date())
+                    + (c.historyCallId != 0 ? "_call" + c.historyCallId : "");
+            Sink sink;
+            try {
+                file = new File(dir, name + ".m4a");
+                sink = new AacSink(file);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "AAC encoder unavailable — writing WAV", e);
+                file.delete();
+                file = new File(dir, name + ".wav");
+                sink = new WavSink(file);
+            }
+            try {
+                samples = drain(c, sink);
+            } finally {
+                sink.close();
+            }
+            sealed = new File(dir, file.getName() + ".enc");
+            store.sealFile(file, sealed);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            Log.e(TAG, "Failed to save evidence", e);
+            if (sealed != null) sealed.delete();
+            sealed = null;
+        } finally {
+            if (file != null) file.delete();
+            synchronized (this) {
+                c.writing = false;
+                if (spare == null && c.retired) spare = c.ring;
+            }
+        }
+        if (sealed == null) return;
+        long durationMs = samples * 1000 / SAMPLE_RATE;
+        Log.i(TAG, "Saved " + durationMs + " ms of evidence to " + sealed);
+        if (listener != null) listener.onEvidenceSaved(sealed, durationMs);
+    }
+
+    /**
+     * Encode from {@link Clip#keptFrom} until the call ends and the ring is empty.
+     *
+     * @return samples written
+     */
+    private static long drain(Clip c, Sink sink) throws IOException {
+        short[] chunk = new short[CHUNK];
+        long pos = c.keptFrom;
+        long saved = 0;
+        while (true) {
+            boolean last = c.ended;     // before reading written, so nothing written after is missed
+            long w = c.written;
+            while (pos < w) {
+                if (w - pos > CAPACITY) {
+                    Log.w(TAG, "Writer fell behind; skipped " + (w - pos - CAPACITY) + " samples");
+                    pos = w - CAPACITY;
+                }
+                int n = (int) Math.min(CHUNK, w - pos);
+                int at = (int) (pos & MASK);
+                int first = Math.min(n, CAPACITY - at);
+                System.arraycopy(c.ring, at, chunk, 0, first);
+                System.arraycopy(c.ring, 0, chunk, first, n - first);
+                // Overwritten while copying: the skip above resyncs
+                if (c.written - CAPACITY > pos) {
+                    w = c.written;
+                    continue;
+                }
+                sink.write(chunk, n);
+                pos += n;
+                saved += n;
+            }
+            if (last) return saved;
+            try {
+                Thread.sleep(DRAIN_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return saved;
+            }
+        }
+    }
+
+    private interface Sink {
+        void write(short[] pcm, int n) throws IOException;
+        void close() throws IOException;
+    }
+
+    /** AAC-LC, mono, in an MPEG-4 container. */
+    private static final class AacSink implements Sink {
+        private static final long TIMEOUT_US = 10_000;
+        private static final int MAX_EOS_POLLS = 200;
+
+        private final MediaCodec codec;
+        private final MediaMuxer muxer;
+        private final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        private int track = -1;
+        private long samples;
+
+        AacSink(File file) throws IOException {
+            MediaFormat format = MediaFormat.createAudioFormat(MediaFormat.MIMETYPE_AUDIO_AAC, SAMPLE_RATE, 1);
+            format.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+            format.setInteger(MediaFormat.KEY_BIT_RATE, AAC_BIT_RATE);
+            format.setInteger(MediaFormat.KEY_MAX_INPUT_SIZE, CHUNK * 2);
+            MediaCodec c = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_AAC);
+            try {
+                c.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+                c.start();
+                muxer = new MediaMuxer(file.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            } catch (IOException | RuntimeException e) {
+                c.release();
+                throw e;
+            }
+            codec = c;
+        }
+
+        @Override
+        public void write(short[] pcm, int n) {
+            for (int off = 0; off < n; ) {
+                int idx = codec.dequeueInputBuffer(TIMEOUT_US);
+                if (idx < 0) {
+                    drainOutput(false);
+                    continue;
+                }
+                ByteBuffer in = codec.getInputBuffer(idx);
+                in.clear();
+                int take = Math.min(n - off, in.remaining() / 2);
+                in.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(pcm, off, take);
+                codec.queueInputBuffer(idx, 0, take * 2, presentationUs(), 0);
+                samples += take;
+                off += take;
+                drainOutput(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                int idx;
+                while ((idx = codec.dequeueInputBuffer(TIMEOUT_US)) < 0) drainOutput(false);
+                codec.queueInputBuffer(idx, 0, 0, presentationUs(), MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                drainOutput(true);
+                codec.stop();
+                if (track < 0) throw new IOException("Encoder produced no output");
+                muxer.stop();
+            } finally {
+                codec.release();
+                muxer.release();
+            }
+        }
+
+        private long presentationUs() {
+            return samples * 1_000_000L / SAMPLE_RATE;
+        }
+
+        /** Hand encoded frames to the muxer; at end of stream, wait for the last one. */
+        private void drainOutput(boolean endOfStream) {
+            int polls = 0;
+            while (true) {
+                int idx = codec.dequeueOutputBuffer(info, endOfStream ? TIMEOUT_US : 0);
+                if (idx == MediaCodec.INFO_TRY_AGAIN_LATER) {
+                    if (!endOfStream || ++polls > MAX_EOS_POLLS) return;
+                } else if (idx == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    track = muxer.addTrack(codec.getOutputFormat());
+                    muxer.start();
+                } else if (idx >= 0) {
+                    ByteBuffer out = codec.getOutputBuffer(idx);
+                    // The codec config is in the track format already
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0 && info.size > 0 && track >= 0) {
+                        muxer.writeSampleData(track, out, info);
+                    }
+                    codec.releaseOutputBuffer(idx, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) return;
+                }
+            }
+        }
+    }
+
+    /** 16-bit mono PCM WAV; sizes patched into the header on close. */
+    private static final class WavSink implements Sink {
+        private final RandomAccessFile file;
+        private final byte[] bytes = new byte[CHUNK * 2];
+        private long dataBytes;
+
+        WavSink(File f) throws IOException {
+            file = new RandomAccessFile(f, "rw");
+            file.setLength(0);
+            file.write(new byte[44]);
+        }
+
+        @Override
+        public void write(short[] pcm, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                bytes[2 * i] = (byte) pcm[i];
+                bytes[2 * i + 1] = (byte) (pcm[i] >> 8);
+            }
+            file.write(bytes, 0, n * 2);
+            dataBytes += n * 2L;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ByteBuffer h = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+                h.put(new byte[] {'R', 'I', 'F', 'F'}).putInt((int) (36 + dataBytes))
+                        .put(new byte[] {'W', 'A', 'V', 'E', 'f', 'm', 't', ' '})
+                        .putInt(16).putShort((short) 1).putShort((short) 1)
+                        .putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 2).putShort((short) 2).putShort((short) 16)
+                        .put(new byte[] {'d', 'a', 't', 'a'}).putInt((int) dataBytes);
+                file.seek(0);
+                file.write(h.array());
+            } finally {
+                file.close();
+            }
+        }
+    }
+}
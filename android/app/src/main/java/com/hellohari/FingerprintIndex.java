@@ -0,0 +1,230 @@
+package com.hellohari;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Landmark hashes of known scam recordings (pre-recorded IVR messages that
+ * play identically on millions of calls), as one open-addressing table of
+ * longs that is read straight from a memory-mapped file.
+ *
+ * <p>Each slot packs {@code (hash + 1) << 32 | recording << 20 | anchorFrame};
+ * zero is an empty slot. A hash's entries sit in its linear-probe run, so a
+ * lookup is one {@link #mix} and a short scan until the first empty slot.
+ * The table is a power of two at most half full, and a hash that occurs
+ * more than {@link #MAX_PER_HASH} times is dropped at build time — it says
+ * nothing about which recording is playing. At about 55 landmarks a second
+ * and 8-byte slots, a 30-second recording costs 30–60 KB of page cache,
+ * not heap.
+ *
+ * <p>File layout (big-endian): magic, format version,
+ * {@link AudioFingerprinter#PARAMS_VERSION}, recording count, slot count,
+ * entry count; then per recording a score byte and a length-prefixed UTF-8
+ * name; padding to 8 bytes; then the slots. Built with {@link Builder}
+ * (the CLI's {@code fingerprint} command), and safe to share between
+ * threads once loaded. {@link #read} checks every slot once, so a damaged
+ * or hostile file can't send a lookup out of bounds or into an endless probe.
+ */
+public final class FingerprintIndex {
+
+    static final int MAGIC = 0x48484650;   // "HHFP"
+    static final int FORMAT_VERSION = 1;
+    static final int MAX_PER_HASH = 32;
+    static final int MAX_RECORDINGS = 1 << 12;
+    static final int MAX_FRAMES = 1 << 20;  // ~9 h per recording
+    private static final int DEFAULT_SCORE = 90;
+
+    private final LongBuffer slots;
+    private final int mask;
+    private final int entries;
+    private final String[] names;
+    private final int[] scores;
+
+    private FingerprintIndex(LongBuffer slots, int entries, String[] names, int[] scores) {
+        this.slots = slots;
+        this.mask = slots.capacity() - 1;
+        this.entries = entries;
+        this.names = names;
+        this.scores = scores;
+    }
+
+    /** Parse an index from {@code buf} (typically memory-mapped); the slots stay in the buffer. */
+    public static FingerprintIndex read(ByteBuffer buf) throws IOException {
+        if (buf.capacity() < 24 || buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Bad fingerprint index header");
+        }
+        if (buf.getInt(8) != AudioFingerprinter.PARAMS_VERSION) {
+            throw new IOException("Fingerprint index built with landmark params " + buf.getInt(8)
+                    + ", this app uses " + AudioFingerprinter.PARAMS_VERSION);
+        }
+        int recordings = buf.getInt(12);
+        int slotCount = buf.getInt(16);
+        int entries = buf.getInt(20);
+        // At most half full when built; a full table would leave a probe with no empty slot to stop at
+        if (recordings < 0 || recordings > MAX_RECORDINGS || slotCount <= 0 || Integer.bitCount(slotCount) != 1
+                || entries < 0 || entries >= slotCount) {
+            throw new IOException("Corrupt fingerprint index");
+        }
+        String[] names = new String[recordings];
+        int[] scores = new int[recordings];
+        int pos = 24;
+        try {
+            for (int i = 0; i < recordings; i++) {
+                scores[i] = buf.get(pos) & 0xFF;
+                int len = buf.getShort(pos + 1) & 0xFFFF;
+                byte[] utf8 = new byte[len];
+                ByteBuffer view = buf.duplicate();
+                view.position(pos + 3);
+                view.get(utf8);
+                names[i] = new String(utf8, StandardCharsets.UTF_8);
+                pos += 3 + len;
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Truncated fingerprint index", e);
+        }
+        pos = (pos + 7) & ~7;
+        if (pos + (long) slotCount * 8 > buf.capacity()) throw new IOException("Truncated fingerprint index");
+        ByteBuffer view = buf.duplicate();
+        view.position(pos);
+        view.limit(pos + slotCount * 8);
+        LongBuffer slots = view.slice().asLongBuffer();
+        int used = 0;
+        for (int i = 0; i < slotCount; i++) {
+            long slot = slots.get(i);
+            if (slot == 0) continue;
+            used++;
+            // Matchers index per-recording state by this id
+            if (((int) slot >>> 20) >= recordings) {
+                throw new IOException("Fingerprint index slot " + i + " names recording " + ((int) slot >>> 20)
+                        + " of " + recordings);
+            }
+        }
+        if (used != entries) throw new IOException("Corrupt fingerprint index: " + used + " of " + entries + " entries");
+        return new FingerprintIndex(slots, entries, names, scores);
+    }
+
+    public int recordingCount() { return names.length; }
+    public int entryCount()     { return entries; }
+    public String name(int recording)  { return names[recording]; }
+    /** Risk score (0-100) a match on this recording carries. */
+    public int score(int recording)    { return scores[recording]; }
+
+    /**
+     * Occurrences of {@code hash}, written to {@code out} as
+     * {@code recording << 20 | anchorFrame}.
+     *
+     * @return how many were written, at most {@code out.length}
+     */
+    public int find(int hash, int[] out) {
+        long key = (long) (hash + 1) << 32;
+        int n = 0;
+        for (int i = mix(hash) & mask, probes = 0; probes <= mask && n < out.length; i = (i + 1) & mask, probes++) {
+            long slot = slots.get(i);
+            if (slot == 0) break;
+            if ((slot & 0xFFFFFFFF00000000L) == key) out[n++] = (int) slot;
+        }
+        return n;
+    }
+
+    /** Murmur3 finalizer: landmark hashes are dense small integers. */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Collects recordings and writes the index file. Each recording is
+     * 16 kHz mono PCM, fed in any number of blocks between
+     * {@link #begin} and {@link #end}.
+     */
+    public static final class Builder implements AudioFingerprinter.LandmarkSink {
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> scores = new ArrayList<>();
+        private long[] landmarks = new long[1 << 16];   // hash << 32 | recording << 20 | frame
+        private int count;
+        private AudioFingerprinter fingerprinter;
+
+        /** Start a recording; {@code score} is what a match on it reports (0 for the default). */
+        public Builder begin(String name, int score) {
+            if (fingerprinter != null) throw new IllegalStateException("recording still open");
+            if (names.size() == MAX_RECORDINGS) throw new IllegalStateException("too many recordings");
+            names.add(name);
+            scores.add(score > 0 ? Math.min(100, score) : DEFAULT_SCORE);
+            fingerprinter = new AudioFingerprinter(this);
+            return this;
+        }
+
+        public Builder add(short[] pcm, int off, int n) {
+            fingerprinter.process(pcm, off, n);
+            return this;
+        }
+
+        /** @return frames fingerprinted for the recording just closed */
+        public int end() {
+            int frames = fingerprinter.frames();
+            if (frames > MAX_FRAMES) throw new IllegalStateException("recording too long: " + names.get(names.size() - 1));
+            fingerprinter = null;
+            return frames;
+        }
+
+        @Override
+        public void onLandmark(int hash, int anchorFrame) {
+            if (count == landmarks.length) landmarks = Arrays.copyOf(landmarks, count * 2);
+            landmarks[count++] = (long) hash << 32 | (long) (names.size() - 1) << 20 | anchorFrame;
+        }
+
+        /** Hash table and metadata in the file layout {@link #read} expects. */
+        public void write(OutputStream out) throws IOException {
+            if (fingerprinter != null) throw new IllegalStateException("recording still open");
+            // Sorting groups each hash so over-common ones can be dropped whole
+            long[] sorted = Arrays.copyOf(landmarks, count);
+            Arrays.sort(sorted);
+            int slotCount = Integer.highestOneBit(Math.max(16, count * 2 - 1)) << 1;
+            long[] table = new long[slotCount];
+            int entries = 0;
+            for (int i = 0; i < sorted.length; ) {
+                int hash = (int) (sorted[i] >>> 32);
+                int j = i;
+                while (j < sorted.length && (int) (sorted[j] >>> 32) == hash) j++;
+                if (j - i <= MAX_PER_HASH) {
+                    for (int k = i; k < j; k++) {
+                        int at = mix(hash) & (slotCount - 1);
+                        while (table[at] != 0) at = (at + 1) & (slotCount - 1);
+                        table[at] = (long) (hash + 1) << 32 | (sorted[k] & 0xFFFFFFFFL);
+                        entries++;
+                    }
+                }
+                i = j;
+            }
+
+            DataOutputStream os = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            os.writeInt(MAGIC);
+            os.writeInt(FORMAT_VERSION);
+            os.writeInt(AudioFingerprinter.PARAMS_VERSION);
+            os.writeInt(names.size());
+            os.writeInt(slotCount);
+            os.writeInt(entries);
+            for (int i = 0; i < names.size(); i++) {
+                byte[] utf8 = names.get(i).getBytes(StandardCharsets.UTF_8);
+                os.writeByte(scores.get(i));
+                os.writeShort(Math.min(utf8.length, 0xFFFF));
+                os.write(utf8, 0, Math.min(utf8.length, 0xFFFF));
+            }
+            while (os.size() % 8 != 0) os.writeByte(0);
+            for (long slot : table) os.writeLong(slot);
+            os.flush();
+        }
+    }
+}
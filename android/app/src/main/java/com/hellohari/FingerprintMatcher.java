@@ -0,0 +1,124 @@
+package com.hellohari;
+
+import java.util.Arrays;
+
+/**
+ * Matches a live stream's landmarks against a {@link FingerprintIndex}.
+ *
+ * <p>A landmark found in the index votes for (recording, time offset): if
+ * the call is playing that recording, its landmarks keep voting for one
+ * offset, while chance hits scatter over many. A vote is the landmark's
+ * anchor frame, and each frame counts once per offset — one syllable that
+ * happens to share several harmonics with a recording piles up landmarks
+ * in a single frame, whereas the real message agrees frame after frame.
+ * Offsets within a frame of each other count together (the call's frames
+ * don't line up with the recording's), and once a recording has
+ * {@link #MIN_VOTES} frames at one offset it is reported, typically a
+ * second or two into the message. Votes are counted in two alternating
+ * tables of {@link #EPOCH_FRAMES}, so old chance hits age out and memory
+ * stays fixed.
+ *
+ * <p>Allocation-free after construction. Not thread-safe; one per call.
+ */
+public final class FingerprintMatcher implements AudioFingerprinter.LandmarkSink {
+
+    static final int MIN_VOTES = 15;
+    static final int EPOCH_FRAMES = 312;              // ~10 s
+    private static final int VOTE_SLOTS = 1 << 12;
+    private static final int MAX_KEYS = VOTE_SLOTS * 3 / 4;
+
+    private final FingerprintIndex index;
+    private final int[] hits = new int[FingerprintIndex.MAX_PER_HASH];
+    private long[] keys = new long[VOTE_SLOTS], oldKeys = new long[VOTE_SLOTS];
+    private int[] votes = new int[VOTE_SLOTS], oldVotes = new int[VOTE_SLOTS];
+    private final long[] seen = new long[VOTE_SLOTS];  // anchor frames mod 64 already counted
+    private int used;
+    private int epochStart;
+    private final boolean[] reported;
+    private int match = -1;
+    private int matchFrame;
+
+    public FingerprintMatcher(FingerprintIndex index) {
+        this.index = index;
+        this.reported = new boolean[index.recordingCount()];
+    }
+
+    @Override
+    public void onLandmark(int hash, int anchorFrame) {
+        if (anchorFrame - epochStart >= EPOCH_FRAMES) rollEpoch(anchorFrame);
+        int n = index.find(hash, hits);
+        for (int i = 0; i < n; i++) {
+            int recording = hits[i] >>> 20;
+            int offset = (hits[i] & (FingerprintIndex.MAX_FRAMES - 1)) - anchorFrame;
+            if (reported[recording] || !vote(recording, offset, anchorFrame)) continue;
+            int total = count(recording, offset - 1) + count(recording, offset) + count(recording, offset + 1);
+            if (total >= MIN_VOTES && match < 0) {
+                reported[recording] = true;
+                match = recording;
+                matchFrame = anchorFrame;
+            }
+        }
+    }
+
+    /** A recording newly recognized since the last call, or -1. Each is reported once. */
+    public int takeMatch() {
+        int m = match;
+        match = -1;
+        return m;
+    }
+
+    /** Anchor frame of the landmark that completed the last match. */
+    public int matchFrame() {
+        return matchFrame;
+    }
+
+    private static long key(int recording, int offset) {
+        // Never 0, which marks an empty slot
+        return (long) (recording + 1) << 32 | (offset & 0xFFFFFFFFL);
+    }
+
+    /** @return whether this is a new frame for the offset */
+    private boolean vote(int recording, int offset, int anchorFrame) {
+        long k = key(recording, offset);
+        int at = slot(keys, k);
+        if (keys[at] == 0) {
+            if (used == MAX_KEYS) return false;   // full: wait for the next epoch
+            keys[at] = k;
+            seen[at] = 0;
+            used++;
+        }
+        long bit = 1L << (anchorFrame & 63);
+        if ((seen[at] & bit) != 0) return false;
+        seen[at] |= bit;
+        votes[at]++;
+        return true;
+    }
+
+    private int count(int recording, int offset) {
+        long k = key(recording, offset);
+        int at = slot(keys, k), old = slot(oldKeys, k);
+        return (keys[at] == k ? votes[at] : 0) + (oldKeys[old] == k ? oldVotes[old] : 0);
+    }
+
+    /** Where {@code k} is, or the empty slot it would go in. */
+    private static int slot(long[] table, long k) {
+        int at = FingerprintIndex.mix((int) (k ^ (k >>> 32))) & (VOTE_SLOTS - 1);
+        while (table[at] != 0 && table[at] != k) at = (at + 1) & (VOTE_SLOTS - 1);
+        return at;
+    }
+
+    private void rollEpoch(int frame) {
+        long[] k = oldKeys;
+        int[] v = oldVotes;
+        oldKeys = keys;
+        oldVotes = votes;
+        keys = k;
+        votes = v;
+        Arrays.fill(keys, 0);
+        Arrays.fill(votes, 0);
+        used = 0;
+        // After a long gap both tables are stale
+        if (frame - epochStart >= 2 * EPOCH_FRAMES) Arrays.fill(oldKeys, 0);
+        epochStart = frame - (frame - epochStart) % EPOCH_FRAMES;
+    }
+}
@@ -0,0 +1,73 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Holds the {@link FingerprintIndex} of known scam recordings that
+ * {@link AsrManager} matches the caller's audio against.
+ *
+ * <p>The index is {@code assets/scam_fingerprints.fpi}, memory-mapped in
+ * place from the APK (stored uncompressed — {@code noCompress} in
+ * {@code build.gradle}) and never read into the heap. Without it
+ * {@link #index()} is {@code null} and fingerprinting is off. Build the file
+ * with the CLI's {@code fingerprint} command; a newer index ships with an app
+ * update.
+ */
+public final class FingerprintStore {
+
+    private static final String TAG = "FingerprintStore";
+    static final String FILE_NAME = "scam_fingerprints.fpi";
+
+    private static volatile FingerprintStore sInstance;
+
+    private final FingerprintIndex index;
+
+    /** Maps the index on first use. Thread-safe; call off the main thread. */
+    public static FingerprintStore getInstance(Context ctx) {
+        FingerprintStore local = sInstance;
+        if (local == null) {
+            synchronized (FingerprintStore.class) {
+                local = sInstance;
+                if (local == null) {
+                    local = new FingerprintStore(ctx.getApplicationContext());
+                    sInstance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private FingerprintStore(Context ctx) {
+        index = mapAsset(ctx);
+        if (index != null) {
+            Log.i(TAG, "Loaded " + index.recordingCount() + " recordings, "
+                    + index.entryCount() + " landmarks");
+        }
+    }
+
+    /** The index to match against, or {@code null} if there is none. */
+    public FingerprintIndex index() {
+        return index;
+    }
+
+    private static FingerprintIndex mapAsset(Context ctx) {
+        try (AssetFileDescriptor afd = ctx.getAssets().openFd(FILE_NAME);
+             FileInputStream in = afd.createInputStream();
+             FileChannel ch = in.getChannel()) {
+            return FingerprintIndex.read(ch.map(FileChannel.MapMode.READ_ONLY,
+                    afd.getStartOffset(), afd.getLength()));
+        } catch (FileNotFoundException e) {
+            Log.i(TAG, "No bundled " + FILE_NAME + " — audio fingerprinting off");
+        } catch (IOException e) {
+            Log.e(TAG, "Bundled " + FILE_NAME + " is unusable", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.hellohari;
+
+import android.view.Choreographer;
+
+/**
+ * Collapses any number of UI update requests into at most one apply per
+ * display frame.
+ *
+ * <p>Producers record what changed in their own pending state and call
+ * {@link #request()}; the {@link Sink} then applies the whole batch in the
+ * next {@link Choreographer} frame callback. Main-thread only.
+ */
+final class FrameCoalescer implements Choreographer.FrameCallback {
+
+    interface Sink {
+        /** Apply everything that accumulated since the last frame. */
+        void applyPending();
+    }
+
+    private final Sink sink;
+    private boolean scheduled = false;
+
+    FrameCoalescer(Sink sink) {
+        this.sink = sink;
+    }
+
+    void request() {
+        if (scheduled) return;
+        scheduled = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void cancel() {
+        if (!scheduled) return;
+        scheduled = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        sink.applyPending();
+    }
+}
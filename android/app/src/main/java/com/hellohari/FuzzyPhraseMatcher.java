@@ -0,0 +1,250 @@
+package com.hellohari;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Approximate Layer 1 phrase search, for ASR output that garbles one word
+ * ("digital a rest", "aadhar card misuse").
+ *
+ * <p>A phrase of length {@code m} gets an edit budget {@code k} from its
+ * length (0 = exact only). It is cut into {@code k + 1} pieces; any
+ * occurrence within {@code k} edits must contain one piece unchanged, so a
+ * single {@link AhoCorasick} pass over all pieces yields the candidates.
+ * Each candidate is verified with Myers' bit-parallel edit distance (one
+ * 64-bit word, phrases are at most 64 chars) over a window of
+ * {@code m + 2k} chars around it, and the span start is recovered with a
+ * small reverse DP. Verification stops when the time budget runs out.
+ *
+ * <p>Immutable after construction; per-call state lives in {@link Hits}.
+ */
+final class FuzzyPhraseMatcher {
+
+    /** Longer phrases are left to the exact tier (one Myers word). */
+    static final int MAX_PHRASE_LENGTH = 64;
+
+    private static final int DEADLINE_CHECK_MASK = 15;   // check the clock every 16 verifications
+
+    private final StringArena phrases;       // by phrase id
+    private final int[] maxEdits;            // by phrase id
+    // Phrase p's sorted distinct chars are peqChars[peqStart[p], peqStart[p + 1]),
+    // with their Myers match masks at the same indexes of peqMasks
+    private final int[] peqStart;
+    private final char[] peqChars;
+    private final long[] peqMasks;
+
+    private final AhoCorasick pieceMatcher;
+    private final int[] ownerStart;          // by piece id, into ownerPhrase/ownerOffset
+    private final int[] ownerPhrase;
+    private final int[] ownerOffset;         // piece offset within the phrase
+
+    private final long timeBudgetNs;
+    final double scoreFactor;
+
+    /**
+     * @param phrases       lowercased phrases by id
+     * @param budgetLengths ascending phrase lengths at which {@code budgetEdits} start to apply
+     * @param budgetEdits   max edits for phrases at least that long
+     */
+    FuzzyPhraseMatcher(StringArena phrases, int[] budgetLengths, int[] budgetEdits,
+                       double scoreFactor, long timeBudgetNs) {
+        int n = phrases.size();
+        this.phrases = phrases;
+        this.maxEdits = new int[n];
+        this.peqStart = new int[n + 1];
+        this.scoreFactor = scoreFactor;
+        this.timeBudgetNs = timeBudgetNs;
+
+        TreeMap<String, List<int[]>> pieces = new TreeMap<>();
+        StringBuilder distinct = new StringBuilder();
+        for (int p = 0; p < n; p++) {
+            String s = phrases.get(p);
+            int k = 0;
+            for (int b = 0; b < budgetLengths.length; b++) {
+                if (s.length() >= budgetLengths[b]) k = budgetEdits[b];
+            }
+            // Each piece must stay long enough to be a selective filter
+            k = Math.min(k, s.length() / 4 - 1);
+            if (s.length() > MAX_PHRASE_LENGTH || k <= 0) {
+                peqStart[p + 1] = distinct.length();
+                continue;
+            }
+            maxEdits[p] = k;
+            s.chars().distinct().sorted().forEach(c -> distinct.append((char) c));
+            peqStart[p + 1] = distinct.length();
+            int len = s.length() / (k + 1);
+            for (int i = 0; i <= k; i++) {
+                int from = i * len;
+                int to = i == k ? s.length() : from + len;
+                pieces.computeIfAbsent(s.substring(from, to), x -> new ArrayList<>()).add(new int[] {p, from});
+            }
+        }
+
+        peqChars = distinct.toString().toCharArray();
+        peqMasks = new long[peqChars.length];
+        for (int p = 0; p < n; p++) {
+            for (int i = 0; maxEdits[p] > 0 && i < phrases.length(p); i++) {
+                peqMasks[Arrays.binarySearch(peqChars, peqStart[p], peqStart[p + 1], phrases.charAt(p, i))] |= 1L << i;
+            }
+        }
+
+        List<String> pieceList = new ArrayList<>(pieces.keySet());
+        pieceMatcher = new AhoCorasick(pieceList);
+        ownerStart = new int[pieceList.size() + 1];
+        int owners = 0;
+        for (List<int[]> o : pieces.values()) owners += o.size();
+        ownerPhrase = new int[owners];
+        ownerOffset = new int[owners];
+        int i = 0, id = 0;
+        for (List<int[]> o : pieces.values()) {
+            ownerStart[id++] = i;
+            for (int[] po : o) {
+                ownerPhrase[i] = po[0];
+                ownerOffset[i++] = po[1];
+            }
+        }
+        ownerStart[id] = i;
+    }
+
+    /** Edit budget of phrase {@code p}; 0 if it is only matched exactly. */
+    int maxEdits(int p) {
+        return maxEdits[p];
+    }
+
+    /**
+     * Find approximate occurrences in {@code text} (already lowercased).
+     * Phrases that also occur exactly come back with distance 0.
+     */
+    void scan(String text, Hits out) {
+        out.reset();
+        final long deadline = System.nanoTime() + timeBudgetNs;
+        final int n = text.length();
+        final AhoCorasick m = pieceMatcher;
+        int state = 0;
+        int verified = 0;
+        for (int i = 0; i < n; i++) {
+            state = m.step(state, text.charAt(i));
+            for (int ms = m.firstMatch(state); ms >= 0; ms = m.nextMatch(ms)) {
+                int piece = m.patternAt(ms);
+                int pieceStart = i + 1 - m.depth(ms);
+                for (int o = ownerStart[piece]; o < ownerStart[piece + 1]; o++) {
+                    int p = ownerPhrase[o];
+                    if (out.has(p)) continue;
+                    if ((++verified & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                        out.truncated = true;
+                        return;
+                    }
+                    verify(p, text, pieceStart - ownerOffset[o], out);
+                }
+            }
+        }
+    }
+
+    /** Myers over the window where phrase {@code p} would sit if it started at {@code expectedStart}. */
+    private void verify(int p, String text, int expectedStart, Hits out) {
+        final int len = phrases.length(p);
+        final int k = maxEdits[p];
+        final int from = Math.max(0, expectedStart - k);
+        final int to = Math.min(text.length(), expectedStart + len + k);
+        final long high = 1L << (len - 1);
+        final int charsFrom = peqStart[p], charsTo = peqStart[p + 1];
+
+        long pv = -1L, mv = 0;
+        int score = len, best = k + 1, bestEnd = -1;
+        for (int j = from; j < to; j++) {
+            int ci = Arrays.binarySearch(peqChars, charsFrom, charsTo, text.charAt(j));
+            long eq = ci >= 0 ? peqMasks[ci] : 0;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & high) != 0) score++;
+            else if ((mh & high) != 0) score--;
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (score < best) {
+                best = score;
+                bestEnd = j + 1;
+            }
+        }
+        if (bestEnd < 0) return;
+        int start = best == 0 ? bestEnd - len : matchStart(p, text, Math.max(from, bestEnd - len - k), bestEnd, out);
+        out.add(p, best, start, bestEnd);
+    }
+
+    /**
+     * Start of the best alignment of phrase {@code p} ending exactly at
+     * {@code end}: edit DP over both strings reversed, pattern fully used,
+     * text prefix free.
+     */
+    private int matchStart(int p, String text, int from, int end, Hits out) {
+        final int len = phrases.length(p);
+        int cols = end - from;
+        int[] prev = out.rowA, cur = out.rowB;
+        for (int t = 0; t <= cols; t++) prev[t] = t;
+        for (int i = 1; i <= len; i++) {
+            char pc = phrases.charAt(p, len - i);
+            cur[0] = i;
+            for (int t = 1; t <= cols; t++) {
+                int sub = prev[t - 1] + (text.charAt(end - t) == pc ? 0 : 1);
+                cur[t] = Math.min(sub, Math.min(prev[t], cur[t - 1]) + 1);
+            }
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        int bestT = 0;
+        for (int t = 1; t <= cols; t++) {
+            if (prev[t] < prev[bestT]) bestT = t;
+        }
+        return end - bestT;
+    }
+
+    /** Estimated heap bytes, excluding the shared phrase arena; see {@link HeapSize}. */
+    long footprint() {
+        return HeapSize.OBJECT + HeapSize.of(maxEdits) + HeapSize.of(peqStart) + HeapSize.of(peqChars)
+                + HeapSize.of(peqMasks) + pieceMatcher.footprint() + HeapSize.of(ownerStart)
+                + HeapSize.of(ownerPhrase) + HeapSize.of(ownerOffset);
+    }
+
+    /** Per-call results, reusable; only ids with {@link #has} set are valid. */
+    static final class Hits {
+        private final long[] found;
+        final int[] distance, start, end;
+        final int[] rowA = new int[MAX_PHRASE_LENGTH * 2 + 2];
+        final int[] rowB = new int[MAX_PHRASE_LENGTH * 2 + 2];
+        boolean truncated;
+
+        Hits(int phraseCount) {
+            found = new long[(phraseCount + 63) >>> 6];
+            distance = new int[phraseCount];
+            start = new int[phraseCount];
+            end = new int[phraseCount];
+        }
+
+        boolean has(int p) {
+            return (found[p >>> 6] & (1L << p)) != 0;
+        }
+
+        /** Matched within budget with at least one edit. */
+        boolean isFuzzy(int p) {
+            return has(p) && distance[p] > 0;
+        }
+
+        void add(int p, int d, int s, int e) {
+            found[p >>> 6] |= 1L << p;
+            distance[p] = d;
+            start[p] = s;
+            end[p] = e;
+        }
+
+        void reset() {
+            Arrays.fill(found, 0);
+            truncated = false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.hellohari;
+
+/**
+ * Shallow heap-size estimates for the compiled pattern model, assuming a
+ * 64-bit runtime with compressed references (ART, and HotSpot under 32 GB):
+ * 12-byte object header, 16-byte array header, 8-byte alignment. Good for
+ * budgets and regressions, not an exact measurement.
+ */
+final class HeapSize {
+
+    /** A small object with a few fields. */
+    static final long OBJECT = 32;
+
+    private HeapSize() {}
+
+    static long of(long[] a)    { return a == null ? 0 : array(a.length, 8); }
+    static long of(int[] a)     { return a == null ? 0 : array(a.length, 4); }
+    static long of(char[] a)    { return a == null ? 0 : array(a.length, 2); }
+    static long of(boolean[] a) { return a == null ? 0 : array(a.length, 1); }
+
+    /** A string with a UTF-16 backing array — an upper bound where strings are compressed. */
+    static long of(String s) {
+        return s == null ? 0 : 24 + array(s.length(), 2);
+    }
+
+    /** An array of {@code length} references (not what they point to). */
+    static long refs(int length) {
+        return array(length, 4);
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(16 + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,147 @@
+package com.hellohari;
+
+import java.util.Arrays;
+
+/**
+ * Ring of hit summaries for a windowed {@link ScamPatternEngine.Session},
+ * one per time bucket: chunks committed within {@code bucketMs} of a
+ * bucket's start are merged into it, so the ring is sized by time
+ * ({@code windowMs / bucketMs}) and nothing inside the window is evicted
+ * however short the chunks are. A streaming partial sits in its own
+ * {@link #pending} slot until it is replaced or committed. Everything,
+ * including the buffers used to fold the window into a score, is allocated
+ * up front, so a chunk costs the same at minute 50 of a call as at minute 1.
+ */
+final class HitWindow {
+
+    /** What one chunk matched: phrase ids, archetype bitmaps, indicator tags. */
+    static final class ChunkHits {
+        long time;
+        final long[] phrases;     // bit p = phrase p (hit id - 1)
+        final long[] fuzzyPhrases;  // approximate Layer 1 hits
+        final long[] phoneticPhrases;  // sound-alike Layer 1 hits
+        long ctx, thr, dem;       // bit a = archetype a
+        int indicators;           // bit i = INDICATOR_TAGS[i]
+
+        ChunkHits(int phraseWords) {
+            phrases = new long[phraseWords];
+            fuzzyPhrases = new long[phraseWords];
+            phoneticPhrases = new long[phraseWords];
+        }
+
+        /** Drop every hit that {@code other} also has. */
+        void subtract(ChunkHits other) {
+            for (int j = 0; j < phrases.length; j++) {
+                phrases[j] &= ~other.phrases[j];
+                fuzzyPhrases[j] &= ~other.fuzzyPhrases[j];
+                phoneticPhrases[j] &= ~other.phoneticPhrases[j];
+            }
+            ctx &= ~other.ctx;
+            thr &= ~other.thr;
+            dem &= ~other.dem;
+            indicators &= ~other.indicators;
+        }
+
+        /** Add {@code other}'s hits; the time stays this slot's. */
+        void or(ChunkHits other) {
+            for (int j = 0; j < phrases.length; j++) {
+                phrases[j] |= other.phrases[j];
+                fuzzyPhrases[j] |= other.fuzzyPhrases[j];
+                phoneticPhrases[j] |= other.phoneticPhrases[j];
+            }
+            ctx |= other.ctx;
+            thr |= other.thr;
+            dem |= other.dem;
+            indicators |= other.indicators;
+        }
+
+        void clear(long time) {
+            this.time = time;
+            Arrays.fill(phrases, 0);
+            Arrays.fill(fuzzyPhrases, 0);
+            Arrays.fill(phoneticPhrases, 0);
+            ctx = thr = dem = 0;
+            indicators = 0;
+        }
+    }
+
+    private final ChunkHits[] slots;
+    private final long bucketMs;
+    private int head;     // next slot to write
+    private int size;
+    private final ChunkHits pending;   // uncommitted partial, newest of all while hasPending
+    private boolean hasPending;
+
+    // Fold buffers, reused by every evaluation
+    final long[] seenPhrases;
+    final double[] categoryWeighted;
+    final int[] categoryCount;
+    final long[] ctxTime, thrTime, demTime;
+    final double[] indicatorWeight;
+
+    HitWindow(long windowMs, long bucketMs, int phraseCount, int categoryCount, int archetypeCount,
+              int indicatorCount) {
+        int words = (phraseCount + 63) >>> 6;
+        // Bucket starts are at least bucketMs apart, so this many cover the window
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 1, windowMs / bucketMs + 2);
+        this.bucketMs = bucketMs;
+        slots = new ChunkHits[capacity];
+        for (int i = 0; i < capacity; i++) slots[i] = new ChunkHits(words);
+        pending = new ChunkHits(words);
+        seenPhrases = new long[words];
+        categoryWeighted = new double[categoryCount];
+        this.categoryCount = new int[categoryCount];
+        ctxTime = new long[archetypeCount];
+        thrTime = new long[archetypeCount];
+        demTime = new long[archetypeCount];
+        indicatorWeight = new double[indicatorCount];
+    }
+
+    /**
+     * Slot for a chunk committed at {@code time}: the newest bucket if it
+     * started less than {@code bucketMs} before, else a cleared one
+     * (overwriting the oldest, which is then outside the window).
+     */
+    ChunkHits bucket(long time) {
+        if (size > 0) {
+            ChunkHits newest = slots[(head - 1 + slots.length) % slots.length];
+            if (time - newest.time < bucketMs) return newest;
+        }
+        ChunkHits h = slots[head];
+        h.clear(time);
+        head = (head + 1) % slots.length;
+        if (size < slots.length) size++;
+        return h;
+    }
+
+    /** The partial slot, cleared; it counts as the newest chunk until {@link #dropPending}. */
+    ChunkHits startPending(long time) {
+        pending.clear(time);
+        hasPending = true;
+        return pending;
+    }
+
+    void dropPending() {
+        hasPending = false;
+    }
+
+    int size() {
+        return hasPending ? size + 1 : size;
+    }
+
+    /** {@code age} 0 is the newest chunk (the partial, if one is pending). */
+    ChunkHits get(int age) {
+        if (hasPending) {
+            if (age == 0) return pending;
+            age--;
+        }
+        return slots[(head - 1 - age + 2 * slots.length) % slots.length];
+    }
+
+    void resetFold() {
+        Arrays.fill(seenPhrases, 0);
+        Arrays.fill(categoryWeighted, 0);
+        Arrays.fill(categoryCount, 0);
+        Arrays.fill(indicatorWeight, 0);
+    }
+}
@@ -0,0 +1,92 @@
+package com.hellohari;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with HdrHistogram-style log-linear buckets:
+ * 32 linear sub-buckets below 32 µs, then 16 sub-buckets per power of two,
+ * so any recorded value is reported to within ~6%. Fixed 608 counters cover
+ * 0 µs to ~12 days; larger values clamp to the top bucket.
+ *
+ * <p>Recording is one atomic increment plus a CAS on the max — safe to call
+ * from capture, socket and UI threads at once.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;                 // 16 sub-buckets per octave
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2; // values < 32 are exact
+    private static final int MAX_SHIFT = 36;
+    private static final int BUCKETS = (MAX_SHIFT + 1) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(indexOf(micros));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        long m;
+        while (micros > (m = max.get()) && !max.compareAndSet(m, micros)) {
+            // retry
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    public double getMeanMicros() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code percentile}th value
+     * (0–100), never above the recorded max. 0 if empty.
+     */
+    public long getPercentileMicros(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValueAt(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int indexOf(long v) {
+        if (v < LINEAR_LIMIT) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;   // keeps the top 5 bits
+        if (shift > MAX_SHIFT) return BUCKETS - 1;
+        return shift * SUB_COUNT + (int) (v >>> shift);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = index / SUB_COUNT - 1;
+        long sub = index - (long) shift * SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
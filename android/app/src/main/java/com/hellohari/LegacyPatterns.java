@@ -0,0 +1,546 @@
+package com.hellohari;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+/**
+ * The hardcoded patterns that predate {@code patterns.json}, kept as the
+ * fallback when no bundle can be loaded. Nothing here runs until
+ * {@link #engine()} is first called: the tables are built into a bundle and
+ * compiled by {@link ScamPatternEngine} on demand, so the fallback gets the
+ * same single-pass matcher and a healthy install never pays for it.
+ */
+final class LegacyPatterns {
+
+    private LegacyPatterns() {}
+
+    /** The compiled fallback; built on first call, thread-safe by class initialization. */
+    static ScamPatternEngine engine() {
+        return Holder.ENGINE;
+    }
+
+    private static final class Holder {
+        static final ScamPatternEngine ENGINE = compile();
+    }
+
+    private static ScamPatternEngine compile() {
+        try {
+            return ScamPatternEngine.fromJson(bundle());
+        } catch (JSONException e) {
+            throw new IllegalStateException("Legacy patterns failed to compile", e);
+        }
+    }
+
+    /** The tables in bundle form; scores and bonuses as the legacy analysis had them. */
+    static JSONObject bundle() throws JSONException {
+        JSONArray cats = new JSONArray()
+                .put(category("DIGITAL_ARREST", "Digital arrest / authority impersonation scam", digitalArrest()))
+                .put(category("TRAI_SCAM", "TRAI / telecom authority scam", trai()))
+                .put(category("COURIER_SCAM", "FedEx / courier / customs scam", courier()))
+                .put(category("INVESTMENT_FRAUD", "Investment / cryptocurrency fraud", investment()))
+                .put(category("FAMILY_EMERGENCY", "Family emergency / voice cloning scam", familyEmergency()))
+                .put(category("HINDI_SCAM", "Hindi authority / banking scam", hindi()))
+                .put(category("TELUGU_SCAM", "Telugu targeted scam", telugu()))
+                .put(category("HINGLISH_SCAM", "Hinglish tech-support / banking scam", hinglish()));
+
+        JSONObject constants = new JSONObject()
+                .put("risk_cap", 100)
+                .put("category_repeat_bonus", 0.1)
+                .put("cooccurrence_scores", new JSONObject());
+        return new JSONObject()
+                .put("schema_version", 1)
+                .put("generated_at", "legacy")
+                .put("constants", constants)
+                .put("indicator_bonuses", new JSONObject()
+                        .put("URGENCY", 15).put("AUTHORITY", 20).put("FINANCIAL_RISK", 25)
+                        .put("TECH_SUPPORT", 12).put("SECRECY", 0))
+                .put("indicator_labels", new JSONObject()
+                        .put("URGENCY", "Artificial urgency detected")
+                        .put("AUTHORITY", "Authority impersonation language")
+                        .put("FINANCIAL_RISK", "Financial credential request")
+                        .put("TECH_SUPPORT", "Tech-support scam language")
+                        .put("SECRECY", "Secrecy / isolation demand"))
+                .put("indicator_sets", new JSONObject()
+                        .put("URGENCY", terms(urgency()))
+                        .put("AUTHORITY", terms(authority()))
+                        .put("FINANCIAL_RISK", terms(financialRisk()))
+                        .put("TECH_SUPPORT", terms(techSupport()))
+                        .put("SECRECY", new JSONArray()))
+                .put("pattern_categories", cats)
+                .put("archetypes", new JSONArray());
+    }
+
+    /** {@code phrasesAndScores} alternates phrase, score. */
+    private static JSONObject category(String id, String label, Object[] phrasesAndScores) throws JSONException {
+        JSONObject patterns = new JSONObject();
+        for (int i = 0; i < phrasesAndScores.length; i += 2) {
+            patterns.put(((String) phrasesAndScores[i]).toLowerCase(Locale.ROOT), phrasesAndScores[i + 1]);
+        }
+        return new JSONObject().put("id", id).put("label", label).put("patterns", patterns);
+    }
+
+    private static JSONArray terms(String[] terms) {
+        JSONArray arr = new JSONArray();
+        for (String t : terms) arr.put(t.toLowerCase(Locale.ROOT));
+        return arr;
+    }
+
+    // === DIGITAL ARREST SCAMS (HIGHEST RISK - ₹1,935 crore threat) ===
+    private static Object[] digitalArrest() {
+        return new Object[] {
+            // Authority establishment (Risk: 95-100)
+            "this is from mumbai police cyber cell", 95,
+            "main mumbai police se bol raha hun", 95,
+            "i am calling from cbi headquarters", 98,
+            "this is from enforcement directorate", 95,
+            "main ncb officer hun", 98,
+            "we are from supreme court of india", 100,
+            "arrest warrant has been issued", 98,
+            "you are under investigation", 90,
+            "cyber crime cell speaking", 95,
+            "narcotics control bureau", 98,
+            "income tax department raid", 92,
+            "customs enforcement calling", 90,
+            "delhi police headquarters", 95,
+            "central bureau investigation", 98,
+
+            // Digital confinement language (Risk: 100)
+            "you are now under digital arrest", 100,
+            "stay on video call until investigation completes", 100,
+            "don't disconnect the call or inform anyone", 100,
+            "don't involve family lawyer in this matter", 100,
+            "this is confidential government matter", 95,
+            "case will become serious if you disconnect", 98,
+            "you cannot leave until cleared", 100,
+            "maintain video call throughout", 100,
+            "digital custody until verification", 100,
+            "remote arrest proceedings", 100,
+
+            // Accusations (Risk: 90-98)
+            "your aadhaar card has been used for illegal activities", 90,
+            "parcel containing drugs found in your name", 95,
+            "22 complaints filed against your mobile sim", 90,
+            "aapke naam se human trafficking ka case", 98,
+            "your bank account is being used for money laundering", 95,
+            "anti national activities linked to your number", 98,
+            "terror charges will be filed", 100,
+            "drug trafficking case registered", 95,
+            "fake passport found with your details", 95,
+            "hawala transaction detected", 90,
+            "suspicious international transfers", 88,
+            "cybercrime unit has evidence", 92,
+            "narcotics found in courier", 95,
+            "illegal weapons shipment", 98,
+            "human organ trafficking", 100,
+            "child trafficking allegations", 100,
+            "terrorism funding detected", 100,
+            "fake currency circulation", 95,
+        };
+    }
+
+    // === TRAI & TELECOM AUTHORITY SCAMS ===
+    private static Object[] trai() {
+        return new Object[] {
+            "main trai se bol raha hun", 85,
+            "sim card band hone wala hai", 85,
+            "this is from telecom regulatory authority", 85,
+            "your number will be disconnected in 2 hours", 90,
+            "22 complaints registered against your sim", 85,
+            "mobile connection has illegal usage", 80,
+            "immediate action required on your number", 85,
+            "trai compliance violation", 80,
+            "sim deactivation process started", 85,
+            "telecom fraud detected on your number", 85,
+            "press 1 to avoid disconnection", 90,
+            "your mobile services will be suspended", 85,
+            "department of telecommunications calling", 85,
+            "sim card kyc verification failed", 80,
+            "illegal call forwarding detected", 82,
+            "international roaming misuse", 78,
+            "bulk sms violation", 75,
+            "telecom license cancellation", 88,
+            "sim card cloning detected", 90,
+            "unauthorized network access", 82,
+        };
+    }
+
+    // === FEDEX/COURIER/CUSTOMS SCAMS ===
+    private static Object[] courier() {
+        return new Object[] {
+            "we are calling from fedex mumbai", 80,
+            "your parcel has been confiscated", 85,
+            "drugs found in your package", 90,
+            "140 grams of narcotic drugs found", 90,
+            "parcel contained illegal items", 85,
+            "customs clearance fee required", 75,
+            "package stuck at customs", 75,
+            "custom commission duty and tax", 80,
+            "parcel from thailand intercepted", 85,
+            "five passports three credit cards found", 90,
+            "mdma synthetic narcotics detected", 90,
+            "international package security alert", 80,
+            "customs duty payment needed immediately", 80,
+            "courier company legal notice", 75,
+            "dhl package seizure notice", 80,
+            "blue dart security department", 78,
+            "speed post suspicious package", 75,
+            "first flight courier verification", 76,
+            "aramex package investigation", 78,
+            "gati courier fraud department", 75,
+            "dtdc package confiscation", 76,
+            "professional courier security", 78,
+            "international express detention", 82,
+            "air cargo security alert", 85,
+            "postal department investigation", 80,
+            "package contains contraband", 88,
+            "narcotic substances detected", 90,
+            "illegal wildlife products", 85,
+            "counterfeit currency found", 88,
+            "prohibited pharmaceutical items", 82,
+        };
+    }
+
+    // === INVESTMENT & CRYPTOCURRENCY FRAUD ===
+    private static Object[] investment() {
+        return new Object[] {
+            "exclusive crypto trading opportunity", 70,
+            "guaranteed 10x returns", 85,
+            "join our private vip group", 75,
+            "double your bitcoin in 30 days", 85,
+            "government approved digital currency", 80,
+            "see screenshots of members profits", 75,
+            "offer expires tonight invest now", 80,
+            "only 100 slots remaining", 80,
+            "professor has been arrested pay to unlock", 85,
+            "withdraw restrictions after 24 hours", 80,
+            "limited time crypto investment", 75,
+            "insider trading tips available", 85,
+            "binary options guaranteed profit", 80,
+            "forex trading robot", 75,
+            "stock market sure shot tips", 75,
+            "rbi approved cryptocurrency", 82,
+            "sebi registered investment scheme", 78,
+            "mutual fund guaranteed returns", 75,
+            "ipo early bird offer", 72,
+            "share market inside information", 85,
+            "commodity trading signals", 70,
+            "gold investment scheme", 68,
+            "real estate fixed returns", 70,
+            "startup equity investment", 75,
+            "peer to peer lending", 72,
+            "cryptocurrency mining pool", 75,
+            "defi staking rewards", 78,
+            "nft investment opportunity", 65,
+            "metaverse land purchase", 62,
+            "blockchain technology investment", 70,
+        };
+    }
+
+    // === FAMILY EMERGENCY & VOICE CLONING SCAMS ===
+    private static Object[] familyEmergency() {
+        return new Object[] {
+            "hello beta i am in serious trouble", 95,
+            "ive been in an accident dont tell anyone", 95,
+            "stuck in dubai canada abroad arrested", 90,
+            "phone is broken thats why i sound different", 95,
+            "dont tell mom dad about this", 85,
+            "police station mein hun urgent help", 90,
+            "accident hua hai immediate money needed", 90,
+            "kidnappers have me send ransom", 95,
+            "medical emergency surgery required", 85,
+            "bail money needed right now", 90,
+            "aapko kuch ho gaya hai", 90,
+            "hospital mein admit hai", 90,
+            "turant paisa chahiye", 85,
+            "dadi nani main aapka pota hun", 90,
+            "bache ko kuch ho gaya hai", 95,
+            "accident mein serious condition", 90,
+            "operation ki zarurat hai", 85,
+            "blood ki emergency hai", 85,
+            "police case mein fansa hai", 90,
+            "college ragging mein problem", 80,
+            "dost ke saath mushkil mein", 75,
+            "paise ki bahut zarurat hai", 80,
+            "mama chacha emergency", 85,
+            "bua ki tabiyat kharab", 82,
+            "nana nani hospital", 88,
+            "cousin brother accident", 85,
+            "family member arrested", 92,
+            "relative needs urgent surgery", 88,
+            "grandmother heart attack", 90,
+            "uncle needs immediate help", 85,
+        };
+    }
+
+    // === HINDI ADVANCED PATTERNS ===
+    private static Object[] hindi() {
+        return new Object[] {
+            // Respectful manipulation
+            "sarkar ki taraf se", 85,
+            "aapko court mein hazir hona hoga", 90,
+            "ye ek legal matter hai", 85,
+            "immediate action lena padega", 80,
+            "aapke khilaaf case file ho gaya", 90,
+            "warrant nikla hai aapke naam", 95,
+            "police aane wali hai", 90,
+            "ghar ki talashi hogi", 85,
+            "account freeze ho jayega", 85,
+            "property attach kar denge", 85,
+
+            // Authority terms
+            "collector sahab se baat karo", 85,
+            "sp sahab ka order hai", 90,
+            "judge sahab ne kaha hai", 95,
+            "commissioner ka call hai", 90,
+            "magistrate ka summon", 90,
+            "thana incharge se milna hoga", 85,
+            "sarkari kaam hai urgent", 80,
+            "government ka faisla", 85,
+            "mantri ji ka order", 88,
+            "secretary sahab ka message", 85,
+            "dm sahab se baat", 87,
+            "ias officer calling", 85,
+            "ips officer urgent", 88,
+            "tehsildar ka notice", 82,
+            "patwari se verification", 75,
+            "bjp office se call", 70,
+            "congress office urgent", 70,
+            "aap party worker", 68,
+            "election commission notice", 85,
+            "returning officer message", 80,
+
+            // Banking/Financial Hindi
+            "bank manager urgent call", 75,
+            "loan default case", 85,
+            "emi bounce notice", 80,
+            "credit card block", 78,
+            "account overdraft", 76,
+            "cheque bounce case", 85,
+            "loan recovery agent", 82,
+            "bank fraud detection", 85,
+            "suspicious transaction", 80,
+            "kyc verification pending", 75,
+            "aadhar link mandatory", 72,
+            "pan card verification", 70,
+            "income tax notice", 85,
+            "gst registration issue", 78,
+            "service tax pending", 75,
+            "property tax notice", 72,
+            "electricity bill default", 68,
+            "gas connection problem", 65,
+            "water bill pending", 62,
+            "telephone bill issue", 65,
+        };
+    }
+
+    // === TELUGU ADVANCED PATTERNS ===
+    private static Object[] telugu() {
+        return new Object[] {
+            // Telugu script patterns
+            "మీ ఖాతా మూసివేయబడుతుంది", 85,
+            "వెంటనే verify చేయండి", 80,
+            "పోలీసులు రావడానికి సిద్ధమవుతున్నారు", 90,
+            "అరెస్ట్ వారెంట్ వచ్చింది", 95,
+            "చట్టపరమైన చర్య తీసుకుంటాం", 85,
+            "బ్యాంక్ ఖాతా బ్లాక్ అవుతుంది", 85,
+            "న్యాయస్థానంలో హాజరు కావాలి", 90,
+            "సైబర్ క్రైమ్ కేసు రిజిస్టర్ అయింది", 90,
+            "ఆధార్ కార్డ్ misuse అయింది", 82,
+            "పాన్ కార్డ్ duplicate దొరికింది", 85,
+
+            // Romanized Telugu
+            "mee account block avuthundi", 85,
+            "police station vellaali", 90,
+            "legal case file ayyindi", 85,
+            "court lo hazaru kaavaali", 90,
+            "warrant vachindi mee meeda", 95,
+            "cyber crime police raabothunnaru", 90,
+            "bank nundi call chesaaru", 75,
+            "money transfer cheyyaali", 80,
+            "otp share cheyyandi", 85,
+            "verification ki details", 75,
+
+            // IT professional targeting
+            "software company case", 80,
+            "h1b visa problem", 85,
+            "us lo arrest warrant", 90,
+            "green card application reject", 80,
+            "offshore account freeze", 85,
+            "tax evasion case filed", 85,
+            "foreign remittance issue", 80,
+            "rbi foreign exchange violation", 85,
+            "it returns filing problem", 78,
+            "form 16 discrepancy", 75,
+            "tds certificate issue", 72,
+            "pf account problem", 70,
+            "esi registration issue", 68,
+            "visa interview call", 82,
+            "embassy verification", 85,
+            "consulate urgent message", 80,
+            "immigration department", 88,
+            "homeland security", 90,
+            "customs declaration", 75,
+            "airport security alert", 85,
+
+            // Regional Telugu patterns
+            "collector garu message", 85,
+            "sp garu urgent call", 88,
+            "mla garu office", 75,
+            "mp garu secretary", 78,
+            "cm office nundi", 90,
+            "governor office call", 85,
+            "ias officer message", 82,
+            "ips officer urgent", 85,
+            "mandal officer call", 75,
+            "village secretary", 68,
+            "vro office urgent", 70,
+            "vra verification", 65,
+            "asha worker message", 60,
+            "anganwadi urgent", 58,
+            "school headmaster", 65,
+            "principal urgent call", 68,
+            "college fees issue", 70,
+            "hostel fee pending", 68,
+            "scholarship problem", 72,
+            "fee reimbursement", 70,
+        };
+    }
+
+    // === MIXED LANGUAGE (HINGLISH) PATTERNS ===
+    private static Object[] hinglish() {
+        return new Object[] {
+            "sir aapka computer infected hai", 75,
+            "aapko refund mil sakta hai", 75,
+            "verification ke liye details chahiye", 80,
+            "customer care se call kar rahe", 70,
+            "aapka account hack ho gaya", 80,
+            "virus remove karna padega", 75,
+            "technical support ki zarurat", 70,
+            "microsoft se official call", 75,
+            "windows license expire ho gaya", 70,
+            "security breach detect hua", 80,
+            "firewall update karna hai", 70,
+            "remote access dena hoga", 85,
+            "otp share karo verification ke liye", 85,
+            "upi pin batao security check", 90,
+            "net banking password confirm karo", 95,
+            "credit card details verify", 88,
+            "debit card block ho gaya", 82,
+            "internet banking suspended", 85,
+            "mobile banking issue", 78,
+            "paytm account problem", 75,
+            "phonepe verification", 72,
+            "google pay security", 75,
+            "bhim app update", 68,
+            "upi transaction failed", 70,
+            "digital wallet freeze", 80,
+            "crypto wallet hack", 85,
+            "trading account issue", 82,
+            "demat account problem", 78,
+            "mutual fund redemption", 72,
+            "insurance claim pending", 75,
+        };
+    }
+
+    // === URGENCY INDICATORS (CROSS-LANGUAGE) ===
+    private static String[] urgency() {
+        return new String[] {
+            // English
+            "immediately", "urgent", "now", "quickly", "emergency",
+            "instant", "right now", "within minutes", "before midnight",
+            "today only", "limited time", "last chance", "expires soon",
+            "deadline", "time sensitive", "critical", "asap",
+            "without delay", "right away", "this instant", "at once",
+
+            // Hindi
+            "turant", "jaldi", "abhi", "foran", "tatkal",
+            "emergency", "zaruri", "aaj hi", "do ghante mein",
+            "der mat karo", "time nahi hai", "jaldi karo",
+            "abhi ke abhi", "is waqt", "isi samay", "turant se",
+
+            // Telugu
+            "వెంటనే", "త్వరగా", "ఇప్పుడే", "అత్యవసరం",
+            "immediatelyga", "jaldiga", "emergency lo",
+            "time ledu", "twaraga cheyyandi", "ventane cheyandi",
+
+            // Mixed
+            "urgent hai", "jaldi karo", "immediate action",
+            "emergency mein", "abhi ke abhi", "right away",
+            "turant karo", "emergency call", "urgent matter",
+        };
+    }
+
+    // === AUTHORITY INDICATORS ===
+    private static String[] authority() {
+        return new String[] {
+            // Law enforcement
+            "police", "cbi", "ncb", "ed", "income tax",
+            "customs", "rbi", "sebi", "trai", "court",
+            "judge", "magistrate", "collector", "commissioner",
+            "inspector", "superintendent", "deputy", "assistant",
+            "constable", "head constable", "sub inspector", "circle officer",
+
+            // Hindi authorities
+            "पुलिस", "न्यायाधीश", "कलेक्टर", "आयुक्त",
+            "थाना", "कोर्ट", "सरकार", "अफसर",
+            "मजिस्ट्रेट", "न्यायालय", "पुलिस अधीक्षक",
+
+            // Telugu authorities
+            "పోలీసు", "న్యాయమూర్తి", "కలెక్టర్", "కమిషనర్",
+            "ప్రభుత్వం", "అధికారి", "కోర్టు", "న్యాయస్థానం",
+
+            // Mixed/Romanized
+            "police waala", "officer sahab", "sarkar", "government",
+            "adhikari", "inspector", "asi", "si", "dy sp",
+            "circle inspector", "crime branch", "special branch",
+            "vigilance", "anti corruption", "enforcement",
+        };
+    }
+
+    // === FINANCIAL TERMS (HIGH RISK) ===
+    private static String[] financialRisk() {
+        return new String[] {
+            // Direct money requests
+            "money transfer", "bank details", "account number",
+            "ifsc code", "upi pin", "otp", "cvv", "atm pin",
+            "net banking password", "debit card number", "credit card details",
+            "expiry date", "security code", "mpin", "transaction password",
+
+            // Hindi financial terms
+            "paisa bhejo", "account details do", "pin batao",
+            "otp share karo", "bank se paise", "transfer karo",
+            "paise ki zarurat", "amount send", "rupaye bhejo",
+
+            // Banking apps
+            "phonepe", "paytm", "google pay", "bhim upi",
+            "amazon pay", "mobikwik", "freecharge", "airtel money",
+
+            // Cryptocurrency
+            "bitcoin", "crypto", "wallet address", "private key",
+            "metamask", "binance", "coinbase", "usdt",
+            "ethereum", "dogecoin", "blockchain", "mining",
+
+            // Investment terms
+            "guaranteed returns", "double money", "risk free",
+            "insider information", "sure shot profit", "limited offer",
+            "high returns", "quick money", "easy profit",
+        };
+    }
+
+    // === TECH SUPPORT INDICATORS ===
+    private static String[] techSupport() {
+        return new String[] {
+            "microsoft", "windows", "virus", "malware",
+            "firewall", "security", "hacker", "ip address",
+            "remote access", "teamviewer", "anydesk", "chrome",
+            "computer slow", "pop up", "browser", "update",
+            "license expired", "technical support", "customer care",
+            "antivirus", "trojan", "spyware", "ransomware",
+            "phishing", "suspicious activity", "unauthorized access",
+            "system compromise", "data breach", "identity theft",
+        };
+    }
+}
@@ -1,12 +1,20 @@
 package com.hellohari;
 
 import android.Manifest;
+import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
+import android.graphics.Typeface;
 import android.os.Bundle;
+import android.telephony.TelephonyManager;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.BackgroundColorSpan;
+import android.text.style.StyleSpan;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -20,10 +28,16 @@ import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.flexbox.FlexWrap;
 import com.google.android.flexbox.FlexboxLayout;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Main activity for Hello Hari — clean dark UI matching the web recorder.
@@ -32,6 +46,10 @@ import java.util.List;
  *   - XML layout (activity_main.xml) with shield indicator, language picker, record button
  *   - AsrManager handles: backend WebSocket (primary) → Google SpeechRecognizer (fallback)
  *   - ScamPatternEngine runs analysis (backend does it for WS; local for Google fallback)
+ *   - Transcript rows: newest N in a ring buffer, older ones paged back in from
+ *     CallHistoryStore on scroll; UI updates are batched once per frame
+ *   - Pattern hits are highlighted from the engine's match offsets; the Spannable
+ *     is built off the main thread once per row and cached on the item
  */
 public class MainActivityNew extends AppCompatActivity {
 
@@ -40,6 +58,11 @@ public class MainActivityNew extends AppCompatActivity {
     private static final String PREFS_NAME = "hello_hari_prefs";
     private static final String PREF_SERVER_URL = "server_url";
 
+    // Transcript memory bounds
+    private static final int LIVE_TRANSCRIPT_CAP = 200;
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_CACHED_PAGES = 4;
+
     // Language data (matches frontend/src/types/index.ts LANGUAGES)
     private static final String[][] LANGUAGES = {
             {"te", "Telugu", "తెలుగు"},
@@ -70,9 +93,48 @@ public class MainActivityNew extends AppCompatActivity {
 
     // State
     private AsrManager asrManager;
+    private EnhancedCallDetector callDetector;   // drives asrManager from telephony
     private boolean recording = false;
-    private final List<TranscriptItem> transcripts = new ArrayList<>();
+    private CallHistoryStore historyStore;
     private TranscriptAdapter transcriptAdapter;
+    private LinearLayoutManager transcriptLayout;
+
+    // Transcript model. Position 0 is the newest chunk; position p is history
+    // row (transcriptTotal - 1 - p) of transcriptCallId. Rows that fell out of
+    // the live ring are served from a small LRU of history pages.
+    private final TranscriptRingBuffer<TranscriptItem> liveTranscripts =
+            new TranscriptRingBuffer<>(LIVE_TRANSCRIPT_CAP);
+    private final Map<Integer, List<TranscriptItem>> pageCache =
+            new LinkedHashMap<Integer, List<TranscriptItem>>(MAX_CACHED_PAGES + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<TranscriptItem>> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            };
+    private final List<Integer> pagesLoading = new ArrayList<>();
+    private int transcriptTotal = 0;
+    private long transcriptCallId = 0;
+    private int transcriptGeneration = 0;   // bumps on reset; stale page loads are dropped
+    private int adapterCount = 0;           // item count the adapter was last told about
+
+    // Pending UI work, applied once per frame by uiCoalescer
+    private final FrameCoalescer uiCoalescer = new FrameCoalescer(this::applyPendingUi);
+    private int pendingInserted = 0;
+    private boolean pendingScam = false;
+    private boolean pendingIsScam;
+    private int pendingRiskScore;
+    private String pendingExplanation;
+    private final List<String> pendingPillLabels = new ArrayList<>();
+    private final List<TranscriptItem> pendingHighlighted = new ArrayList<>();
+    private final Set<String> shownPills = new HashSet<>();
+    private int highlightColor;
+
+    // What the shield/alert currently shows, so unchanged results are skipped
+    private String shownIcon, shownLabel;
+    private int shownScore = Integer.MIN_VALUE;
+    private int shownRingRes = 0;
+    private int shownAlertBand = -1;   // -1 hidden, 1 suspicious, 2 scam
+    private String shownExplanation;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -83,13 +145,27 @@ public class MainActivityNew extends AppCompatActivity {
         setupLanguageSpinner();
         setupTranscriptList();
         loadSavedServerUrl();
+        highlightColor = ContextCompat.getColor(this, R.color.amber_glow);
 
         asrManager = new AsrManager(this);
         asrManager.setListener(asrListener);
+        historyStore = CallHistoryStore.getInstance(this);
+        asrManager.setHistoryStore(historyStore);
+        applyAsrSettings();
+
+        // Calls pre-warm the pipeline while ringing and start it on answer
+        callDetector = new EnhancedCallDetector(this);
+        callDetector.setAsrManager(asrManager);
+        callDetector.setCallDetectionListener(callListener);
 
         recordButton.setOnClickListener(v -> toggleRecording());
+        shieldRing.setOnLongClickListener(v -> {
+            startActivity(new Intent(this, DiagnosticsActivity.class));
+            return true;
+        });
 
         requestPermissions();
+        startCallMonitoring();
 
         Log.i(TAG, "Hello Hari initialized");
     }
@@ -108,6 +184,7 @@ public class MainActivityNew extends AppCompatActivity {
         alertTitle = findViewById(R.id.alertTitle);
         alertExplanation = findViewById(R.id.alertExplanation);
         pillContainer = findViewById(R.id.pillContainer);
+        pillContainer.setFlexWrap(FlexWrap.WRAP);
         transcriptHeader = findViewById(R.id.transcriptHeader);
         transcriptList = findViewById(R.id.transcriptList);
     }
@@ -140,11 +217,21 @@ public class MainActivityNew extends AppCompatActivity {
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         languageSpinner.setAdapter(adapter);
         languageSpinner.setSelection(0); // Telugu default
+        languageSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                if (asrManager != null && !recording) applyAsrSettings();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
     }
 
     private void setupTranscriptList() {
-        transcriptAdapter = new TranscriptAdapter(transcripts);
-        transcriptList.setLayoutManager(new LinearLayoutManager(this));
+        transcriptAdapter = new TranscriptAdapter();
+        transcriptLayout = new LinearLayoutManager(this);
+        transcriptList.setLayoutManager(transcriptLayout);
         transcriptList.setAdapter(transcriptAdapter);
     }
 
@@ -171,16 +258,25 @@ public class MainActivityNew extends AppCompatActivity {
         }
     }
 
+    /** Server and language for the next session, manual or call-driven. */
+    private void applyAsrSettings() {
+        String serverUrl = serverUrlInput.getText().toString().trim();
+        asrManager.setServerUrl(serverUrl);
+        asrManager.setLanguage(LANGUAGES[languageSpinner.getSelectedItemPosition()][0]);
+    }
+
     private void startRecording() {
         String serverUrl = serverUrlInput.getText().toString().trim();
         saveServerUrl(serverUrl);
-
-        int langIndex = languageSpinner.getSelectedItemPosition();
-        String langCode = LANGUAGES[langIndex][0];
-
-        asrManager.setServerUrl(serverUrl);
-        asrManager.setLanguage(langCode);
+        applyAsrSettings();
         asrManager.start();
+        showRecording(serverUrl);
+    }
+
+    /** Switch the screen to a live session that {@link #asrManager} is already running. */
+    private void showRecording(String serverUrl) {
+        PatternBundleUpdater.checkAsync(this, serverUrl);
+        PatternTelemetry.setReportServer(serverUrl);
 
         recording = true;
         recordButton.setText("Stop");
@@ -190,17 +286,18 @@ public class MainActivityNew extends AppCompatActivity {
 
         setShieldState("🎙️", "LISTENING", -1);
         statusText.setText("Connecting...");
-        shieldRing.setBackgroundResource(R.drawable.shield_ring_safe);
+        setShieldRing(R.drawable.shield_ring_safe);
 
-        transcripts.clear();
-        transcriptAdapter.notifyDataSetChanged();
-        alertCard.setVisibility(View.GONE);
+        resetTranscripts();
+        hideAlert();
         pillContainer.setVisibility(View.GONE);
         pillContainer.removeAllViews();
+        shownPills.clear();
     }
 
     private void stopRecording() {
         asrManager.stop();
+        PatternTelemetry.flush();
         recording = false;
         recordButton.setText("Start Recording");
         recordButton.setBackgroundResource(R.drawable.button_start);
@@ -208,6 +305,46 @@ public class MainActivityNew extends AppCompatActivity {
         serverUrlInput.setEnabled(true);
     }
 
+    // --- Call detection ---
+
+    /** Follow phone calls once the phone-state permission is granted. */
+    private void startCallMonitoring() {
+        if (callDetector.isMonitoring()) return;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE)
+                != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        callDetector.startCallDetection();
+    }
+
+    private final EnhancedCallDetector.CallDetectionListener callListener =
+            new EnhancedCallDetector.CallDetectionListener() {
+        @Override
+        public void onCallStateChanged(String state, String phoneNumber) {
+            if (TelephonyManager.EXTRA_STATE_RINGING.equals(state) && !recording) {
+                statusText.setText("📞 Incoming call — getting ready to listen");
+            }
+        }
+
+        @Override
+        public void onRecordingStatusChanged(boolean isRecording, String filePath) {
+            // The detector started asrManager for an answered call; its listener ends the session
+            if (isRecording && filePath == null && !recording) {
+                showRecording(serverUrlInput.getText().toString().trim());
+            }
+        }
+
+        @Override
+        public void onRiskLevelChanged(int riskScore, String analysis) {
+            // Only the number check before the call is answered; the live session drives the shield
+            runOnUiThread(() -> {
+                if (!recording && riskScore > 0) {
+                    statusText.setText("⚠️ Caller number risk " + riskScore + "% — " + analysis);
+                }
+            });
+        }
+    };
+
     // --- AsrManager listener ---
 
     private final AsrManager.Listener asrListener = new AsrManager.Listener() {
@@ -215,6 +352,8 @@ public class MainActivityNew extends AppCompatActivity {
         public void onEngineChanged(AsrManager.Engine engine) {
             String label = engine == AsrManager.Engine.BACKEND
                     ? "⚡ Backend (IndicConformer + Whisper)"
+                    : engine == AsrManager.Engine.OFFLINE
+                    ? "📴 On-device (Vosk, offline)"
                     : "🔄 Google Speech (Fallback)";
             engineBadge.setText(label);
             engineBadge.setVisibility(View.VISIBLE);
@@ -227,44 +366,36 @@ public class MainActivityNew extends AppCompatActivity {
         }
 
         @Override
-        public void onTranscription(String text, String language) {
+        public void onTranscription(String text, String language, int[] matchSpans) {
             if (text == null || text.trim().isEmpty()) return;
 
-            transcripts.add(0, new TranscriptItem(text, language));
-            transcriptAdapter.notifyItemInserted(0);
-            transcriptList.scrollToPosition(0);
-            transcriptHeader.setVisibility(View.VISIBLE);
-            transcriptList.setVisibility(View.VISIBLE);
-
-            int count = transcripts.size();
-            statusText.setText("Listening — " + count + " chunk" + (count != 1 ? "s" : "") + " analyzed");
+            if (transcriptCallId == 0) {
+                transcriptCallId = asrManager.getHistoryCallId();
+            }
+            TranscriptItem item = new TranscriptItem(transcriptTotal, text, language);
+            liveTranscripts.addNewest(item);
+            transcriptTotal++;
+            pendingInserted++;
+            buildHighlightAsync(item, matchSpans);
+            uiCoalescer.request();
         }
 
         @Override
-        public void onScamResult(boolean isScam, int riskScore, String explanation) {
-            if (riskScore <= 0) {
-                if (recording) {
-                    setShieldState("🛡️", "SAFE", -1);
-                    shieldRing.setBackgroundResource(R.drawable.shield_ring_safe);
+        public void onScamResult(boolean isScam, int riskScore, String explanation,
+                                 List<String> matchedPatterns) {
+            // Latest result wins; several per frame collapse into one apply
+            pendingScam = true;
+            pendingIsScam = isScam;
+            pendingRiskScore = riskScore;
+            pendingExplanation = explanation;
+            if (matchedPatterns != null) {
+                for (String label : matchedPatterns) {
+                    if (!shownPills.contains(label) && !pendingPillLabels.contains(label)) {
+                        pendingPillLabels.add(label);
+                    }
                 }
-                alertCard.setVisibility(View.GONE);
-                return;
             }
-
-            if (isScam) {
-                setShieldState("🚨", "SCAM DETECTED", riskScore);
-                shieldRing.setBackgroundResource(R.drawable.shield_ring_danger);
-                alertCard.setBackgroundResource(R.drawable.alert_card_bg);
-                alertTitle.setText("🚨 SCAM DETECTED");
-            } else {
-                setShieldState("⚠️", "SUSPICIOUS", riskScore);
-                shieldRing.setBackgroundResource(R.drawable.shield_ring_warning);
-                alertCard.setBackgroundResource(R.drawable.alert_card_warning_bg);
-                alertTitle.setText("⚠️ Suspicious Activity");
-            }
-
-            alertExplanation.setText(explanation);
-            alertCard.setVisibility(View.VISIBLE);
+            uiCoalescer.request();
         }
 
         @Override
@@ -272,6 +403,23 @@ public class MainActivityNew extends AppCompatActivity {
             statusText.setText("Error: " + message);
         }
 
+        @Override
+        public void onUserReadingDigits() {
+            if (!recording) return;
+            statusText.setText("⚠️ You seem to be reading out numbers — never share an OTP or PIN on a call");
+        }
+
+        @Override
+        public void onKeypadEntry(int keys, boolean afterFinancialDemand) {
+            if (!recording || !afterFinancialDemand) return;
+            statusText.setText("⚠️ Don't type a PIN or OTP for a caller — hang up and call your bank");
+        }
+
+        @Override
+        public void onEvidenceSaved(File file, long durationMs) {
+            statusText.setText("📁 Saved " + durationMs / 1000 + " s of this call's audio as evidence");
+        }
+
         @Override
         public void onSessionEnd() {
             if (!recording) return;
@@ -281,23 +429,287 @@ public class MainActivityNew extends AppCompatActivity {
             languageSpinner.setEnabled(true);
             serverUrlInput.setEnabled(true);
 
-            int count = transcripts.size();
+            applyPendingUi();
+            int count = transcriptTotal;
             statusText.setText("Analysis complete — " + count + " chunk" + (count != 1 ? "s" : ""));
             engineBadge.setVisibility(View.GONE);
         }
     };
 
-    // --- Shield UI ---
+    // --- Frame-batched UI ---
+
+    /** Runs at most once per frame: one adapter diff, one shield/alert update. */
+    private void applyPendingUi() {
+        uiCoalescer.cancel();
+
+        if (pendingInserted > 0) {
+            int inserted = pendingInserted;
+            pendingInserted = 0;
+            boolean atTop = transcriptLayout.findFirstVisibleItemPosition() <= 0;
+            int count = transcriptCount();
+            int dropped = adapterCount + inserted - count;   // ring evictions with no history to page from
+            if (inserted > count) {
+                transcriptAdapter.notifyDataSetChanged();
+            } else {
+                transcriptAdapter.notifyItemRangeInserted(0, inserted);
+                if (dropped > 0) transcriptAdapter.notifyItemRangeRemoved(count, dropped);
+            }
+            adapterCount = count;
+            if (atTop) {
+                // Follow the live edge only if the user hasn't scrolled back
+                transcriptList.scrollToPosition(0);
+            }
+            if (transcriptList.getVisibility() != View.VISIBLE) {
+                transcriptHeader.setVisibility(View.VISIBLE);
+                transcriptList.setVisibility(View.VISIBLE);
+            }
+            int total = transcriptTotal;
+            statusText.setText("Listening — " + total + " chunk" + (total != 1 ? "s" : "") + " analyzed");
+        }
+
+        if (!pendingHighlighted.isEmpty()) {
+            int count = transcriptCount();
+            for (TranscriptItem item : pendingHighlighted) {
+                int position = transcriptTotal - 1 - item.seq;
+                if (position >= 0 && position < count) transcriptAdapter.notifyItemChanged(position);
+            }
+            pendingHighlighted.clear();
+        }
+
+        if (pendingScam) {
+            pendingScam = false;
+            showScamResult(pendingIsScam, pendingRiskScore, pendingExplanation);
+            pendingExplanation = null;
+        }
+
+        if (!pendingPillLabels.isEmpty()) {
+            for (String label : pendingPillLabels) {
+                if (shownPills.add(label)) addPill(label, pendingIsScam);
+            }
+            pendingPillLabels.clear();
+            pillContainer.setVisibility(View.VISIBLE);
+        }
+
+        PipelineLatency.onRendered(System.nanoTime());
+    }
+
+    private void addPill(String label, boolean danger) {
+        TextView pill = new TextView(this);
+        pill.setText(label);
+        pill.setTextSize(11);
+        pill.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
+        pill.setBackgroundResource(danger ? R.drawable.pill_danger_bg : R.drawable.pill_warning_bg);
+        int h = TranscriptAdapter.dp(pillContainer, 10), v = TranscriptAdapter.dp(pillContainer, 4);
+        pill.setPadding(h, v, h, v);
+        ViewGroup.MarginLayoutParams lp = new ViewGroup.MarginLayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        lp.rightMargin = lp.bottomMargin = TranscriptAdapter.dp(pillContainer, 6);
+        pillContainer.addView(pill, lp);
+    }
+
+    private void showScamResult(boolean isScam, int riskScore, String explanation) {
+        if (riskScore <= 0) {
+            if (recording) {
+                setShieldState("🛡️", "SAFE", -1);
+                setShieldRing(R.drawable.shield_ring_safe);
+            }
+            hideAlert();
+            return;
+        }
+
+        if (isScam) {
+            setShieldState("🚨", "SCAM DETECTED", riskScore);
+            setShieldRing(R.drawable.shield_ring_danger);
+        } else {
+            setShieldState("⚠️", "SUSPICIOUS", riskScore);
+            setShieldRing(R.drawable.shield_ring_warning);
+        }
+        showAlert(isScam ? 2 : 1, explanation);
+    }
+
+    // --- Shield UI (each setter skips the view work when nothing changed) ---
 
     private void setShieldState(String icon, String label, int score) {
-        shieldIcon.setText(icon);
-        shieldLabel.setText(label);
-        if (score >= 0) {
-            shieldScore.setText(score + "%");
-            shieldScore.setVisibility(View.VISIBLE);
+        if (!icon.equals(shownIcon)) {
+            shieldIcon.setText(icon);
+            shownIcon = icon;
+        }
+        if (!label.equals(shownLabel)) {
+            shieldLabel.setText(label);
+            shownLabel = label;
+        }
+        int normalized = Math.max(score, -1);
+        if (normalized == shownScore) return;
+        if (normalized >= 0) {
+            shieldScore.setText(normalized + "%");
+            if (shownScore < 0) shieldScore.setVisibility(View.VISIBLE);
         } else {
             shieldScore.setVisibility(View.GONE);
         }
+        shownScore = normalized;
+    }
+
+    private void setShieldRing(int drawableRes) {
+        if (drawableRes == shownRingRes) return;
+        shieldRing.setBackgroundResource(drawableRes);
+        shownRingRes = drawableRes;
+    }
+
+    private void showAlert(int band, String explanation) {
+        if (band != shownAlertBand) {
+            if (band == 2) {
+                alertCard.setBackgroundResource(R.drawable.alert_card_bg);
+                alertTitle.setText("🚨 SCAM DETECTED");
+            } else {
+                alertCard.setBackgroundResource(R.drawable.alert_card_warning_bg);
+                alertTitle.setText("⚠️ Suspicious Activity");
+            }
+            if (shownAlertBand < 0) alertCard.setVisibility(View.VISIBLE);
+            shownAlertBand = band;
+        }
+        if (explanation == null ? shownExplanation != null : !explanation.equals(shownExplanation)) {
+            alertExplanation.setText(explanation);
+            shownExplanation = explanation;
+        }
+    }
+
+    private void hideAlert() {
+        if (shownAlertBand == -1 && alertCard.getVisibility() != View.VISIBLE) return;
+        alertCard.setVisibility(View.GONE);
+        shownAlertBand = -1;
+        shownExplanation = null;
+    }
+
+    // --- Transcript model ---
+
+    private void resetTranscripts() {
+        uiCoalescer.cancel();
+        pendingInserted = 0;
+        pendingScam = false;
+        pendingExplanation = null;
+        pendingPillLabels.clear();
+        pendingHighlighted.clear();
+        liveTranscripts.clear();
+        pageCache.clear();
+        pagesLoading.clear();
+        transcriptTotal = 0;
+        transcriptCallId = 0;
+        transcriptGeneration++;
+        adapterCount = 0;
+        transcriptAdapter.notifyDataSetChanged();
+    }
+
+    /**
+     * Rows visible to the adapter. Without a history record to page from,
+     * only the live ring is shown.
+     */
+    private int transcriptCount() {
+        return transcriptCallId != 0 ? transcriptTotal : liveTranscripts.size();
+    }
+
+    /**
+     * Row at adapter position, or {@code null} while its history page is
+     * loading (a placeholder is bound and the row is refreshed on arrival).
+     */
+    private TranscriptItem transcriptAt(int position) {
+        if (position < liveTranscripts.size()) {
+            return liveTranscripts.get(position);
+        }
+        int row = transcriptTotal - 1 - position;
+        int page = row / HISTORY_PAGE_SIZE;
+        List<TranscriptItem> items = pageCache.get(page);
+        int offset = row % HISTORY_PAGE_SIZE;
+        if (items != null && offset < items.size()) {
+            return items.get(offset);
+        }
+        // Missing or loaded before the tail of the page had been flushed
+        pageCache.remove(page);
+        loadHistoryPage(page);
+        return null;
+    }
+
+    private void loadHistoryPage(int page) {
+        if (historyStore == null || transcriptCallId == 0 || pagesLoading.contains(page)) return;
+        pagesLoading.add(page);
+        final long callId = transcriptCallId;
+        final int generation = transcriptGeneration;
+        AppExecutors.io().execute(() -> {
+            List<TranscriptItem> items = new ArrayList<>(HISTORY_PAGE_SIZE);
+            try {
+                int seq = page * HISTORY_PAGE_SIZE;
+                for (CallHistoryStore.Chunk c : historyStore.getChunks(
+                        callId, page * HISTORY_PAGE_SIZE, HISTORY_PAGE_SIZE)) {
+                    TranscriptItem item = new TranscriptItem(seq++, c.text, c.language);
+                    // History keeps labels, not offsets — re-match once while paging in
+                    item.display = highlight(c.text, localSpans(c.text));
+                    items.add(item);
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not page transcript history", e);
+            }
+            transcriptList.post(() -> onHistoryPageLoaded(generation, page, items));
+        });
+    }
+
+    private void onHistoryPageLoaded(int generation, int page, List<TranscriptItem> items) {
+        if (generation != transcriptGeneration) return;
+        pagesLoading.remove(Integer.valueOf(page));
+        if (items.isEmpty()) return;
+        pageCache.put(page, items);
+
+        // Rebind the rows of this page that are on the paged (non-live) side
+        int firstRow = page * HISTORY_PAGE_SIZE;
+        int lastRow = firstRow + items.size() - 1;
+        int firstPos = Math.max(transcriptTotal - 1 - lastRow, liveTranscripts.size());
+        int lastPos = transcriptTotal - 1 - firstRow;
+        if (lastPos >= firstPos) {
+            transcriptAdapter.notifyItemRangeChanged(firstPos, lastPos - firstPos + 1);
+        }
+    }
+
+    // --- Highlights ---
+
+    /**
+     * Build the row's highlighted text off the main thread and cache it on
+     * the item. Chunks arrive with the session's offsets; only one that no
+     * session matched (no pattern bundle) is matched here.
+     */
+    private void buildHighlightAsync(TranscriptItem item, int[] matchSpans) {
+        if (matchSpans != null && matchSpans.length == 0) return;
+        final int generation = transcriptGeneration;
+        AppExecutors.scheduler().execute(() -> {
+            int[] spans = matchSpans != null ? matchSpans : localSpans(item.text);
+            if (spans.length == 0) return;
+            item.display = highlight(item.text, spans);
+            transcriptList.post(() -> {
+                if (generation != transcriptGeneration) return;
+                pendingHighlighted.add(item);
+                uiCoalescer.request();
+            });
+        });
+    }
+
+    /** Offsets only, not counted as an analysis — for text that was already scored. */
+    private int[] localSpans(String text) {
+        try {
+            return PatternBundleLoader.getInstance(getApplicationContext()).matchSpans(text);
+        } catch (Exception e) {
+            Log.w(TAG, "Pattern engine unavailable for highlighting", e);
+            return ScamPatternEngine.NO_SPANS;
+        }
+    }
+
+    /** @return a Spannable, or {@code null} when there is nothing to highlight */
+    private CharSequence highlight(String text, int[] spans) {
+        if (spans.length == 0) return null;
+        SpannableString out = new SpannableString(text);
+        for (int i = 0; i + 1 < spans.length; i += 2) {
+            int start = spans[i], end = Math.min(spans[i + 1], text.length());
+            if (start >= end) continue;
+            out.setSpan(new BackgroundColorSpan(highlightColor), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            out.setSpan(new StyleSpan(Typeface.BOLD), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return out;
     }
 
     // --- Permissions ---
@@ -305,6 +717,9 @@ public class MainActivityNew extends AppCompatActivity {
     private void requestPermissions() {
         String[] perms = {
                 Manifest.permission.RECORD_AUDIO,
+                // Phone state to follow calls; the call log carries the caller's number
+                Manifest.permission.READ_PHONE_STATE,
+                Manifest.permission.READ_CALL_LOG,
         };
 
         List<String> needed = new ArrayList<>();
@@ -324,19 +739,25 @@ public class MainActivityNew extends AppCompatActivity {
                                            @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == PERMISSION_REQUEST) {
-            for (int result : grantResults) {
-                if (result != PackageManager.PERMISSION_GRANTED) {
+            for (int i = 0; i < permissions.length && i < grantResults.length; i++) {
+                if (Manifest.permission.RECORD_AUDIO.equals(permissions[i])
+                        && grantResults[i] != PackageManager.PERMISSION_GRANTED) {
                     statusText.setText("Microphone permission required");
                     recordButton.setEnabled(false);
                     return;
                 }
             }
+            startCallMonitoring();
         }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        uiCoalescer.cancel();
+        if (callDetector != null) {
+            callDetector.stopCallDetection();
+        }
         if (asrManager != null) {
             asrManager.destroy();
         }
@@ -345,21 +766,19 @@ public class MainActivityNew extends AppCompatActivity {
     // --- Transcript adapter ---
 
     private static class TranscriptItem {
+        final int seq;          // row index within the call, oldest = 0
         final String text;
         final String language;
+        volatile CharSequence display;   // highlighted text once built, else null
 
-        TranscriptItem(String text, String language) {
+        TranscriptItem(int seq, String text, String language) {
+            this.seq = seq;
             this.text = text;
             this.language = language;
         }
     }
 
-    private static class TranscriptAdapter extends RecyclerView.Adapter<TranscriptAdapter.VH> {
-        private final List<TranscriptItem> items;
-
-        TranscriptAdapter(List<TranscriptItem> items) {
-            this.items = items;
-        }
+    private class TranscriptAdapter extends RecyclerView.Adapter<TranscriptAdapter.VH> {
 
         @NonNull
         @Override
@@ -403,14 +822,20 @@ public class MainActivityNew extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(@NonNull VH holder, int position) {
-            TranscriptItem item = items.get(position);
+            TranscriptItem item = transcriptAt(position);
+            if (item == null) {
+                holder.badge.setText("");
+                holder.text.setText("…");
+                return;
+            }
             holder.badge.setText(item.language != null ? item.language.toUpperCase() : "");
-            holder.text.setText(item.text);
+            CharSequence display = item.display;
+            holder.text.setText(display != null ? display : item.text);
         }
 
         @Override
         public int getItemCount() {
-            return items.size();
+            return transcriptCount();
         }
 
         static int dp(View parent, int dp) {
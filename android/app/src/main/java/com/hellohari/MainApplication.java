@@ -7,5 +7,6 @@ public class MainApplication extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+        PatternTelemetry.start(this);
     }
 }
@@ -0,0 +1,387 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * NumberReputationStore — local caller reputation lookup used on
+ * {@code CALL_STATE_RINGING}, before the user picks up.
+ *
+ * <p>The blocklist is compiled into a binary file in app files and then
+ * memory-mapped, so millions of entries cost page cache rather than heap:
+ * <ul>
+ *   <li>Exact numbers live in a bloom filter (no false negatives, ~1% false
+ *       positives at 10 bits/entry).</li>
+ *   <li>Number series (e.g. {@code 91140*}) live in a digit trie; the longest
+ *       matching prefix wins.</li>
+ * </ul>
+ *
+ * <p>The compiled file records the format version and a CRC-32 of the list
+ * it was built from, and is rebuilt when either no longer matches — an app
+ * update that ships a new list, or a new file format.
+ *
+ * <p>Source blocklist format ({@code assets/number_reputation.txt}), one
+ * entry per line:
+ * <pre>
+ *   # comment
+ *   919876543210          exact number, default score
+ *   919876543210,95       exact number, explicit score (bloom filter keeps one
+ *                         shared score — the highest seen)
+ *   91140*,40             series prefix with score
+ * </pre>
+ *
+ * <p>{@link #lookup(String)} performs no allocation and only absolute reads on
+ * the mapped buffer, so it is safe to call from any thread.
+ */
+public final class NumberReputationStore {
+
+    private static final String TAG = "NumberReputation";
+    private static final String ASSET_FILE = "number_reputation.txt";
+    private static final String COMPILED_FILE = "number_reputation.bin";
+
+    private static final int MAGIC = 0x48484E52;   // "HHNR"
+    private static final int FORMAT_VERSION = 2;   // 2: source CRC in the header
+    private static final int HEADER_BYTES = 32;
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+    private static final int DEFAULT_EXACT_SCORE = 90;
+
+    /** Trie node: 10 child indices + score, all 4-byte ints. */
+    private static final int NODE_BYTES = 44;
+    private static final int SCORE_OFFSET = 40;
+    private static final int MAX_DIGITS = 15;       // E.164 limit, fits in a long
+
+    private static final long[] POW10 = new long[MAX_DIGITS + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private static volatile NumberReputationStore sInstance;
+
+    private final Mapping mapping;
+
+    // ---- Public API ----
+
+    /**
+     * Compiles the bundled blocklist if it changed since the last run, and maps it.
+     * Thread-safe. Call off the main thread — e.g. when monitoring starts —
+     * so the ringing path only ever sees a ready store.
+     */
+    public static NumberReputationStore getInstance(Context ctx) throws IOException {
+        NumberReputationStore local = sInstance;
+        if (local == null) {
+            synchronized (NumberReputationStore.class) {
+                local = sInstance;
+                if (local == null) {
+                    local = load(ctx.getApplicationContext());
+                    sInstance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Risk score for a caller number.
+     *
+     * @param phoneNumber raw number as delivered by telephony (any formatting)
+     * @return 0-100, or 0 when the number is unknown / unparseable
+     */
+    public int lookup(String phoneNumber) {
+        Mapping m = mapping;
+        if (m == null || phoneNumber == null) return 0;
+
+        long number = normalize(phoneNumber);
+        if (number < 0) return 0;
+        int digits = digitCount(number);
+
+        int score = 0;
+        if (m.bloomContains(number)) score = m.exactScore;
+
+        // Longest-prefix match through the series trie
+        int node = 0;
+        for (int i = digits - 1; i >= 0 && node >= 0; i--) {
+            int digit = (int) ((number / POW10[i]) % 10);
+            node = m.child(node, digit);
+            if (node > 0) {
+                int s = m.score(node);
+                if (s > score) score = s;
+            }
+        }
+        return score;
+    }
+
+    // ---- Number normalization ----
+
+    /**
+     * Reduce a dialled/received number to international digits (Indian
+     * numbers without a country code get {@code 91}) packed into a long.
+     * Returns -1 for anything that isn't a plausible phone number.
+     */
+    static long normalize(String raw) {
+        long value = 0;
+        int digits = 0;
+        int leadingZeros = 0;
+        boolean plus = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == 0 && c == '0') {
+                    leadingZeros++;
+                    continue;
+                }
+                if (++digits > MAX_DIGITS) return -1;
+                value = value * 10 + (c - '0');
+            } else if (c == '+' && digits == 0 && leadingZeros == 0) {
+                plus = true;
+            }
+        }
+        if (digits == 0) return -1;
+        // 10-digit national number (optionally dialled with a trunk 0)
+        if (!plus && leadingZeros <= 1 && digits == 10) {
+            value += 91L * POW10[10];
+        }
+        return value;
+    }
+
+    private static int digitCount(long n) {
+        int d = 1;
+        while (d < MAX_DIGITS && n >= POW10[d]) d++;
+        return d;
+    }
+
+    // ---- Loader ----
+
+    private static NumberReputationStore load(Context ctx) throws IOException {
+        File compiled = new File(ctx.getFilesDir(), COMPILED_FILE);
+        int sourceCrc;
+        try (InputStream is = ctx.getAssets().open(ASSET_FILE)) {
+            sourceCrc = crc(is);
+        }
+        Mapping mapping = null;
+        if (compiled.exists()) {
+            try {
+                mapping = Mapping.open(compiled);
+                if (mapping.sourceCrc != sourceCrc) {
+                    Log.i(TAG, "Bundled blocklist changed — recompiling");
+                    mapping = null;
+                }
+            } catch (IOException e) {
+                Log.i(TAG, "Compiled store unusable (" + e.getMessage() + ") — recompiling");
+            }
+        }
+        if (mapping == null) {
+            // Assets are compressed inside the APK and can't be mapped directly —
+            // compile the bundled list into app files.
+            File tmp = new File(compiled.getPath() + ".tmp");
+            try (InputStream is = ctx.getAssets().open(ASSET_FILE)) {
+                compile(is, tmp, sourceCrc);
+            }
+            if (!tmp.renameTo(compiled)) {
+                tmp.delete();
+                throw new IOException("Failed to install " + compiled);
+            }
+            mapping = Mapping.open(compiled);
+        }
+        return new NumberReputationStore(mapping);
+    }
+
+    private NumberReputationStore(Mapping mapping) {
+        this.mapping = mapping;
+        Log.i(TAG, "Loaded " + mapping.describe());
+    }
+
+    private static int crc(InputStream is) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        for (int n; (n = is.read(buf)) > 0; ) crc.update(buf, 0, n);
+        return (int) crc.getValue();
+    }
+
+    // ---- Compiler (text blocklist -> mapped binary) ----
+
+    /** @param sourceCrc CRC-32 of {@code source}, stored so a changed list is noticed */
+    static void compile(InputStream source, File out, int sourceCrc) throws IOException {
+        long[] exact = new long[1024];
+        int exactCount = 0;
+        int exactScore = DEFAULT_EXACT_SCORE;
+        TrieBuilder trie = new TrieBuilder();
+
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                int score = -1;
+                int comma = line.indexOf(',');
+                if (comma >= 0) {
+                    try {
+                        score = Math.max(1, Math.min(100, Integer.parseInt(line.substring(comma + 1).trim())));
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    line = line.substring(0, comma).trim();
+                }
+
+                if (line.endsWith("*")) {
+                    String prefix = line.substring(0, line.length() - 1);
+                    if (!prefix.matches("\\d{1," + MAX_DIGITS + "}")) continue;
+                    trie.add(prefix, score > 0 ? score : DEFAULT_EXACT_SCORE);
+                } else {
+                    long n = normalize(line);
+                    if (n < 0) continue;
+                    if (exactCount == exact.length) exact = Arrays.copyOf(exact, exactCount * 2);
+                    exact[exactCount++] = n;
+                    if (score > 0 && score > exactScore) exactScore = score;
+                }
+            }
+        }
+
+        // Power-of-two bit count keeps the index computation to a mask
+        long wantBits = Math.max(64L, (long) exactCount * BITS_PER_ENTRY);
+        int bloomBits = Integer.highestOneBit((int) Math.min(Integer.MAX_VALUE / 2, wantBits - 1)) << 1;
+        long[] bloom = new long[bloomBits >>> 6];
+        for (int i = 0; i < exactCount; i++) {
+            long h1 = mix(exact[i]);
+            long h2 = mix(h1) | 1;
+            for (int k = 0; k < HASHES; k++) {
+                int bit = (int) ((h1 + k * h2) & (bloomBits - 1));
+                bloom[bit >>> 6] |= 1L << (bit & 63);
+            }
+        }
+
+        try (DataOutputStream os = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(out), 64 * 1024))) {
+            os.writeInt(MAGIC);
+            os.writeInt(FORMAT_VERSION);
+            os.writeInt(bloomBits);
+            os.writeInt(HASHES);
+            os.writeInt(exactScore);
+            os.writeInt(exactCount);
+            os.writeInt(trie.size);
+            os.writeInt(sourceCrc);
+            for (long w : bloom) os.writeLong(w);
+            for (int n = 0; n < trie.size; n++) {
+                for (int d = 0; d < 10; d++) os.writeInt(trie.children[n * 10 + d]);
+                os.writeInt(trie.scores[n] & 0xFF);
+            }
+        }
+    }
+
+    /** SplitMix64 finalizer — good avalanche for sequential phone numbers. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class TrieBuilder {
+        int[] children = new int[10 * 64];
+        byte[] scores = new byte[64];
+        int size = 1;   // node 0 is the root
+
+        void add(String digits, int score) {
+            int node = 0;
+            for (int i = 0; i < digits.length(); i++) {
+                int d = digits.charAt(i) - '0';
+                int next = children[node * 10 + d];
+                if (next == 0) {
+                    next = newNode();
+                    children[node * 10 + d] = next;
+                }
+                node = next;
+            }
+            if (score > (scores[node] & 0xFF)) scores[node] = (byte) score;
+        }
+
+        private int newNode() {
+            if (size == scores.length) {
+                scores = Arrays.copyOf(scores, size * 2);
+                children = Arrays.copyOf(children, size * 2 * 10);
+            }
+            return size++;
+        }
+    }
+
+    // ---- Mapped view ----
+
+    private static final class Mapping {
+        final MappedByteBuffer buf;
+        final int bloomBits;
+        final int hashes;
+        final int exactScore;
+        final int exactCount;
+        final int nodeCount;
+        final int trieOffset;
+        final int sourceCrc;
+
+        private Mapping(MappedByteBuffer buf) throws IOException {
+            this.buf = buf;
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Bad reputation store header");
+            }
+            this.bloomBits  = buf.getInt(8);
+            this.hashes     = buf.getInt(12);
+            this.exactScore = buf.getInt(16);
+            this.exactCount = buf.getInt(20);
+            this.nodeCount  = buf.getInt(24);
+            this.sourceCrc  = buf.getInt(28);
+            this.trieOffset = HEADER_BYTES + (bloomBits >>> 3);
+            if (trieOffset + (long) nodeCount * NODE_BYTES > buf.capacity()) {
+                throw new IOException("Truncated reputation store");
+            }
+        }
+
+        static Mapping open(File f) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(f, "r");
+                 FileChannel ch = raf.getChannel()) {
+                // The mapping stays valid after the channel is closed.
+                return new Mapping(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            }
+        }
+
+        boolean bloomContains(long number) {
+            if (exactCount == 0) return false;
+            long h1 = mix(number);
+            long h2 = mix(h1) | 1;
+            for (int k = 0; k < hashes; k++) {
+                int bit = (int) ((h1 + k * h2) & (bloomBits - 1));
+                long word = buf.getLong(HEADER_BYTES + ((bit >>> 6) << 3));
+                if ((word & (1L << (bit & 63))) == 0) return false;
+            }
+            return true;
+        }
+
+        /** @return child node index, or -1 when the path ends. */
+        int child(int node, int digit) {
+            int c = buf.getInt(trieOffset + node * NODE_BYTES + digit * 4);
+            return c == 0 ? -1 : c;
+        }
+
+        int score(int node) {
+            return buf.getInt(trieOffset + node * NODE_BYTES + SCORE_OFFSET);
+        }
+
+        String describe() {
+            return "exact=" + exactCount + " seriesNodes=" + nodeCount
+                    + " mapped=" + buf.capacity() / 1024 + "KB";
+        }
+    }
+}
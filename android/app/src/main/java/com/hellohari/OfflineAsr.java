@@ -0,0 +1,143 @@
+package com.hellohari;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-device streaming recognizer (Vosk / Kaldi) wired straight into a
+ * {@link ScamPatternEngine.Session}: PCM goes in on the capture thread and
+ * every changed partial is scored there and then, without a hop to another
+ * thread or a round trip to the backend.
+ *
+ * <p>Partials are scored with {@link ScamPatternEngine.Session#analyzePartial}
+ * so a hypothesis that grows word by word is counted once; the recognizer's
+ * end-of-utterance result commits it.
+ *
+ * <p>Plain Java (Vosk's JNA binding and org.json only) so the same path can
+ * be driven from WAV files on a workstation — see the CLI's
+ * {@code transcribe} command. Not thread-safe: one capture thread feeds it.
+ */
+public final class OfflineAsr implements AutoCloseable {
+
+    /** What the recognizer heard and what the session made of it. */
+    public interface Listener {
+        /**
+         * @param isFinal    end of an utterance rather than a revisable partial
+         * @param matchSpans {@code [start, end)} pattern hits in {@code text}
+         */
+        void onTranscript(String text, boolean isFinal, ScamPatternEngine.Result result, int[] matchSpans);
+    }
+
+    // Models are large and read-only: load each directory once per process
+    // and share it; a Recognizer per call is small.
+    private static final Map<String, Model> MODELS = new HashMap<>();
+
+    private final Recognizer recognizer;
+    private final ScamPatternEngine.Session session;
+    private final Listener listener;
+    private String lastPartial = "";
+
+    public OfflineAsr(Model model, float sampleRate, ScamPatternEngine.Session session, Listener listener)
+            throws IOException {
+        this.recognizer = new Recognizer(model, sampleRate);
+        this.session = session;
+        this.listener = listener;
+    }
+
+    /**
+     * Shared model for an unpacked model directory, loaded on first use.
+     * Slow (hundreds of milliseconds to seconds) — call off the main thread.
+     */
+    public static Model loadModel(File dir) throws IOException {
+        String key = dir.getCanonicalPath();
+        synchronized (MODELS) {
+            Model model = MODELS.get(key);
+            if (model == null) {
+                if (!isModelDir(dir)) throw new IOException("Not a Vosk model: " + dir);
+                model = new Model(key);
+                MODELS.put(key, model);
+            }
+            return model;
+        }
+    }
+
+    /** Already loaded by {@link #loadModel(File)}. */
+    static boolean isLoaded(File dir) {
+        try {
+            String key = dir.getCanonicalPath();
+            synchronized (MODELS) {
+                return MODELS.containsKey(key);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Looks like an unpacked Vosk model (acoustic model plus config). */
+    static boolean isModelDir(File dir) {
+        return new File(dir, "am/final.mdl").isFile() && new File(dir, "conf/model.conf").isFile();
+    }
+
+    /**
+     * Feed {@code n} samples of 16-bit mono PCM at the recognizer's rate.
+     * Scores and reports whatever changed.
+     *
+     * @param timestampMs capture time on the session's monotonic clock
+     */
+    public void accept(short[] pcm, int n, long timestampMs) {
+        if (recognizer.acceptWaveForm(pcm, n)) {
+            commit(field(recognizer.getResult(), "text"), timestampMs);
+            return;
+        }
+        String partial = field(recognizer.getPartialResult(), "partial");
+        if (partial.isEmpty() || partial.equals(lastPartial)) return;
+        lastPartial = partial;
+        ScamPatternEngine.Result result;
+        int[] spans;
+        synchronized (session) {
+            result = session.analyzePartial(partial, timestampMs);
+            spans = session.getLastChunkSpans();
+        }
+        listener.onTranscript(partial, false, result, spans);
+    }
+
+    /** Flush the utterance in progress, e.g. when the call ends. */
+    public void finish(long timestampMs) {
+        commit(field(recognizer.getFinalResult(), "text"), timestampMs);
+    }
+
+    private void commit(String text, long timestampMs) {
+        boolean hadPartial = !lastPartial.isEmpty();
+        lastPartial = "";
+        // Empty results still go through the session so a pending partial is dropped
+        if (text.isEmpty() && !hadPartial) return;
+        ScamPatternEngine.Result result;
+        int[] spans;
+        synchronized (session) {
+            result = session.analyze(text, timestampMs);
+            spans = session.getLastChunkSpans();
+        }
+        if (!text.isEmpty()) listener.onTranscript(text, true, result, spans);
+    }
+
+    @Override
+    public void close() {
+        recognizer.close();
+    }
+
+    /** Vosk results are small JSON objects: {@code {"partial": "..."}} / {@code {"text": "..."}}. */
+    private static String field(String json, String name) {
+        try {
+            return new JSONObject(json).optString(name, "").trim();
+        } catch (JSONException e) {
+            return "";
+        }
+    }
+}
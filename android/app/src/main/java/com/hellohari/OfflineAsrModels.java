@@ -0,0 +1,158 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import org.vosk.Model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds, installs and loads the on-device recognizer models for
+ * {@link OfflineAsr}.
+ *
+ * <p>Models ship in the APK under {@code assets/vosk/<name>/} (e.g.
+ * {@code vosk/hi}, {@code vosk/en-in}), or are side-loaded straight into
+ * {@code files/vosk/<name>/}. Kaldi opens model files by path, so bundled
+ * models are unpacked once per app version. The asset directory is stored
+ * uncompressed ({@code noCompress} in {@code build.gradle}), which lets the
+ * unpack be a kernel-side channel transfer from the APK instead of an
+ * inflate-and-copy through the Java heap.
+ *
+ * <p>Loading a model takes a second or two, so {@link #preload} starts it
+ * while the phone is still ringing; the loaded model is shared by every
+ * later call in the process.
+ */
+final class OfflineAsrModels {
+
+    private static final String TAG = "OfflineAsrModels";
+    private static final String ASSET_ROOT = "vosk";
+    private static final String STAMP_FILE = ".installed";   // holds the APK's lastUpdateTime
+
+    private OfflineAsrModels() {}
+
+    /** Model directory name for an app language code. */
+    static String modelName(String language) {
+        return "en".equals(language) ? "en-in" : language;
+    }
+
+    /** Where the model for {@code language} lives once installed. */
+    static File modelDir(Context ctx, String language) {
+        return new File(new File(ctx.getFilesDir(), ASSET_ROOT), modelName(language));
+    }
+
+    /** A model is installed or bundled for {@code language}. Cheap; main thread is fine. */
+    static boolean isAvailable(Context ctx, String language) {
+        if (OfflineAsr.isModelDir(modelDir(ctx, language))) return true;
+        try {
+            String[] entries = ctx.getAssets().list(ASSET_ROOT + "/" + modelName(language));
+            return entries != null && entries.length > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Install if needed, then load (or reuse) the model. Blocking — not on the main thread. */
+    static Model load(Context ctx, String language) throws IOException {
+        File dir = modelDir(ctx, language);
+        if (!OfflineAsr.isLoaded(dir)) install(ctx.getApplicationContext(), modelName(language), dir);
+        long start = System.nanoTime();
+        Model model = OfflineAsr.loadModel(dir);
+        Log.i(TAG, "Model " + modelName(language) + " ready in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return model;
+    }
+
+    /** Start loading in the background so a later {@link #load} returns at once. */
+    static void preload(Context ctx, String language) {
+        if (!isAvailable(ctx, language) || OfflineAsr.isLoaded(modelDir(ctx, language))) return;
+        final Context app = ctx.getApplicationContext();
+        Thread t = new Thread(() -> {
+            try {
+                load(app, language);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Model preload failed for " + language, e);
+            }
+        }, "OfflineAsrPreload");
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    /** Unpack the bundled model unless this app version already did. */
+    private static synchronized void install(Context ctx, String name, File dir) throws IOException {
+        String stamp = installStamp(ctx);
+        File stampFile = new File(dir, STAMP_FILE);
+        if (stampFile.isFile() && stamp.equals(readStamp(stampFile))) return;
+        String assetDir = ASSET_ROOT + "/" + name;
+        String[] entries = ctx.getAssets().list(assetDir);
+        if (entries == null || entries.length == 0) {
+            // Side-loaded models have no stamp and are used as they are
+            if (OfflineAsr.isModelDir(dir)) return;
+            throw new FileNotFoundException("No model for " + name);
+        }
+        long start = System.nanoTime();
+        stampFile.delete();
+        long bytes = copyAssetTree(ctx.getAssets(), assetDir, dir);
+        try (OutputStream out = new FileOutputStream(stampFile)) {
+            out.write(stamp.getBytes(StandardCharsets.UTF_8));
+        }
+        Log.i(TAG, "Unpacked " + name + ": " + bytes / 1024 + " KiB in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static long copyAssetTree(AssetManager assets, String path, File target) throws IOException {
+        String[] children = assets.list(path);
+        if (children != null && children.length > 0) {
+            if (!target.isDirectory() && !target.mkdirs()) throw new IOException("Cannot create " + target);
+            long bytes = 0;
+            for (String child : children) {
+                bytes += copyAssetTree(assets, path + "/" + child, new File(target, child));
+            }
+            return bytes;
+        }
+        try (AssetFileDescriptor fd = assets.openFd(path);
+             FileChannel in = new FileInputStream(fd.getFileDescriptor()).getChannel();
+             FileChannel out = new FileOutputStream(target).getChannel()) {
+            // Uncompressed asset: a byte range of the APK, copied without touching the heap
+            long offset = fd.getStartOffset(), length = fd.getLength(), done = 0;
+            while (done < length) done += in.transferTo(offset + done, length - done, out);
+            return length;
+        } catch (FileNotFoundException compressed) {
+            // Built without noCompress: openFd refuses, fall back to streaming
+            try (InputStream in = assets.open(path); OutputStream out = new FileOutputStream(target)) {
+                byte[] buf = new byte[64 * 1024];
+                long bytes = 0;
+                for (int n; (n = in.read(buf)) > 0; bytes += n) out.write(buf, 0, n);
+                return bytes;
+            }
+        }
+    }
+
+    private static String installStamp(Context ctx) {
+        try {
+            return String.valueOf(ctx.getPackageManager()
+                    .getPackageInfo(ctx.getPackageName(), 0).lastUpdateTime);
+        } catch (PackageManager.NameNotFoundException e) {
+            return "0";
+        }
+    }
+
+    private static String readStamp(File f) {
+        try (InputStream in = new FileInputStream(f)) {
+            return ScamPatternEngine.readAll(in).trim();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
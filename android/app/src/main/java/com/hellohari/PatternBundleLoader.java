@@ -0,0 +1,104 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Android side of {@link ScamPatternEngine}: finds the bundle to run and
+ * holds the process-wide engine.
+ *
+ * <p>Loading strategy:
+ * <ol>
+ *   <li>Read {@code assets/patterns.json} (bundled with the APK).</li>
+ *   <li>If {@link PatternBundleUpdater} has stored a newer bundle in app files
+ *       ({@code files/patterns.json}), use that instead.</li>
+ * </ol>
+ *
+ * <p>OTA updates compile a new engine and swap it in with
+ * {@link #install(ScamPatternEngine)}; sessions keep the engine they were
+ * created with.
+ */
+public final class PatternBundleLoader {
+
+    private static final String TAG = "PatternBundleLoader";
+    private static final String ASSET_FILE = "patterns.json";
+    static final String UPDATED_FILE = "patterns.json";   // in getFilesDir()
+
+    private static volatile ScamPatternEngine sInstance;
+
+    private PatternBundleLoader() {}
+
+    /** Lazily loads the bundle on first use. Thread-safe. */
+    public static ScamPatternEngine getInstance(Context ctx) throws IOException, JSONException {
+        ScamPatternEngine local = sInstance;
+        if (local == null) {
+            synchronized (PatternBundleLoader.class) {
+                local = sInstance;
+                if (local == null) {
+                    local = ScamPatternEngine.fromJson(readBundleSource(ctx.getApplicationContext()));
+                    Log.i(TAG, "Loaded schema=" + local.getSchemaVersion()
+                            + " phrases=" + local.getPatternCount()
+                            + " generated=" + local.getGeneratedAt());
+                    sInstance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * The engine currently installed, or {@code null} if none has loaded yet.
+     * Long-lived holders should re-read this rather than caching an instance,
+     * so OTA updates take effect.
+     */
+    public static ScamPatternEngine current() {
+        return sInstance;
+    }
+
+    /** Atomically replace the process-wide engine (OTA hot swap). */
+    static void install(ScamPatternEngine engine) {
+        ScamPatternEngine old;
+        synchronized (PatternBundleLoader.class) {
+            old = sInstance;
+            sInstance = engine;
+        }
+        if (old != null) PatternTelemetry.retire(old);
+        Log.i(TAG, "Installed bundle generated=" + engine.getGeneratedAt()
+                + " phrases=" + engine.getPatternCount());
+    }
+
+    /**
+     * Raw JSON of the bundle to run: the OTA copy in app files when it is
+     * usable and not older than the APK asset, otherwise the asset. A stale
+     * or unreadable OTA copy is deleted.
+     */
+    static JSONObject readBundleSource(Context ctx) throws IOException, JSONException {
+        JSONObject asset;
+        try (InputStream is = ctx.getAssets().open(ASSET_FILE)) {
+            asset = new JSONObject(ScamPatternEngine.readAll(is));
+        }
+        File updated = new File(ctx.getFilesDir(), UPDATED_FILE);
+        if (!updated.exists()) return asset;
+        try (InputStream is = new FileInputStream(updated)) {
+            JSONObject ota = new JSONObject(ScamPatternEngine.readAll(is));
+            if (ota.optInt("schema_version", 1) <= ScamPatternEngine.SUPPORTED_SCHEMA_VERSION
+                    && ota.optString("generated_at", "")
+                        .compareTo(asset.optString("generated_at", "")) >= 0) {
+                return ota;
+            }
+            Log.i(TAG, "OTA bundle older than APK asset — discarding");
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Unreadable OTA bundle — discarding", e);
+        }
+        if (!updated.delete()) Log.w(TAG, "Could not delete " + updated);
+        return asset;
+    }
+}
@@ -0,0 +1,295 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Fetches newer {@code patterns.json} bundles from the backend and hot-swaps
+ * the {@link ScamPatternEngine}.
+ *
+ * <p>Protocol — {@code GET <server>/api/patterns.json?schema_version=N&since=<generated_at>}:
+ * <ul>
+ *   <li>{@code 204}/{@code 304}: already current.</li>
+ *   <li>{@code 200}: {@code {"payload": "<json text>", "signature": "<base64>"}},
+ *       where the signature is SHA256withECDSA over the UTF-8 payload bytes.
+ *       The payload carries {@code schema_version}, {@code generated_at} and
+ *       either a full {@code bundle} or a {@code patch} (JSON merge patch,
+ *       RFC 7386) against {@code base_generated_at}.</li>
+ * </ul>
+ *
+ * <p>Bundles are only accepted if the signature verifies against
+ * {@code assets/patterns_signing_key.pub} (base64 X.509 EC key; without it
+ * updates are disabled), the schema is supported, and {@code generated_at}
+ * is newer than the running bundle. A delta whose base doesn't match the
+ * running bundle triggers one full fetch instead.
+ *
+ * <p>The new bundle is compiled before anything is written; then it is stored
+ * via temp file + rename and the engine reference is swapped. Sessions that
+ * are already running keep their old engine.
+ */
+public final class PatternBundleUpdater {
+
+    private static final String TAG = "PatternUpdater";
+    private static final String ENDPOINT = "/api/patterns.json";
+    private static final String KEY_ASSET = "patterns_signing_key.pub";
+    static final String SIGNATURE_ALGORITHM = "SHA256withECDSA";
+    private static final String PREFS_NAME = "hello_hari_prefs";
+    private static final String PREF_LAST_CHECK = "patterns_last_check";
+    private static final long MIN_CHECK_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+
+    private static final OkHttpClient httpClient = new OkHttpClient.Builder()
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(20, TimeUnit.SECONDS)
+            .build();
+
+    private static final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private PatternBundleUpdater() {}
+
+    /**
+     * Check for a newer bundle unless one was checked recently. Returns
+     * immediately; the fetch runs on OkHttp's dispatcher and the apply on
+     * {@link AppExecutors#io()}. Only a completed check (installed, or
+     * nothing newer) starts the interval — a failed one is retried next time.
+     * Without a signing key in assets updates are disabled and nothing is
+     * fetched.
+     */
+    public static void checkAsync(Context ctx, String serverUrl) {
+        checkAsync(ctx, serverUrl, false);
+    }
+
+    public static void checkAsync(Context ctx, String serverUrl, boolean force) {
+        if (serverUrl == null || serverUrl.trim().isEmpty()) return;
+        final Context app = ctx.getApplicationContext();
+        if (!hasSigningKey(app)) return;
+        SharedPreferences prefs = app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        if (!force && now - prefs.getLong(PREF_LAST_CHECK, 0) < MIN_CHECK_INTERVAL_MS) return;
+        if (!inFlight.compareAndSet(false, true)) return;
+
+        ScamPatternEngine running = PatternBundleLoader.current();
+        fetch(app, serverUrl.trim(), running != null ? running.getGeneratedAt() : null, true);
+    }
+
+    private static void fetch(Context app, String serverUrl, String since, boolean allowRetry) {
+        HttpUrl base = HttpUrl.parse(serverUrl.replaceFirst("^ws", "http") + ENDPOINT);
+        if (base == null) {
+            Log.w(TAG, "Invalid server URL: " + serverUrl);
+            finish(app, false);
+            return;
+        }
+        HttpUrl.Builder url = base.newBuilder()
+                .addQueryParameter("schema_version", String.valueOf(ScamPatternEngine.SUPPORTED_SCHEMA_VERSION));
+        if (since != null && !since.isEmpty()) url.addQueryParameter("since", since);
+
+        Request request = new Request.Builder().url(url.build()).build();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "Bundle check failed: " + e.getMessage());
+                finish(app, false);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (response.code() == 204 || response.code() == 304) {
+                        Log.i(TAG, "Pattern bundle is current");
+                        finish(app, true);
+                        return;
+                    }
+                    if (!response.isSuccessful() || body == null) {
+                        Log.w(TAG, "Bundle check HTTP " + response.code());
+                        finish(app, false);
+                        return;
+                    }
+                    final String raw = body.string();
+                    AppExecutors.io().execute(() -> applyAndInstall(app, serverUrl, raw, allowRetry));
+                } catch (IOException e) {
+                    Log.w(TAG, "Bundle download failed", e);
+                    finish(app, false);
+                }
+            }
+        });
+    }
+
+    private static void applyAndInstall(Context app, String serverUrl, String raw, boolean allowRetry) {
+        try {
+            JSONObject bundle = verifyAndMerge(app, raw);
+            if (bundle == null) {
+                finish(app, true);   // nothing newer for this app
+                return;
+            }
+            // Compile first — a bundle the engine can't parse is never stored
+            ScamPatternEngine engine = ScamPatternEngine.fromJson(bundle);
+            writeAtomically(new File(app.getFilesDir(), PatternBundleLoader.UPDATED_FILE),
+                    bundle.toString().getBytes(StandardCharsets.UTF_8));
+            PatternBundleLoader.install(engine);
+            finish(app, true);
+        } catch (StaleBaseException e) {
+            if (allowRetry) {
+                Log.i(TAG, "Delta base " + e.getMessage() + " doesn't match — fetching full bundle");
+                fetch(app, serverUrl, null, false);
+            } else {
+                finish(app, false);
+            }
+        } catch (IOException | JSONException | GeneralSecurityException e) {
+            Log.e(TAG, "Rejected pattern bundle", e);
+            finish(app, false);
+        }
+    }
+
+    /** End the check in flight; {@code checked} if it got a definitive answer. */
+    private static void finish(Context app, boolean checked) {
+        if (checked) {
+            app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                    .putLong(PREF_LAST_CHECK, System.currentTimeMillis()).apply();
+        }
+        inFlight.set(false);
+    }
+
+    /**
+     * Verify the envelope and produce the complete new bundle, or {@code null}
+     * if it is not applicable (unsupported schema, not newer).
+     */
+    static JSONObject verifyAndMerge(Context app, String raw)
+            throws IOException, JSONException, GeneralSecurityException, StaleBaseException {
+        JSONObject envelope = new JSONObject(raw);
+        String payloadText = envelope.getString("payload");
+        byte[] signature = Base64.decode(envelope.getString("signature"), Base64.DEFAULT);
+        if (!verify(loadSigningKey(app), payloadText.getBytes(StandardCharsets.UTF_8), signature)) {
+            throw new GeneralSecurityException("Bad bundle signature");
+        }
+
+        JSONObject payload = new JSONObject(payloadText);
+        int schema = payload.getInt("schema_version");
+        String generatedAt = payload.getString("generated_at");
+        if (schema > ScamPatternEngine.SUPPORTED_SCHEMA_VERSION) {
+            Log.i(TAG, "Bundle schema " + schema + " needs a newer app — skipping");
+            return null;
+        }
+
+        JSONObject current = PatternBundleLoader.readBundleSource(app);
+        String currentGeneratedAt = current.optString("generated_at", "");
+        // ISO-8601 UTC timestamps from the exporter order lexicographically
+        if (generatedAt.compareTo(currentGeneratedAt) <= 0) {
+            Log.i(TAG, "Bundle " + generatedAt + " is not newer than " + currentGeneratedAt);
+            return null;
+        }
+
+        JSONObject bundle;
+        if (payload.has("patch")) {
+            String baseAt = payload.getString("base_generated_at");
+            if (!baseAt.equals(currentGeneratedAt)) throw new StaleBaseException(baseAt);
+            bundle = mergePatch(current, payload.getJSONObject("patch"));
+        } else {
+            bundle = payload.getJSONObject("bundle");
+        }
+        bundle.put("schema_version", schema);
+        bundle.put("generated_at", generatedAt);
+        return bundle;
+    }
+
+    /** RFC 7386: objects merge recursively, {@code null} deletes, anything else replaces. */
+    static JSONObject mergePatch(JSONObject target, JSONObject patch) throws JSONException {
+        Iterator<String> keys = patch.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = patch.get(key);
+            if (value == JSONObject.NULL) {
+                target.remove(key);
+            } else if (value instanceof JSONObject && target.optJSONObject(key) != null) {
+                mergePatch(target.getJSONObject(key), (JSONObject) value);
+            } else {
+                target.put(key, value);
+            }
+        }
+        return target;
+    }
+
+    private static volatile Boolean signingKeyPresent;
+
+    /** Whether a signing key ships in assets; logged once when it doesn't. */
+    static boolean hasSigningKey(Context app) {
+        Boolean present = signingKeyPresent;
+        if (present == null) {
+            try {
+                app.getAssets().open(KEY_ASSET).close();
+                present = true;
+            } catch (IOException e) {
+                present = false;
+                Log.i(TAG, "No " + KEY_ASSET + " in assets — OTA updates disabled");
+            }
+            signingKeyPresent = present;
+        }
+        return present;
+    }
+
+    /** Key the pattern bundle payloads are verified against. */
+    static PublicKey loadSigningKey(Context app) throws IOException, GeneralSecurityException {
+        String pem;
+        try (InputStream is = app.getAssets().open(KEY_ASSET)) {
+            pem = ScamPatternEngine.readAll(is);
+        } catch (IOException e) {
+            throw new IOException("No " + KEY_ASSET + " in assets — OTA updates disabled", e);
+        }
+        String b64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        byte[] der = Base64.decode(b64, Base64.DEFAULT);
+        return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(der));
+    }
+
+    static boolean verify(PublicKey key, byte[] data, byte[] signature) throws GeneralSecurityException {
+        Signature sig = Signature.getInstance(SIGNATURE_ALGORITHM);
+        sig.initVerify(key);
+        sig.update(data);
+        return sig.verify(signature);
+    }
+
+    private static void writeAtomically(File target, byte[] data) throws IOException {
+        File tmp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + target);
+        }
+    }
+
+    /** Delta was built against a different bundle than the one installed. */
+    static final class StaleBaseException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        StaleBaseException(String base) {
+            super(base);
+        }
+    }
+}
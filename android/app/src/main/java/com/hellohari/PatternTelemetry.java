@@ -0,0 +1,205 @@
+package com.hellohari;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Periodically persists {@link ScamPatternEngine} hit counters and, if a
+ * backend is configured, reports them so hot phrases can be reordered and
+ * dead ones pruned.
+ *
+ * <p>{@code files/pattern_hits.json} holds two maps of key → count:
+ * {@code total} (all time on this device) and {@code pending} (not yet
+ * reported). Only counts leave the device — never transcript text.
+ */
+public final class PatternTelemetry {
+
+    private static final String TAG = "PatternTelemetry";
+    private static final String FILE_NAME = "pattern_hits.json";
+    private static final String ENDPOINT = "/api/pattern_hits";
+    private static final long FLUSH_INTERVAL_MIN = 15;
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private static volatile Context appContext;
+    private static volatile String reportServer;
+    // Engines replaced by OTA, not yet drained — more than one swap can land between flushes
+    private static final ConcurrentLinkedQueue<ScamPatternEngine> retired = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean reporting = new AtomicBoolean();
+    private static OkHttpClient httpClient;
+
+    private PatternTelemetry() {}
+
+    /** Schedule periodic flushes. Idempotent. */
+    public static void start(Context ctx) {
+        synchronized (PatternTelemetry.class) {
+            if (appContext != null) return;
+            appContext = ctx.getApplicationContext();
+        }
+        AppExecutors.scheduler().scheduleWithFixedDelay(PatternTelemetry::flush,
+                FLUSH_INTERVAL_MIN, FLUSH_INTERVAL_MIN, TimeUnit.MINUTES);
+    }
+
+    /** Backend to report to on each flush; {@code null} or empty keeps counts local. */
+    public static void setReportServer(String serverUrl) {
+        reportServer = serverUrl != null && !serverUrl.trim().isEmpty() ? serverUrl.trim() : null;
+    }
+
+    /** An engine swapped out by an OTA update — drain it on the next flush. */
+    static void retire(ScamPatternEngine engine) {
+        retired.add(engine);
+    }
+
+    /** Drain the live counters now and merge them into the file on the io thread. */
+    public static void flush() {
+        Context ctx = appContext;
+        if (ctx == null) return;
+        ScamPatternEngine engine = PatternBundleLoader.current();
+        final Map<String, Long> counts = engine != null ? engine.drainHitCounts() : new HashMap<>();
+        for (ScamPatternEngine old; (old = retired.poll()) != null; ) {
+            for (Map.Entry<String, Long> e : old.drainHitCounts().entrySet()) {
+                counts.merge(e.getKey(), e.getValue(), Long::sum);
+            }
+        }
+        AppExecutors.io().execute(() -> {
+            try {
+                JSONObject state = read(ctx);
+                if (!counts.isEmpty()) {
+                    add(state.getJSONObject("total"), counts);
+                    add(state.getJSONObject("pending"), counts);
+                    write(ctx, state);
+                }
+                String server = reportServer;
+                if (server != null && state.getJSONObject("pending").length() > 0) {
+                    report(ctx, server, state.getJSONObject("pending"));
+                }
+            } catch (IOException | JSONException e) {
+                Log.w(TAG, "Could not persist hit counts", e);
+            }
+        });
+    }
+
+    /** All-time counts on this device, for diagnostics. Call off the main thread. */
+    public static JSONObject readTotals(Context ctx) {
+        try {
+            return read(ctx.getApplicationContext()).getJSONObject("total");
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Could not read hit counts", e);
+            return new JSONObject();
+        }
+    }
+
+    private static void report(Context ctx, String server, JSONObject pending) throws JSONException {
+        ScamPatternEngine engine = PatternBundleLoader.current();
+        JSONObject body = new JSONObject();
+        body.put("generated_at", engine != null ? engine.getGeneratedAt() : "");
+        body.put("counts", new JSONObject(pending.toString()));
+        Request request = new Request.Builder()
+                .url(server.replaceFirst("^ws", "http") + ENDPOINT)
+                .post(RequestBody.create(body.toString(), JSON))
+                .build();
+        if (!reporting.compareAndSet(false, true)) return;
+        client().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "Hit report failed: " + e.getMessage());
+                reporting.set(false);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                boolean ok = response.isSuccessful();
+                response.close();
+                if (!ok) {
+                    Log.w(TAG, "Hit report HTTP " + response.code());
+                    reporting.set(false);
+                    return;
+                }
+                // Subtract what was sent; counts added meanwhile stay pending
+                AppExecutors.io().execute(() -> {
+                    try {
+                        JSONObject state = read(ctx);
+                        JSONObject current = state.getJSONObject("pending");
+                        Iterator<String> keys = pending.keys();
+                        while (keys.hasNext()) {
+                            String k = keys.next();
+                            long left = current.optLong(k) - pending.getLong(k);
+                            if (left > 0) current.put(k, left); else current.remove(k);
+                        }
+                        write(ctx, state);
+                    } catch (IOException | JSONException e) {
+                        Log.w(TAG, "Could not clear reported counts", e);
+                    } finally {
+                        reporting.set(false);
+                    }
+                });
+            }
+        });
+    }
+
+    private static synchronized OkHttpClient client() {
+        if (httpClient == null) {
+            httpClient = new OkHttpClient.Builder()
+                    .connectTimeout(10, TimeUnit.SECONDS)
+                    .readTimeout(20, TimeUnit.SECONDS)
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private static void add(JSONObject into, Map<String, Long> counts) throws JSONException {
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            into.put(e.getKey(), into.optLong(e.getKey()) + e.getValue());
+        }
+    }
+
+    private static JSONObject read(Context ctx) throws IOException, JSONException {
+        File file = new File(ctx.getFilesDir(), FILE_NAME);
+        JSONObject state = new JSONObject();
+        if (file.exists()) {
+            try (InputStream is = new FileInputStream(file)) {
+                state = new JSONObject(ScamPatternEngine.readAll(is));
+            } catch (JSONException e) {
+                Log.w(TAG, "Corrupt " + FILE_NAME + " — starting over", e);
+            }
+        }
+        if (!state.has("total")) state.put("total", new JSONObject());
+        if (!state.has("pending")) state.put("pending", new JSONObject());
+        return state;
+    }
+
+    private static void write(Context ctx, JSONObject state) throws IOException {
+        File target = new File(ctx.getFilesDir(), FILE_NAME);
+        File tmp = new File(ctx.getFilesDir(), FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(state.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + target);
+        }
+    }
+}
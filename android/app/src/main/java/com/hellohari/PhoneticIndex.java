@@ -0,0 +1,264 @@
+package com.hellohari;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Phonetic Layer 1 tier for romanized Hindi/Telugu. ASR spells the same
+ * speech many ways ("bol raha hun" / "bol rha hoon", "paisa" / "pesa"), so
+ * both phrase tokens and transcript tokens are reduced to a short phonetic
+ * code and phrases are matched as code sequences.
+ *
+ * <p>The code is a consonant skeleton tuned for Indic romanization:
+ * <ul>
+ *   <li>vowels and {@code y} are dropped except at the start of a token
+ *       (a leading vowel becomes one symbol): raha = rha, paisa = pesa;</li>
+ *   <li>a non-initial {@code h} is aspiration or lengthening and is dropped:
+ *       bh = b, kh = k, th = t, sh = s; but {@code ch} is its own symbol and
+ *       {@code ph} = f;</li>
+ *   <li>z = j, w = v, q = k, c = k, x = ks; cc/ck = k;</li>
+ *   <li>adjacent repeats collapse (pakka = paka, dabbulu = dabulu);</li>
+ *   <li>a final {@code n} after a vowel is nasalization (hoon = hu,
+ *       main = mai).</li>
+ * </ul>
+ * Codes pack up to {@link #MAX_SYMBOLS} 5-bit symbols into a long. Phrases
+ * are indexed by the code of their first token (sorted array, binary
+ * search), so a transcript costs one tokenize-and-encode pass plus a lookup
+ * per token.
+ *
+ * <p>Immutable after construction; per-call state lives in {@link Hits}.
+ */
+final class PhoneticIndex {
+
+    static final int MAX_SYMBOLS = 12;
+
+    private static final int A = 1, B = 2, CH = 3, D = 4, F = 5, G = 6, H = 7, J = 8, K = 9,
+            L = 10, M = 11, N = 12, P = 13, R = 14, S = 15, T = 16, V = 17, Y = 18;
+
+    private final long[] firstCodes;     // sorted
+    private final int[] entryPhrase;     // parallel to firstCodes
+    // Phrase p's word codes are codes[codeStart[p], codeStart[p + 1]); empty if not indexed
+    private final int[] codeStart;
+    private final long[] codes;
+    final double scoreFactor;
+
+    /**
+     * @param phrases    lowercased phrases by id
+     * @param indexed    which phrase ids take part
+     * @param minTokens  fewest letter tokens a phrase needs (single words are too loose)
+     */
+    PhoneticIndex(StringArena phrases, boolean[] indexed, int minTokens, double scoreFactor) {
+        this.scoreFactor = scoreFactor;
+        codeStart = new int[phrases.size() + 1];
+        TokenBuffer all = new TokenBuffer();
+        List<long[]> entries = new ArrayList<>();
+        TokenBuffer tokens = new TokenBuffer();
+        for (int p = 0; p < phrases.size(); p++) {
+            codeStart[p + 1] = all.size;
+            if (!indexed[p]) continue;
+            String s = phrases.get(p);
+            if (!isRoman(s)) continue;
+            tokenize(s, tokens);
+            if (tokens.size < minTokens) continue;
+            for (int i = 0; i < tokens.size; i++) all.add(tokens.codes[i], 0, 0);
+            codeStart[p + 1] = all.size;
+            entries.add(new long[] {tokens.codes[0], p});
+        }
+        codes = Arrays.copyOf(all.codes, all.size);
+        entries.sort((x, y) -> x[0] != y[0] ? Long.compare(x[0], y[0]) : Long.compare(x[1], y[1]));
+        firstCodes = new long[entries.size()];
+        entryPhrase = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            firstCodes[i] = entries.get(i)[0];
+            entryPhrase[i] = (int) entries.get(i)[1];
+        }
+    }
+
+    int size() {
+        return firstCodes.length;
+    }
+
+    /** Phrases whose code sequence occurs in {@code text} (already lowercased). */
+    void scan(String text, Hits out) {
+        out.reset();
+        TokenBuffer tokens = out.tokens;
+        tokenize(text, tokens);
+        for (int i = 0; i < tokens.size; i++) {
+            int e = lowerBound(tokens.codes[i]);
+            for (; e < firstCodes.length && firstCodes[e] == tokens.codes[i]; e++) {
+                int p = entryPhrase[e];
+                if (out.has(p)) continue;
+                int from = codeStart[p], len = codeStart[p + 1] - from;
+                if (i + len > tokens.size) continue;
+                int j = 1;
+                while (j < len && codes[from + j] == tokens.codes[i + j]) j++;
+                if (j == len) out.add(p, tokens.start[i], tokens.end[i + len - 1]);
+            }
+        }
+    }
+
+    /** Estimated heap bytes, excluding the shared phrase arena; see {@link HeapSize}. */
+    long footprint() {
+        return HeapSize.OBJECT + HeapSize.of(firstCodes) + HeapSize.of(entryPhrase)
+                + HeapSize.of(codeStart) + HeapSize.of(codes);
+    }
+
+    private int lowerBound(long code) {
+        int lo = 0, hi = firstCodes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstCodes[mid] < code) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Runs of ASCII letters, each with its code and offsets. */
+    static void tokenize(String s, TokenBuffer out) {
+        out.size = 0;
+        int n = s.length();
+        for (int i = 0; i < n; ) {
+            if (!isLetter(s.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && isLetter(s.charAt(i))) i++;
+            out.add(encode(s, start, i), start, i);
+        }
+    }
+
+    /** Phonetic code of {@code s[from, to)}, all lowercase ASCII letters. */
+    static long encode(CharSequence s, int from, int to) {
+        long code = 0;
+        int symbols = 0;
+        int last = 0;                  // previous symbol, 0 after a vowel
+        boolean afterVowel = false;
+        for (int i = from; i < to && symbols < MAX_SYMBOLS; i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < to ? s.charAt(i + 1) : 0;
+            boolean initial = i == from;
+            int sym;
+            switch (c) {
+                case 'a': case 'e': case 'i': case 'o': case 'u': case 'y':
+                    if (!initial) {
+                        last = 0;
+                        afterVowel = true;
+                        continue;
+                    }
+                    sym = c == 'y' ? Y : A;
+                    break;
+                case 'h':
+                    if (!initial) continue;
+                    sym = H;
+                    break;
+                case 'c':
+                    if (next == 'c' || next == 'k') continue;
+                    if (next == 'h') {
+                        sym = CH;
+                        i++;
+                    } else {
+                        sym = K;
+                    }
+                    break;
+                case 'p':
+                    if (next == 'h') {
+                        sym = F;
+                        i++;
+                    } else {
+                        sym = P;
+                    }
+                    break;
+                case 'n':
+                    if (i + 1 == to && afterVowel && symbols > 0 && last == 0) continue;
+                    sym = N;
+                    break;
+                case 'x':
+                    if (last != K) {
+                        code = code << 5 | K;
+                        symbols++;
+                    }
+                    sym = S;
+                    break;
+                case 'b': sym = B; break;
+                case 'd': sym = D; break;
+                case 'f': sym = F; break;
+                case 'g': sym = G; break;
+                case 'j': case 'z': sym = J; break;
+                case 'k': case 'q': sym = K; break;
+                case 'l': sym = L; break;
+                case 'm': sym = M; break;
+                case 'r': sym = R; break;
+                case 's': sym = S; break;
+                case 't': sym = T; break;
+                case 'v': case 'w': sym = V; break;
+                default: continue;
+            }
+            afterVowel = false;
+            if (sym == last || symbols == MAX_SYMBOLS) continue;
+            code = code << 5 | sym;
+            symbols++;
+            last = sym;
+        }
+        return code;
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    /** Only Latin letters, digits, spaces and punctuation — no Indic script. */
+    private static boolean isRoman(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    /** Growable token arrays, reused across calls. */
+    static final class TokenBuffer {
+        long[] codes = new long[64];
+        int[] start = new int[64];
+        int[] end = new int[64];
+        int size;
+
+        void add(long code, int s, int e) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+                start = Arrays.copyOf(start, size * 2);
+                end = Arrays.copyOf(end, size * 2);
+            }
+            codes[size] = code;
+            start[size] = s;
+            end[size++] = e;
+        }
+    }
+
+    /** Per-call results, reusable; only ids with {@link #has} set are valid. */
+    static final class Hits {
+        private final long[] found;
+        final int[] start, end;
+        final TokenBuffer tokens = new TokenBuffer();
+
+        Hits(int phraseCount) {
+            found = new long[(phraseCount + 63) >>> 6];
+            start = new int[phraseCount];
+            end = new int[phraseCount];
+        }
+
+        boolean has(int p) {
+            return (found[p >>> 6] & (1L << p)) != 0;
+        }
+
+        void add(int p, int s, int e) {
+            found[p >>> 6] |= 1L << p;
+            start[p] = s;
+            end[p] = e;
+        }
+
+        void reset() {
+            Arrays.fill(found, 0);
+        }
+    }
+}
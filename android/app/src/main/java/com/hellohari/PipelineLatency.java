@@ -0,0 +1,122 @@
+package com.hellohari;
+
+import java.util.Locale;
+
+/**
+ * Process-wide latency trace of the live pipeline, from a frame leaving
+ * {@code AudioRecord} to the shield changing on screen.
+ *
+ * <p>Call sites only drop timestamps ({@link System#nanoTime()}); each
+ * stage feeds a {@link LatencyHistogram}:
+ * <ul>
+ *   <li>{@link Stage#CAPTURE_TO_SEND} — frame read → handed to the WebSocket</li>
+ *   <li>{@link Stage#CAPTURE_BUFFERING} — per read, the frame's length plus
+ *       the audio still queued on the WebSocket ahead of it; the current
+ *       frame size is in {@link #report()} too</li>
+ *   <li>{@link Stage#SEGMENT_TO_TRANSCRIPT} — first frame after the previous
+ *       transcript → next transcript received (includes the utterance itself)</li>
+ *   <li>{@link Stage#LOCAL_ANALYSIS} — one {@code ScamPatternEngine} pass</li>
+ *   <li>{@link Stage#TRANSCRIPT_TO_RENDER} — transcript received → UI frame applied</li>
+ *   <li>{@link Stage#END_TO_END} — segment start → UI frame applied</li>
+ * </ul>
+ * There is one live pipeline at a time, so the in-flight marks are plain
+ * volatiles rather than per-chunk objects.
+ */
+public final class PipelineLatency {
+
+    public enum Stage {
+        CAPTURE_TO_SEND("capture → ws send"),
+        CAPTURE_BUFFERING("frame + send queue"),
+        SEGMENT_TO_TRANSCRIPT("segment → transcript"),
+        LOCAL_ANALYSIS("local analysis"),
+        TRANSCRIPT_TO_RENDER("transcript → render"),
+        END_TO_END("segment → shield (e2e)");
+
+        final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    static {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+    }
+
+    private static volatile long segmentStartNs;     // 0 = no frame since last transcript
+    private static volatile long receivedNs;         // last transcript not yet rendered
+    private static volatile long receivedSegmentNs;
+    private static volatile int captureFrameSamples;  // 0 = not capturing yet
+
+    private PipelineLatency() {}
+
+    public static LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public static void record(Stage stage, long startNs, long endNs) {
+        histograms[stage.ordinal()].recordNanos(endNs - startNs);
+    }
+
+    /** Capture thread, right after {@code AudioRecord.read} returned audio. */
+    public static void onFrameCaptured(long nowNs) {
+        if (segmentStartNs == 0) segmentStartNs = nowNs;
+    }
+
+    /**
+     * Capture thread, after each read: the frame size now in use and the
+     * read-to-send delay it implies ({@link CaptureFrameSizer}).
+     */
+    public static void onCaptureFrame(int frameSamples, int effectiveLatencyMs) {
+        captureFrameSamples = frameSamples;
+        histograms[Stage.CAPTURE_BUFFERING.ordinal()].recordMicros(effectiveLatencyMs * 1000L);
+    }
+
+    /** A final transcript arrived (backend socket or Google recognizer). */
+    public static void onTranscriptReceived(long nowNs) {
+        long segment = segmentStartNs;
+        segmentStartNs = 0;
+        if (segment != 0) record(Stage.SEGMENT_TO_TRANSCRIPT, segment, nowNs);
+        receivedSegmentNs = segment;
+        receivedNs = nowNs;
+    }
+
+    /** Main thread, once the frame showing the latest result has been applied. */
+    public static void onRendered(long nowNs) {
+        long received = receivedNs;
+        if (received == 0) return;
+        receivedNs = 0;
+        record(Stage.TRANSCRIPT_TO_RENDER, received, nowNs);
+        long segment = receivedSegmentNs;
+        if (segment != 0) record(Stage.END_TO_END, segment, nowNs);
+    }
+
+    public static void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+        segmentStartNs = 0;
+        receivedNs = 0;
+        captureFrameSamples = 0;
+    }
+
+    /** Plain-text table: count, mean, p50/p90/p99/max in milliseconds. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-24s %7s %8s %8s %8s %8s %8s%n",
+                "stage", "n", "mean", "p50", "p90", "p99", "max"));
+        for (Stage s : Stage.values()) {
+            LatencyHistogram h = histogram(s);
+            sb.append(String.format(Locale.ROOT, "%-24s %7d %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    s.label, h.getCount(), h.getMeanMicros() / 1000.0,
+                    h.getPercentileMicros(50) / 1000.0, h.getPercentileMicros(90) / 1000.0,
+                    h.getPercentileMicros(99) / 1000.0, h.getMaxMicros() / 1000.0));
+        }
+        sb.append("(ms)\n");
+        int frame = captureFrameSamples;
+        if (frame > 0) {
+            sb.append(String.format(Locale.ROOT, "capture frame: %d samples (%d ms)%n",
+                    frame, frame * 1000 / CaptureFrameSizer.SAMPLE_RATE));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,196 @@
+package com.hellohari;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming rational-ratio resampler for 16-bit mono PCM, e.g. 44.1 / 48 kHz
+ * recordings or 8 kHz telephony down or up to the 16 kHz the recognizers
+ * take.
+ *
+ * <p>Classic polyphase structure: with {@code L/M = outRate/inRate} in
+ * lowest terms, a Kaiser-windowed sinc low-pass is designed at
+ * {@code L × inRate} and split into {@code L} phases of {@link #taps()}
+ * coefficients each, so every output sample is one short dot product over
+ * the most recent input. Cut-off is {@link #ROLLOFF} of the lower Nyquist
+ * rate with {@link #ZERO_CROSSINGS} sinc lobes per side, about 80 dB of
+ * stop-band rejection.
+ *
+ * <p>Filter tables are computed once per rate pair and shared; an instance
+ * only holds its input history (a doubled ring, so the window is always
+ * one contiguous run) and the phase, and {@link #process} allocates
+ * nothing. Output lags input by {@link #delaySeconds()}; {@link #flush}
+ * drains the tail at end of stream.
+ *
+ * <p>Not thread-safe; one instance per stream.
+ */
+public final class PolyphaseResampler {
+
+    static final double ROLLOFF = 0.85;
+    static final int ZERO_CROSSINGS = 24;
+    /** Largest interpolation factor L accepted; the table grows as L × taps. */
+    static final int MAX_PHASES = 4096;
+    private static final double KAISER_BETA = 8.0;
+
+    private static final ConcurrentHashMap<Long, Filter> FILTERS = new ConcurrentHashMap<>();
+    private static final short[] SILENCE = new short[1];
+
+    private final int inRate, outRate;
+    private final Filter filter;
+    private final float[] history;   // input ring, each sample stored at i and i + taps
+    private int head;                // slot of the newest sample
+    private int phase;               // next output's offset past the newest input, in 1/L input samples
+
+    public PolyphaseResampler(int inRate, int outRate) {
+        if (inRate <= 0 || outRate <= 0) throw new IllegalArgumentException("rates must be > 0");
+        this.inRate = inRate;
+        this.outRate = outRate;
+        this.filter = FILTERS.computeIfAbsent((long) inRate << 32 | outRate, k -> new Filter(inRate, outRate));
+        this.history = new float[2 * filter.taps];
+    }
+
+    public int getInputRate()  { return inRate; }
+    public int getOutputRate() { return outRate; }
+
+    /** Coefficients per phase — the dot product length per output sample. */
+    public int taps() {
+        return filter.taps;
+    }
+
+    /** Most output {@link #process} can write for {@code inLen} input samples. */
+    public int maxOutput(int inLen) {
+        return (int) (((long) inLen * filter.up + filter.down - 1) / filter.down) + 1;
+    }
+
+    /** Group delay of the filter; output sample {@code k} shows the input at {@code k/outRate - delay}. */
+    public double delaySeconds() {
+        return filter.passthrough ? 0 : (filter.up * (double) filter.taps - 1) / 2 / ((double) filter.up * inRate);
+    }
+
+    /**
+     * Resample {@code in[inOff, inOff + inLen)} into {@code out} from
+     * {@code outOff}, which must have room for {@link #maxOutput}{@code (inLen)}.
+     *
+     * @return samples written
+     */
+    public int process(short[] in, int inOff, int inLen, short[] out, int outOff) {
+        if (filter.passthrough) {
+            System.arraycopy(in, inOff, out, outOff, inLen);
+            return inLen;
+        }
+        final float[] coefs = filter.coefs;
+        final float[] hist = history;
+        final int taps = filter.taps, up = filter.up, down = filter.down;
+        int h = head, p = phase, o = outOff;
+        for (int i = inOff, end = inOff + inLen; i < end; i++) {
+            if (++h == taps) h = 0;
+            hist[h] = hist[h + taps] = in[i];
+            // Window oldest → newest is hist[h + 1, h + taps]
+            for (; p < up; p += down) {
+                out[o++] = clamp(dot(coefs, p * taps, hist, h + 1, taps));
+            }
+            p -= up;
+        }
+        head = h;
+        phase = p;
+        return o - outOff;
+    }
+
+    /**
+     * End of stream: push silence through the filter so the last input
+     * samples come out. Writes at most {@link #maxOutput}{@code (taps())};
+     * the instance then starts over as if new.
+     */
+    public int flush(short[] out, int outOff) {
+        if (filter.passthrough) return 0;
+        int n = 0;
+        for (int i = 0; i < filter.taps; i++) {
+            n += process(SILENCE, 0, 1, out, outOff + n);
+        }
+        reset();
+        return n;
+    }
+
+    public void reset() {
+        Arrays.fill(history, 0);
+        head = 0;
+        phase = 0;
+    }
+
+    /** Four partial sums so the adds don't form one serial dependency chain. */
+    private static float dot(float[] a, int ai, float[] b, int bi, int n) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        for (int k = 0; k < n; k += 4) {
+            s0 += a[ai + k] * b[bi + k];
+            s1 += a[ai + k + 1] * b[bi + k + 1];
+            s2 += a[ai + k + 2] * b[bi + k + 2];
+            s3 += a[ai + k + 3] * b[bi + k + 3];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static short clamp(float v) {
+        int r = Math.round(v);
+        return (short) (r > Short.MAX_VALUE ? Short.MAX_VALUE : r < Short.MIN_VALUE ? Short.MIN_VALUE : r);
+    }
+
+    /** Immutable polyphase table for one rate pair. */
+    private static final class Filter {
+        final int up, down;      // L, M
+        final int taps;          // per phase, a multiple of 4
+        final float[] coefs;     // phase p is coefs[p * taps, (p + 1) * taps), oldest input first
+        final boolean passthrough;
+
+        Filter(int inRate, int outRate) {
+            int g = gcd(inRate, outRate);
+            up = outRate / g;
+            down = inRate / g;
+            if (up > MAX_PHASES) {
+                throw new IllegalArgumentException("no small rational ratio for " + inRate + " -> " + outRate + " Hz");
+            }
+            passthrough = up == down;
+            if (passthrough) {
+                taps = 0;
+                coefs = new float[0];
+                return;
+            }
+            // Cut-off in cycles per input sample, then enough input samples to span the lobes
+            double cutoff = ROLLOFF * 0.5 * Math.min(1.0, (double) up / down);
+            taps = ((int) Math.ceil(ZERO_CROSSINGS / cutoff) + 3) & ~3;
+            int length = up * taps;
+            double center = (length - 1) / 2.0;
+            double fc = cutoff / up;                 // per sample of the L-times upsampled stream
+            double norm = besselI0(KAISER_BETA);
+            coefs = new float[length];
+            for (int k = 0; k < length; k++) {
+                double x = k - center;
+                double sinc = x == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * x) / (Math.PI * x);
+                double r = x / center;
+                double w = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / norm;
+                // Gain L restores the level lost to zero-stuffing
+                double c = up * sinc * w;
+                int p = k % up, j = k / up;
+                coefs[p * taps + (taps - 1 - j)] = (float) c;
+            }
+        }
+
+        private static int gcd(int a, int b) {
+            while (b != 0) {
+                int t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+
+        /** Zeroth-order modified Bessel function of the first kind, by its power series. */
+        private static double besselI0(double x) {
+            double sum = 1, term = 1, q = x * x / 4;
+            for (int k = 1; k < 50 && term > 1e-12 * sum; k++) {
+                term *= q / ((double) k * k);
+                sum += term;
+            }
+            return sum;
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package com.hellohari;
 
-import android.content.Context;
-import android.util.Log;
-
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -16,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -23,6 +21,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * ScamPatternEngine — shared detection logic driven by {@code patterns.json}.
@@ -32,22 +36,47 @@ import java.util.Set;
  * bundle is generated by {@code scripts/export_patterns_json.py} so both
  * platforms produce identical scores.
  *
- * <p>Loading strategy:
- * <ol>
- *   <li>Read {@code assets/patterns.json} (bundled with the APK).</li>
- *   <li>(Future) optionally overlay a newer bundle fetched from the backend's
- *       {@code /api/patterns.json} endpoint and cached in app files.</li>
- * </ol>
+ * <p>An engine is an immutable compiled model, built by
+ * {@link #fromJson(JSONObject)} and safe to share between any number of
+ * threads; the per-call working buffers live in a thread-local scratch.
+ * This class is plain Java (org.json only) so the same model runs on a
+ * server or in batch jobs — {@link #analyzeAll(List)} fans out over
+ * fork-join. On the phone, {@link PatternBundleLoader} loads and hot-swaps
+ * the process-wide instance; a {@link Session} keeps the engine it was
+ * created with, so a call in progress is scored by one bundle throughout.
  *
  * <p>The engine is fully offline after load — no network calls are made during
  * {@link #analyze(String)}.
+ *
+ * <p>Every phrase, archetype and indicator hit in a committed analysis —
+ * {@link #analyze(String)}, batch, or a chunk committed to a {@link Session}
+ * — bumps a striped counter by id ({@link #drainHitCounts()}), so
+ * {@link PatternTelemetry} can tell which patterns actually fire in the
+ * field. Streaming partials and {@link #matchSpans(String)} are not counted.
+ *
+ * <p>Every substring hit also records its {@code [start, end)} offsets while
+ * matching, so callers can highlight the triggering words via
+ * {@link Result#getMatchSpans()} without searching the text again.
  */
 public final class ScamPatternEngine {
 
-    private static final String TAG = "ScamPatternEngine";
-    private static final String ASSET_FILE = "patterns.json";
+    /** Highest bundle schema this engine can parse; newer OTA bundles are ignored. */
+    static final int SUPPORTED_SCHEMA_VERSION = 1;
+
+    static final int[] NO_SPANS = new int[0];
+
+    /**
+     * Time bucket of a windowed {@link Session}: chunks committed within this
+     * of each other share one slot, so the ring holds {@code windowMs / 1 s}
+     * slots and only drops hits that have left the window.
+     */
+    static final long WINDOW_BUCKET_MS = 1000;
+
+    /** Texts per fork-join leaf in {@link #analyzeAll(List)}. */
+    private static final int BATCH_LEAF_SIZE = 16;
 
-    private static volatile ScamPatternEngine sInstance;
+    /** Reusable per-thread buffers for {@link #analyze(String)}. */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     // ---- Parsed bundle state (immutable after load) ----
 
@@ -62,32 +91,52 @@ public final class ScamPatternEngine {
     private final int scoreCtxDem;
     private final int scoreCtxThr;
     private final int stemMinLength;             // e.g. 4
+    /** Approximate Layer 1 tier; {@code null} unless the bundle enables it. */
+    private final FuzzyPhraseMatcher fuzzy;
+    /** Romanized-Indic sound-alike tier; {@code null} unless the bundle enables it. */
+    private final PhoneticIndex phonetic;
 
-    private final Map<String, Integer> indicatorBonuses;   // tag -> bonus
-    private final Map<String, String>  indicatorLabels;    // tag -> label
+    // By INDICATOR_TAGS index; the tag's terms are indicatorTerms
+    // [indicatorTermStart[i], indicatorTermStart[i + 1]) in bundle order
+    private final int[] indicatorBonus;
+    private final String[] indicatorLabel;
+    private final StringArena indicatorTerms;
+    private final int[] indicatorTermStart;
 
-    /** Ordered list of (id, label, patternMap). */
+    /** Ordered categories, each a contiguous run of phrase indexes. */
     private final List<PatternCategory> patternCategories;
-    /** Tag -> set of terms. */
-    private final Map<String, Set<String>> indicatorSets;
-    /** All archetypes. */
+    /** By phrase index (hit id - 1): text, owning category index and points. */
+    private final StringArena phrases;
+    private final int[] phraseCategory;
+    private final int[] phrasePoints;
+    /** All archetypes; at most 64, one bit each in the Layer 2 bitmaps. */
     private final List<Archetype> archetypes;
 
+    // Layer 2: every archetype keyword (deduplicated, lowercased, sorted) in
+    // one automaton. Per keyword and per trie state (prefix stems), the
+    // archetypes it counts for as context / threat / demand — as an index
+    // into the distinct (ctx, thr, dem) triples, since most states share one.
+    private final StringArena keywords;
+    private final AhoCorasick keywordMatcher;
+    private final int[] keywordMask, stemMask;
+    private final long[] maskCtx, maskThr, maskDem;
+    /**
+     * Text a windowed {@link Session} carries from one chunk into the next:
+     * twice the longest phrase, indicator term or keyword, so a term split
+     * across an ASR chunk boundary still matches whole.
+     */
+    private final int carryChars;
+
+    // Hit telemetry: id 0 = analyses, then phrases, archetypes, indicator tags
+    private static final int HIT_ANALYSES = 0;
+    private final StripedCounters hits;
+    private final int indicatorHitBase;
+
     // ---- Public API ----
 
-    /** Lazily loads from {@code assets/patterns.json}. Thread-safe. */
-    public static ScamPatternEngine getInstance(Context ctx) throws IOException, JSONException {
-        ScamPatternEngine local = sInstance;
-        if (local == null) {
-            synchronized (ScamPatternEngine.class) {
-                local = sInstance;
-                if (local == null) {
-                    local = load(ctx.getApplicationContext());
-                    sInstance = local;
-                }
-            }
-        }
-        return local;
+    /** Compile a bundle; throws if it is malformed. */
+    public static ScamPatternEngine fromJson(JSONObject root) throws JSONException {
+        return new ScamPatternEngine(root);
     }
 
     /**
@@ -98,19 +147,61 @@ public final class ScamPatternEngine {
      *         and raw debug hits.
      */
     public Result analyze(String text) {
+        HitWindow.ChunkHits found = SCRATCH.get().hitsFor(this);
+        found.clear(0);
+        Result r = analyze(text, null, found);
+        if (text != null && !text.trim().isEmpty()) tally(found, null);
+        return r;
+    }
+
+    /**
+     * Offsets of the words that would trigger {@link #analyze(String)} on
+     * {@code text}, for highlighting text already scored elsewhere (backend
+     * chunks, history). Not counted in {@link #drainHitCounts()}.
+     */
+    public int[] matchSpans(String text) {
+        return analyze(text, null, null).getMatchSpans();
+    }
+
+    /**
+     * Matching only — hits are counted by {@link #tally} once the caller
+     * knows the analysis is a committed one.
+     *
+     * @param carried keyword scan state that has already consumed a prefix
+     *                of {@code text} ({@link Session}), or {@code null} to scan
+     *                from scratch
+     * @param sink    if non-null, receives what matched (windowed sessions)
+     */
+    private Result analyze(String text, KeywordScan carried, HitWindow.ChunkHits sink) {
         if (text == null || text.trim().isEmpty()) {
             return new Result(false, 0, 0.0, Collections.emptyList(),
                     "No text to analyze.", Collections.emptyList());
         }
 
+        final Scratch scratch = SCRATCH.get();
+        scratch.reset();
         final String lower = text.toLowerCase(Locale.ROOT);
         int totalScore = 0;
-        final List<String> detected = new ArrayList<>();
-        final Map<String, Integer> categoryScores = new LinkedHashMap<>();
+        final List<String> detected = scratch.detected;
+        final Map<String, Integer> categoryScores = scratch.categoryScores;
+        // Offsets into `lower` only map onto `text` if lowercasing kept the length
+        final SpanBuffer spans = lower.length() == text.length() ? scratch.spans : null;
 
-        // Layer 1 — exact phrase matching per category
+        // Layer 1 — exact phrase matching per category; where the exact
+        // phrase is missing, approximate and then sound-alike tiers if the
+        // bundle enables them
+        FuzzyPhraseMatcher.Hits near = null;
+        if (fuzzy != null) {
+            near = scratch.fuzzyFor(this);
+            fuzzy.scan(lower, near);
+        }
+        PhoneticIndex.Hits sounds = null;
+        if (phonetic != null) {
+            sounds = scratch.phoneticFor(this);
+            phonetic.scan(lower, sounds);
+        }
         for (PatternCategory cat : patternCategories) {
-            int catScore = checkPatterns(lower, cat, detected);
+            int catScore = checkPatterns(lower, cat, detected, spans, sink, near, sounds);
             if (catScore > 0) {
                 categoryScores.put(cat.id, catScore);
                 totalScore += catScore;
@@ -118,23 +209,26 @@ public final class ScamPatternEngine {
         }
 
         // Layer 2 — keyword co-occurrence across archetypes
-        int cooccur = checkKeywordCooccurrence(lower, detected);
+        KeywordScan scan = carried;
+        if (scan == null) {
+            scan = scratch.scanFor(this);
+            scan.reset();
+        }
+        scan.feed(lower);
+        int cooccur = checkKeywordCooccurrence(scan, detected, spans, sink);
         if (cooccur > 0) {
             categoryScores.put("KEYWORD_COOCCUR", cooccur);
             totalScore += cooccur;
         }
 
         // Cross-language indicator bonuses (each fires at most once)
-        totalScore += checkIndicatorSet(lower, "URGENCY", detected);
-        totalScore += checkIndicatorSet(lower, "AUTHORITY", detected);
-        totalScore += checkIndicatorSet(lower, "FINANCIAL_RISK", detected);
-        totalScore += checkIndicatorSet(lower, "TECH_SUPPORT", detected);
-        totalScore += checkIndicatorSet(lower, "SECRECY", detected);
+        for (int i = 0; i < INDICATOR_TAGS.length; i++) {
+            totalScore += checkIndicatorSet(lower, i, detected, spans, sink);
+        }
 
         if (totalScore > riskCap) totalScore = riskCap;
 
         if (totalScore == 0) {
-            Log.d(TAG, "score=0 NO_MATCH input=" + snippet(text));
             return new Result(false, 0, 0.0, Collections.emptyList(),
                     "No scam patterns detected.", Collections.emptyList());
         }
@@ -143,7 +237,7 @@ public final class ScamPatternEngine {
         boolean isScam = riskFraction >= scamThreshold;
 
         // Build human-readable label list (deduplicated, preserving order)
-        final LinkedHashSet<String> matchedLabels = new LinkedHashSet<>();
+        final Set<String> matchedLabels = scratch.matchedLabels;
         for (String catId : categoryScores.keySet()) {
             String label = labelForCategory(catId);
             if (label != null) matchedLabels.add(label);
@@ -161,57 +255,338 @@ public final class ScamPatternEngine {
             }
         }
         // Indicator labels
-        for (String tag : INDICATOR_TAGS) {
-            String marker = "[" + tag + "]";
+        for (int i = 0; i < INDICATOR_TAGS.length; i++) {
+            String marker = "[" + INDICATOR_TAGS[i] + "]";
             for (String d : detected) {
                 if (d.contains(marker)) {
-                    matchedLabels.add(indicatorLabels.get(tag));
+                    matchedLabels.add(indicatorLabel[i]);
                     break;
                 }
             }
         }
 
         final List<String> matchedList = new ArrayList<>(matchedLabels);
-        final String explanation;
+        return new Result(isScam, totalScore, riskFraction, matchedList,
+                explain(isScam, totalScore, detected.size(), matchedList), detected,
+                spans != null ? spans.toMergedArray() : NO_SPANS);
+    }
+
+    private static String explain(boolean isScam, int totalScore, int indicators, List<String> labels) {
         if (isScam) {
             final String level;
             if (totalScore > 90)       level = "CRITICAL THREAT";
             else if (totalScore > 70)  level = "HIGH RISK";
             else                       level = "SCAM DETECTED";
-            explanation = level + " (" + totalScore + "%): Detected "
-                    + detected.size() + " scam indicator(s) — "
-                    + joinFirst(matchedList, 3);
-        } else {
-            explanation = "LOW RISK (" + totalScore + "%): Some suspicious patterns — "
-                    + joinFirst(matchedList, 2);
+            return level + " (" + totalScore + "%): Detected "
+                    + indicators + " scam indicator(s) — "
+                    + joinFirst(labels, 3);
+        }
+        return "LOW RISK (" + totalScore + "%): Some suspicious patterns — "
+                + joinFirst(labels, 2);
+    }
+
+    /**
+     * Score the chunks of {@code w} no older than {@code windowMs} before
+     * {@code now}. Same layers as {@link #analyze(String)}, but each hit is
+     * weighted by {@code 2^(-age / halfLifeMs)} of its most recent
+     * occurrence, and an archetype combination by the age of its older
+     * component — context at minute 1 and a demand at minute 4 is weaker
+     * evidence than both in one sentence, and nothing combines across more
+     * than the window. Cost depends on the ring capacity, not call length.
+     */
+    private Result scoreWindow(HitWindow w, long now, long windowMs, double halfLifeMs, int[] chunkSpans) {
+        final double k = Math.log(2) / halfLifeMs;
+        w.resetFold();
+        long ctxSeen = 0, thrSeen = 0, demSeen = 0;
+        int indicatorSeen = 0;
+
+        // Newest first, so the first sighting of anything is its most recent
+        for (int age = 0; age < w.size(); age++) {
+            HitWindow.ChunkHits h = w.get(age);
+            long dt = now - h.time;
+            if (dt > windowMs) break;
+            double weight = Math.exp(-Math.max(0, dt) * k);
+            for (int j = 0; j < h.phrases.length; j++) {
+                long fresh = (h.phrases[j] | h.fuzzyPhrases[j] | h.phoneticPhrases[j]) & ~w.seenPhrases[j];
+                w.seenPhrases[j] |= fresh;
+                for (; fresh != 0; fresh &= fresh - 1) {
+                    long bit = fresh & -fresh;
+                    int p = (j << 6) + Long.numberOfTrailingZeros(fresh);
+                    double pts = (h.phrases[j] & bit) != 0 ? phrasePoints[p]
+                            : (h.fuzzyPhrases[j] & bit) != 0 ? phrasePoints[p] * fuzzy.scoreFactor
+                            : phrasePoints[p] * phonetic.scoreFactor;
+                    w.categoryWeighted[phraseCategory[p]] += pts * weight;
+                    w.categoryCount[phraseCategory[p]]++;
+                }
+            }
+            for (long b = h.ctx & ~ctxSeen; b != 0; b &= b - 1) w.ctxTime[Long.numberOfTrailingZeros(b)] = h.time;
+            for (long b = h.thr & ~thrSeen; b != 0; b &= b - 1) w.thrTime[Long.numberOfTrailingZeros(b)] = h.time;
+            for (long b = h.dem & ~demSeen; b != 0; b &= b - 1) w.demTime[Long.numberOfTrailingZeros(b)] = h.time;
+            ctxSeen |= h.ctx;
+            thrSeen |= h.thr;
+            demSeen |= h.dem;
+            for (int b = h.indicators & ~indicatorSeen; b != 0; b &= b - 1) {
+                w.indicatorWeight[Integer.numberOfTrailingZeros(b)] = weight;
+            }
+            indicatorSeen |= h.indicators;
         }
 
-        Log.i(TAG, "score=" + totalScore + " scam=" + isScam
-                + " hits=" + detected.size() + " input=" + snippet(text));
+        List<String> detected = new ArrayList<>();
+        Set<String> labels = new LinkedHashSet<>();
+        double total = 0;
+        for (int c = 0; c < patternCategories.size(); c++) {
+            int count = w.categoryCount[c];
+            if (count == 0) continue;
+            double score = w.categoryWeighted[c];
+            if (count > 1) score *= 1.0 + (count - 1) * categoryRepeatBonus;
+            total += score;
+            PatternCategory cat = patternCategories.get(c);
+            labels.add(cat.label);
+            detected.add(String.format(Locale.ROOT, "[%s] %d phrase(s) (+%.1f)", cat.id, count, score));
+        }
 
-        return new Result(isScam, totalScore, riskFraction, matchedList, explanation, detected);
+        double best = 0;
+        long fired = (ctxSeen & thrSeen) | (ctxSeen & demSeen) | (thrSeen & demSeen);
+        for (; fired != 0; fired &= fired - 1) {
+            int ai = Long.numberOfTrailingZeros(fired);
+            long bit = 1L << ai;
+            boolean hasCtx = (ctxSeen & bit) != 0, hasThr = (thrSeen & bit) != 0, hasDem = (demSeen & bit) != 0;
+            int score;
+            String combo;
+            long oldest;
+            if (hasCtx && hasThr && hasDem) {
+                score = scoreCtxThrDem;
+                combo = "context + threat + demand";
+                oldest = Math.min(w.ctxTime[ai], Math.min(w.thrTime[ai], w.demTime[ai]));
+            } else if (hasThr && hasDem) {
+                score = scoreThrDem;
+                combo = "threat + demand";
+                oldest = Math.min(w.thrTime[ai], w.demTime[ai]);
+            } else if (hasCtx && hasDem) {
+                score = scoreCtxDem;
+                combo = "context + demand";
+                oldest = Math.min(w.ctxTime[ai], w.demTime[ai]);
+            } else {
+                score = scoreCtxThr;
+                combo = "context + threat";
+                oldest = Math.min(w.ctxTime[ai], w.thrTime[ai]);
+            }
+            double weighted = score * Math.exp(-Math.max(0, now - oldest) * k);
+            Archetype a = archetypes.get(ai);
+            labels.add(a.label);
+            detected.add(String.format(Locale.ROOT, "[KEYWORD_COOCCUR:%s] %s within %d s (+%.1f)",
+                    a.id, combo, (now - oldest) / 1000, weighted));
+            best = Math.max(best, weighted);
+        }
+        total += best;
+
+        for (int i = 0; i < INDICATOR_TAGS.length; i++) {
+            if ((indicatorSeen & (1 << i)) == 0) continue;
+            String tag = INDICATOR_TAGS[i];
+            double bonus = indicatorBonus[i] * w.indicatorWeight[i];
+            total += bonus;
+            labels.add(indicatorLabel[i]);
+            detected.add(String.format(Locale.ROOT, "[%s] (+%.1f)", tag, bonus));
+        }
+
+        int totalScore = (int) Math.min(riskCap, Math.round(total));
+        if (totalScore == 0) {
+            return new Result(false, 0, 0.0, Collections.emptyList(),
+                    "No scam patterns detected.", Collections.emptyList(), chunkSpans);
+        }
+        double riskFraction = Math.round((totalScore / 100.0) * 100.0) / 100.0;
+        boolean isScam = riskFraction >= scamThreshold;
+        List<String> matchedList = new ArrayList<>(labels);
+        return new Result(isScam, totalScore, riskFraction, matchedList,
+                explain(isScam, totalScore, detected.size(), matchedList), detected, chunkSpans);
+    }
+
+    /**
+     * Score many transcripts in parallel on the common fork-join pool.
+     * Results are in input order.
+     */
+    public List<Result> analyzeAll(List<String> texts) {
+        return analyzeAll(texts, ForkJoinPool.commonPool());
+    }
+
+    /** {@link #analyzeAll(List)} on a caller-chosen pool (e.g. sized for a benchmark). */
+    public List<Result> analyzeAll(List<String> texts, ForkJoinPool pool) {
+        Result[] out = new Result[texts.size()];
+        if (out.length > 0) pool.invoke(new BatchTask(texts, out, 0, out.length));
+        return Arrays.asList(out);
+    }
+
+    /**
+     * Lazily score a stream; parallel if {@code texts} is parallel
+     * (ordered if {@code texts} is ordered).
+     */
+    public Stream<Result> analyzeStream(Stream<String> texts) {
+        return texts.map(this::analyze);
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> texts;
+        private final Result[] out;
+        private final int from, to;
+
+        BatchTask(List<String> texts, Result[] out, int from, int to) {
+            this.texts = texts; this.out = out; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_LEAF_SIZE) {
+                for (int i = from; i < to; i++) out[i] = analyze(texts.get(i));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(texts, out, from, mid), new BatchTask(texts, out, mid, to));
+        }
+    }
+
+    /**
+     * Start a per-call analysis session bound to this engine snapshot.
+     * Cheap to create — callers may open one on RINGING and simply drop it
+     * if the call is never answered.
+     */
+    public Session newSession() {
+        return new Session(this, 0, 0);
+    }
+
+    /**
+     * Session in windowed mode: each chunk is matched together with the end
+     * of the text before it, and only hits from the last {@code windowMs}
+     * count, decaying with {@code halfLifeMs}. Hits are kept in a ring of
+     * {@link #WINDOW_BUCKET_MS} buckets covering the window, so per-chunk
+     * cost stays flat however long the call runs.
+     */
+    public Session newSession(long windowMs, long halfLifeMs) {
+        if (windowMs <= 0 || halfLifeMs <= 0) throw new IllegalArgumentException("window and half-life must be > 0");
+        return new Session(this, windowMs, halfLifeMs);
     }
 
     /** Bundle metadata — useful for diagnostics & OTA freshness checks. */
     public int getSchemaVersion()  { return schemaVersion; }
     public String getGeneratedAt() { return generatedAt; }
-    public int getPatternCount() {
-        int n = 0;
-        for (PatternCategory c : patternCategories) n += c.patterns.size();
+    public int getPatternCount()   { return phrases.size(); }
+
+    /**
+     * Estimated heap held by this compiled model, in bytes: phrase and
+     * keyword text, automata, score tables and the optional tiers. Per-thread
+     * scratch and sessions are not included. An estimate for budgets and
+     * regressions (64-bit runtime, compressed references), not a measurement.
+     */
+    public long getMemoryFootprint() {
+        long n = HeapSize.OBJECT
+                + phrases.footprint() + HeapSize.of(phraseCategory) + HeapSize.of(phrasePoints)
+                + keywords.footprint() + keywordMatcher.footprint()
+                + HeapSize.of(keywordMask) + HeapSize.of(stemMask)
+                + HeapSize.of(maskCtx) + HeapSize.of(maskThr) + HeapSize.of(maskDem)
+                + indicatorTerms.footprint() + HeapSize.of(indicatorTermStart) + HeapSize.of(indicatorBonus)
+                + HeapSize.refs(indicatorLabel.length) + hits.footprint();
+        for (String label : indicatorLabel) n += HeapSize.of(label);
+        n += HeapSize.refs(patternCategories.size());
+        for (PatternCategory c : patternCategories) {
+            n += HeapSize.OBJECT + HeapSize.of(c.id) + HeapSize.of(c.label);
+        }
+        n += HeapSize.refs(archetypes.size());
+        for (Archetype a : archetypes) {
+            n += HeapSize.OBJECT + HeapSize.of(a.id) + HeapSize.of(a.label)
+                    + HeapSize.of(a.contextIds) + HeapSize.of(a.threatIds) + HeapSize.of(a.demandIds);
+        }
+        if (fuzzy != null) n += fuzzy.footprint();
+        if (phonetic != null) n += phonetic.footprint();
         return n;
     }
 
+    /**
+     * Hit counts since the last drain, keyed {@code phrase:<category>:<phrase>},
+     * {@code archetype:<id>}, {@code indicator:<tag>} plus {@code analyses};
+     * zero counts are omitted. Resets the counters.
+     */
+    public Map<String, Long> drainHitCounts() {
+        long[] counts = hits.drain();
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] != 0) out.put(hitKey(id), counts[id]);
+        }
+        return out;
+    }
+
+    /**
+     * Count one committed analysis and what it matched. With {@code seen}
+     * (a classic session, which re-matches the whole transcript), only hits
+     * not in {@code seen} are counted, and are then added to it.
+     */
+    private void tally(HitWindow.ChunkHits h, HitWindow.ChunkHits seen) {
+        hits.increment(HIT_ANALYSES);
+        for (int j = 0; j < h.phrases.length; j++) {
+            long found = h.phrases[j] | h.fuzzyPhrases[j] | h.phoneticPhrases[j];
+            if (seen != null) {
+                found &= ~seen.phrases[j];
+                seen.phrases[j] |= found;
+            }
+            for (; found != 0; found &= found - 1) hits.increment((j << 6) + Long.numberOfTrailingZeros(found) + 1);
+        }
+        // An archetype fires on any two of context, threat and demand
+        long fired = (h.ctx & h.thr) | (h.dem & (h.ctx | h.thr));
+        int indicators = h.indicators;
+        if (seen != null) {
+            fired &= ~seen.ctx;   // seen.ctx holds the archetypes already counted
+            seen.ctx |= fired;
+            indicators &= ~seen.indicators;
+            seen.indicators |= indicators;
+        }
+        for (; fired != 0; fired &= fired - 1) hits.increment(archetypes.get(Long.numberOfTrailingZeros(fired)).hitId);
+        for (; indicators != 0; indicators &= indicators - 1) {
+            hits.increment(indicatorHitBase + Integer.numberOfTrailingZeros(indicators));
+        }
+    }
+
+    /** Telemetry key for hit id {@code id}, built on demand rather than stored. */
+    private String hitKey(int id) {
+        if (id == HIT_ANALYSES) return "analyses";
+        if (id <= phrases.size()) {
+            return "phrase:" + patternCategories.get(phraseCategory[id - 1]).id + ":" + phrases.get(id - 1);
+        }
+        if (id < indicatorHitBase) return "archetype:" + archetypes.get(id - phrases.size() - 1).id;
+        return "indicator:" + INDICATOR_TAGS[id - indicatorHitBase];
+    }
+
     // ---- Algorithm internals (mirror scam_detector.py / scam_archetypes.py) ----
 
-    private int checkPatterns(String text, PatternCategory cat, List<String> detected) {
+    private int checkPatterns(String text, PatternCategory cat, List<String> detected, SpanBuffer spans,
+                              HitWindow.ChunkHits sink, FuzzyPhraseMatcher.Hits near,
+                              PhoneticIndex.Hits sounds) {
         int score = 0;
         int count = 0;
-        for (Map.Entry<String, Integer> e : cat.patterns.entrySet()) {
-            if (text.contains(e.getKey())) {
-                int pts = e.getValue();
+        for (int p = cat.firstPhrase; p < cat.endPhrase; p++) {
+            int at = phrases.indexIn(text, p);
+            if (at >= 0) {
+                if (sink != null) sink.phrases[p >>> 6] |= 1L << p;
+                if (spans != null) spans.add(at, at + phrases.length(p));
+                int pts = phrasePoints[p];
+                score += pts;
+                count += 1;
+                detected.add("[" + cat.id + "] " + phrases.get(p) + " (+" + pts + ")");
+            } else if (near != null && near.isFuzzy(p)) {
+                if (sink != null) sink.fuzzyPhrases[p >>> 6] |= 1L << p;
+                if (spans != null) spans.add(near.start[p], near.end[p]);
+                int pts = (int) (phrasePoints[p] * fuzzy.scoreFactor);
                 score += pts;
                 count += 1;
-                detected.add("[" + cat.id + "] " + e.getKey() + " (+" + pts + ")");
+                detected.add("[" + cat.id + "] " + phrases.get(p) + " ~ \"" + text.substring(near.start[p], near.end[p])
+                        + "\" (+" + pts + ")");
+            } else if (sounds != null && sounds.has(p)) {
+                if (sink != null) sink.phoneticPhrases[p >>> 6] |= 1L << p;
+                if (spans != null) spans.add(sounds.start[p], sounds.end[p]);
+                int pts = (int) (phrasePoints[p] * phonetic.scoreFactor);
+                score += pts;
+                count += 1;
+                detected.add("[" + cat.id + "] " + phrases.get(p) + " ≈ \"" + text.substring(sounds.start[p], sounds.end[p])
+                        + "\" (+" + pts + ")");
             }
         }
         if (count > 1) {
@@ -221,81 +596,97 @@ public final class ScamPatternEngine {
         return score;
     }
 
-    private int checkIndicatorSet(String text, String tag, List<String> detected) {
-        Set<String> terms = indicatorSets.get(tag);
-        Integer bonus = indicatorBonuses.get(tag);
-        if (terms == null || bonus == null) return 0;
-        for (String term : terms) {
-            if (text.contains(term)) {
-                detected.add("[" + tag + "] " + term + " (+" + bonus + ")");
+    private int checkIndicatorSet(String text, int tagIndex, List<String> detected, SpanBuffer spans,
+                                  HitWindow.ChunkHits sink) {
+        int bonus = indicatorBonus[tagIndex];
+        for (int t = indicatorTermStart[tagIndex]; t < indicatorTermStart[tagIndex + 1]; t++) {
+            int at = indicatorTerms.indexIn(text, t);
+            if (at >= 0) {
+                if (sink != null) sink.indicators |= 1 << tagIndex;
+                if (spans != null) spans.add(at, at + indicatorTerms.length(t));
+                detected.add("[" + INDICATOR_TAGS[tagIndex] + "] " + indicatorTerms.get(t) + " (+" + bonus + ")");
                 return bonus;
             }
         }
         return 0;
     }
 
-    private int checkKeywordCooccurrence(String lower, List<String> detected) {
-        final String[] words = lower.split("\\s+");
-        final Set<String> wordSet = new LinkedHashSet<>(Arrays.asList(words));
-        final String collapsed = lower.replace(" ", "");
-        final String[] collapsedWords = collapsed.split("\\s+");
-        final Set<String> collapsedWordSet = new LinkedHashSet<>(Arrays.asList(collapsedWords));
+    /**
+     * Layer 2. {@code scan} has already consumed {@code lower} (see
+     * {@link KeywordScan}); what is left is a few bitwise operations over the
+     * context/threat/demand bitmaps, plus building details for the
+     * archetypes that actually fire.
+     */
+    private int checkKeywordCooccurrence(KeywordScan scan, List<String> detected, SpanBuffer spans,
+                                         HitWindow.ChunkHits sink) {
+        long ctx = scan.ctx, thr = scan.thr, dem = scan.dem, demCollapsed = scan.demCollapsed;
+        // The last token of the text hasn't been closed by whitespace yet
+        int pending = scan.pendingStem();
+        if (pending > 0) {
+            int m = stemMask[pending];
+            ctx |= maskCtx[m];
+            thr |= maskThr[m];
+            dem |= maskDem[m];
+        }
+        int cPending = scan.pendingCollapsedStem();
+        if (cPending > 0) demCollapsed |= maskDem[stemMask[cPending]];
+        // Collapsed-text demand only counts where the plain text had none
+        long anyDem = dem | demCollapsed;
+        if (sink != null) {
+            sink.ctx = ctx;
+            sink.thr = thr;
+            sink.dem = anyDem;
+        }
+
+        long ctxThrDem = ctx & thr & anyDem;
+        long thrDem = thr & anyDem & ~ctxThrDem;
+        long ctxDem = ctx & anyDem & ~ctxThrDem;
+        long ctxThr = ctx & thr & ~anyDem;
 
         int best = 0;
-        for (Archetype a : archetypes) {
-            String ctxHit = matchKeywords(lower, wordSet, a.context);
-            String thrHit = matchKeywords(lower, wordSet, a.threat);
-            String demHit = matchKeywords(lower, wordSet, a.demand);
-            if (demHit == null) {
-                demHit = matchKeywords(collapsed, collapsedWordSet, a.demand);
-            }
+        if (ctxThrDem != 0) best = Math.max(best, scoreCtxThrDem);
+        if (thrDem != 0)    best = Math.max(best, scoreThrDem);
+        if (ctxDem != 0)    best = Math.max(best, scoreCtxDem);
+        if (ctxThr != 0)    best = Math.max(best, scoreCtxThr);
+        if (best == 0) return 0;
 
-            boolean hasCtx = ctxHit != null;
-            boolean hasThr = thrHit != null;
-            boolean hasDem = demHit != null;
+        for (long fired = ctxThrDem | thrDem | ctxDem | ctxThr; fired != 0; fired &= fired - 1) {
+            int ai = Long.numberOfTrailingZeros(fired);
+            long bit = 1L << ai;
+            Archetype a = archetypes.get(ai);
+            boolean hasCtx = (ctx & bit) != 0;
+            boolean hasThr = (thr & bit) != 0;
+            String ctxHit = hasCtx ? keywords.get(scan.firstMatch(a.contextIds, false, spans)) : null;
+            String thrHit = hasThr ? keywords.get(scan.firstMatch(a.threatIds, false, spans)) : null;
+            String demHit = null;
+            if ((anyDem & bit) != 0) {
+                // Offsets into the space-collapsed text don't map back
+                demHit = keywords.get((dem & bit) != 0
+                        ? scan.firstMatch(a.demandIds, false, spans)
+                        : scan.firstMatch(a.demandIds, true, null));
+            }
 
-            int score = 0;
-            String detail = null;
-            if (hasCtx && hasThr && hasDem) {
+            final int score;
+            final String detail;
+            if ((ctxThrDem & bit) != 0) {
                 score = scoreCtxThrDem;
                 detail = "context(" + ctxHit + ") + threat(" + thrHit
                         + ") + demand(" + demHit + ") (+" + score + ")";
-            } else if (hasThr && hasDem) {
+            } else if ((thrDem & bit) != 0) {
                 score = scoreThrDem;
                 detail = "threat(" + thrHit + ") + demand(" + demHit + ") (+" + score + ")";
-            } else if (hasCtx && hasDem) {
+            } else if ((ctxDem & bit) != 0) {
                 score = scoreCtxDem;
                 detail = "context(" + ctxHit + ") + demand(" + demHit + ") (+" + score + ")";
-            } else if (hasCtx && hasThr) {
+            } else {
                 score = scoreCtxThr;
                 detail = "context(" + ctxHit + ") + threat(" + thrHit + ") (+" + score + ")";
             }
-
-            if (detail != null) {
-                detected.add("[KEYWORD_COOCCUR:" + a.id + "] " + detail);
-            }
-            if (score > best) best = score;
+            detected.add("[KEYWORD_COOCCUR:" + a.id + "] " + detail);
         }
         return best;
     }
 
-    private String matchKeywords(String textLower, Set<String> words, Set<String> keywords) {
-        for (String kw : keywords) {
-            String kwLower = kw.toLowerCase(Locale.ROOT);
-            if (textLower.contains(kwLower)) return kw;
-            // 4+ char prefix matching (either direction) — matches Python _match_keywords
-            if (kwLower.length() >= stemMinLength) {
-                for (String w : words) {
-                    if (w.length() >= stemMinLength
-                            && (w.startsWith(kwLower) || kwLower.startsWith(w))) {
-                        return kw;
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
     // ---- Label lookup ----
 
     private String labelForCategory(String id) {
@@ -306,7 +697,10 @@ public final class ScamPatternEngine {
         for (PatternCategory c : patternCategories) {
             if (c.id.equals(id)) return c.label;
         }
-        return indicatorLabels.get(id);
+        for (int i = 0; i < INDICATOR_TAGS.length; i++) {
+            if (INDICATOR_TAGS[i].equals(id)) return indicatorLabel[i];
+        }
+        return null;
     }
 
     private String labelForArchetype(String archetypeId) {
@@ -318,14 +712,6 @@ public final class ScamPatternEngine {
 
     // ---- Loader ----
 
-    private static ScamPatternEngine load(Context ctx) throws IOException, JSONException {
-        try (InputStream is = ctx.getAssets().open(ASSET_FILE)) {
-            String raw = readAll(is);
-            JSONObject root = new JSONObject(raw);
-            return new ScamPatternEngine(root);
-        }
-    }
-
     private ScamPatternEngine(JSONObject root) throws JSONException {
         this.schemaVersion = root.optInt("schema_version", 1);
         this.generatedAt   = root.optString("generated_at", "");
@@ -345,61 +731,183 @@ public final class ScamPatternEngine {
         // Indicator bonuses & labels
         JSONObject bonuses = root.getJSONObject("indicator_bonuses");
         JSONObject iLabels = root.getJSONObject("indicator_labels");
-        Map<String, Integer> bMap = new HashMap<>();
-        Map<String, String>  lMap = new HashMap<>();
-        for (String tag : INDICATOR_TAGS) {
-            bMap.put(tag, bonuses.getInt(tag));
-            lMap.put(tag, iLabels.getString(tag));
+        this.indicatorBonus = new int[INDICATOR_TAGS.length];
+        this.indicatorLabel = new String[INDICATOR_TAGS.length];
+        for (int i = 0; i < INDICATOR_TAGS.length; i++) {
+            indicatorBonus[i] = bonuses.getInt(INDICATOR_TAGS[i]);
+            indicatorLabel[i] = iLabels.getString(INDICATOR_TAGS[i]);
         }
-        this.indicatorBonuses = Collections.unmodifiableMap(bMap);
-        this.indicatorLabels  = Collections.unmodifiableMap(lMap);
 
-        // Pattern categories
+        // Pattern categories: phrases are numbered across categories in bundle order
         JSONArray cats = root.getJSONArray("pattern_categories");
         List<PatternCategory> catList = new ArrayList<>(cats.length());
+        List<String> phraseList = new ArrayList<>();
+        List<Integer> pointList = new ArrayList<>();
         for (int i = 0; i < cats.length(); i++) {
             JSONObject c = cats.getJSONObject(i);
-            String id = c.getString("id");
-            String label = c.getString("label");
             JSONObject pats = c.getJSONObject("patterns");
-            LinkedHashMap<String, Integer> pm = new LinkedHashMap<>(pats.length());
+            int first = phraseList.size();
             Iterator<String> it = pats.keys();
             while (it.hasNext()) {
                 String phrase = it.next();
-                pm.put(phrase, pats.getInt(phrase));
+                phraseList.add(phrase);
+                pointList.add(pats.getInt(phrase));
             }
-            catList.add(new PatternCategory(id, label, Collections.unmodifiableMap(pm)));
+            catList.add(new PatternCategory(c.getString("id"), c.getString("label"), first, phraseList.size()));
         }
         this.patternCategories = Collections.unmodifiableList(catList);
+        this.phrases = new StringArena(phraseList);
+        this.phraseCategory = new int[phraseList.size()];
+        this.phrasePoints = new int[phraseList.size()];
+        for (int c = 0; c < catList.size(); c++) {
+            PatternCategory cat = catList.get(c);
+            for (int p = cat.firstPhrase; p < cat.endPhrase; p++) {
+                phraseCategory[p] = c;
+                phrasePoints[p] = pointList.get(p);
+            }
+        }
+        this.fuzzy = compileFuzzy(constants.optJSONObject("fuzzy_match"), phrases);
+        this.phonetic = compilePhonetic(constants.optJSONObject("phonetic_match"), catList, phrases);
 
-        // Indicator sets
+        // Indicator sets, duplicates dropped
         JSONObject sets = root.getJSONObject("indicator_sets");
-        Map<String, Set<String>> setMap = new HashMap<>();
-        for (String tag : INDICATOR_TAGS) {
-            JSONArray arr = sets.getJSONArray(tag);
+        List<String> termList = new ArrayList<>();
+        this.indicatorTermStart = new int[INDICATOR_TAGS.length + 1];
+        for (int t = 0; t < INDICATOR_TAGS.length; t++) {
+            JSONArray arr = sets.getJSONArray(INDICATOR_TAGS[t]);
             LinkedHashSet<String> terms = new LinkedHashSet<>(arr.length());
             for (int i = 0; i < arr.length(); i++) terms.add(arr.getString(i));
-            setMap.put(tag, Collections.unmodifiableSet(terms));
+            termList.addAll(terms);
+            indicatorTermStart[t + 1] = termList.size();
         }
-        this.indicatorSets = Collections.unmodifiableMap(setMap);
+        this.indicatorTerms = new StringArena(termList);
 
         // Archetypes
         JSONArray arr = root.getJSONArray("archetypes");
-        List<Archetype> aList = new ArrayList<>(arr.length());
+        if (arr.length() > 64) {
+            throw new JSONException(arr.length() + " archetypes; at most 64 are supported");
+        }
+        List<Set<String>[]> groups = new ArrayList<>(arr.length());
+        TreeMap<String, Integer> keywordIds = new TreeMap<>();
         for (int i = 0; i < arr.length(); i++) {
             JSONObject a = arr.getJSONObject(i);
-            aList.add(new Archetype(
-                    a.getString("id"),
-                    a.getString("label"),
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Set<String>[] g = new Set[] {
                     toLowerSet(a.getJSONArray("context")),
                     toLowerSet(a.getJSONArray("threat")),
-                    toLowerSet(a.getJSONArray("demand"))
-            ));
+                    toLowerSet(a.getJSONArray("demand"))};
+            for (Set<String> set : g) {
+                for (String kw : set) keywordIds.put(kw, 0);
+            }
+            groups.add(g);
+        }
+        List<String> keywordList = new ArrayList<>(keywordIds.keySet());
+        for (int k = 0; k < keywordList.size(); k++) keywordIds.put(keywordList.get(k), k);
+        long[] keywordCtx = new long[keywordList.size()];
+        long[] keywordThr = new long[keywordList.size()];
+        long[] keywordDem = new long[keywordList.size()];
+        long[][] groupMasks = {keywordCtx, keywordThr, keywordDem};
+        int archetypeHitBase = phraseList.size() + 1;
+
+        List<Archetype> aList = new ArrayList<>(arr.length());
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject a = arr.getJSONObject(i);
+            Set<String>[] g = groups.get(i);
+            int[][] ids = new int[3][];
+            for (int grp = 0; grp < 3; grp++) {
+                ids[grp] = new int[g[grp].size()];
+                int n = 0;
+                for (String kw : g[grp]) {
+                    int k = keywordIds.get(kw);
+                    ids[grp][n++] = k;
+                    groupMasks[grp][k] |= 1L << i;
+                }
+            }
+            aList.add(new Archetype(a.getString("id"), a.getString("label"),
+                    ids[0], ids[1], ids[2], archetypeHitBase + i));
         }
         this.archetypes = Collections.unmodifiableList(aList);
+        this.keywords = new StringArena(keywordList);
+        this.keywordMatcher = new AhoCorasick(keywordList);
+        long[] stemCtx = keywordMatcher.subtreeOr(keywordCtx);
+        long[] stemThr = keywordMatcher.subtreeOr(keywordThr);
+        long[] stemDem = keywordMatcher.subtreeOr(keywordDem);
+        // Intern the (ctx, thr, dem) triples; index 0 is "none"
+        Map<List<Long>, Integer> triples = new HashMap<>();
+        triples.put(Arrays.asList(0L, 0L, 0L), 0);
+        this.keywordMask = new int[keywordList.size()];
+        this.stemMask = new int[stemCtx.length];
+        for (int k = 0; k < keywordMask.length; k++) {
+            keywordMask[k] = triples.computeIfAbsent(
+                    Arrays.asList(keywordCtx[k], keywordThr[k], keywordDem[k]), x -> triples.size());
+        }
+        for (int t = 0; t < stemMask.length; t++) {
+            stemMask[t] = triples.computeIfAbsent(
+                    Arrays.asList(stemCtx[t], stemThr[t], stemDem[t]), x -> triples.size());
+        }
+        this.maskCtx = new long[triples.size()];
+        this.maskThr = new long[triples.size()];
+        this.maskDem = new long[triples.size()];
+        for (Map.Entry<List<Long>, Integer> e : triples.entrySet()) {
+            maskCtx[e.getValue()] = e.getKey().get(0);
+            maskThr[e.getValue()] = e.getKey().get(1);
+            maskDem[e.getValue()] = e.getKey().get(2);
+        }
+
+        this.indicatorHitBase = archetypeHitBase + aList.size();
+        this.hits = new StripedCounters(indicatorHitBase + INDICATOR_TAGS.length);
+
+        int longest = 0;
+        for (int p = 0; p < phrases.size(); p++) longest = Math.max(longest, phrases.length(p));
+        for (int t = 0; t < indicatorTerms.size(); t++) longest = Math.max(longest, indicatorTerms.length(t));
+        for (int k = 0; k < keywords.size(); k++) longest = Math.max(longest, keywords.length(k));
+        this.carryChars = 2 * longest;
 
-        Log.i(TAG, "Loaded schema=" + schemaVersion + " categories=" + patternCategories.size()
-                + " phrases=" + getPatternCount() + " archetypes=" + archetypes.size());
+    }
+
+    /**
+     * {@code constants.fuzzy_match}, e.g.
+     * {@code {"edit_budget": [[10, 1], [20, 2]], "score_factor": 0.75, "time_budget_ms": 2}}:
+     * phrases of 10+ chars may be 1 edit off, 20+ chars 2, and an approximate
+     * hit scores 75% of the phrase. Absent or {@code "enabled": false} keeps
+     * Layer 1 exact, as in the Python reference.
+     */
+    private static FuzzyPhraseMatcher compileFuzzy(JSONObject cfg, StringArena phrases)
+            throws JSONException {
+        if (cfg == null || !cfg.optBoolean("enabled", true)) return null;
+        JSONArray budget = cfg.getJSONArray("edit_budget");
+        int[] lengths = new int[budget.length()];
+        int[] edits = new int[budget.length()];
+        for (int i = 0; i < budget.length(); i++) {
+            JSONArray step = budget.getJSONArray(i);
+            lengths[i] = step.getInt(0);
+            edits[i] = step.getInt(1);
+            if (i > 0 && lengths[i] <= lengths[i - 1]) throw new JSONException("edit_budget must ascend");
+        }
+        return new FuzzyPhraseMatcher(phrases, lengths, edits,
+                cfg.optDouble("score_factor", 0.75),
+                TimeUnit.MICROSECONDS.toNanos((long) (cfg.optDouble("time_budget_ms", 2.0) * 1000)));
+    }
+
+    /**
+     * {@code constants.phonetic_match}, e.g.
+     * {@code {"categories": ["HINGLISH_SCAM", "TELUGU_SCAM"], "min_tokens": 2, "score_factor": 0.8}}:
+     * romanized phrases of those categories also match when every word
+     * sounds alike ("bol rha hoon" for "bol raha hun"), for 80% of the
+     * phrase. Absent or {@code "enabled": false} turns the tier off.
+     */
+    private static PhoneticIndex compilePhonetic(JSONObject cfg, List<PatternCategory> cats,
+                                                 StringArena phrases) throws JSONException {
+        if (cfg == null || !cfg.optBoolean("enabled", true)) return null;
+        JSONArray ids = cfg.getJSONArray("categories");
+        Set<String> wanted = new HashSet<>();
+        for (int i = 0; i < ids.length(); i++) wanted.add(ids.getString(i));
+        boolean[] indexed = new boolean[phrases.size()];
+        for (PatternCategory c : cats) {
+            if (wanted.contains(c.id)) Arrays.fill(indexed, c.firstPhrase, c.endPhrase, true);
+        }
+        return new PhoneticIndex(phrases, indexed, cfg.optInt("min_tokens", 2),
+                cfg.optDouble("score_factor", 0.8));
     }
 
     private static Set<String> toLowerSet(JSONArray arr) throws JSONException {
@@ -408,7 +916,7 @@ public final class ScamPatternEngine {
         return Collections.unmodifiableSet(s);
     }
 
-    private static String readAll(InputStream is) throws IOException {
+    static String readAll(InputStream is) throws IOException {
         StringBuilder sb = new StringBuilder(64 * 1024);
         try (BufferedReader r = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
             char[] buf = new char[8192];
@@ -428,11 +936,6 @@ public final class ScamPatternEngine {
         return sb.toString();
     }
 
-    private static String snippet(String s) {
-        if (s == null) return "";
-        return s.length() <= 120 ? s : s.substring(0, 120);
-    }
-
     private static final String[] INDICATOR_TAGS =
             {"URGENCY", "AUTHORITY", "FINANCIAL_RISK", "TECH_SUPPORT", "SECRECY"};
 
@@ -441,20 +944,550 @@ public final class ScamPatternEngine {
     private static final class PatternCategory {
         final String id;
         final String label;
-        final Map<String, Integer> patterns;
-        PatternCategory(String id, String label, Map<String, Integer> patterns) {
-            this.id = id; this.label = label; this.patterns = patterns;
+        final int firstPhrase, endPhrase;   // phrase indexes [firstPhrase, endPhrase)
+        PatternCategory(String id, String label, int firstPhrase, int endPhrase) {
+            this.id = id; this.label = label; this.firstPhrase = firstPhrase; this.endPhrase = endPhrase;
         }
     }
 
     private static final class Archetype {
         final String id;
         final String label;
-        final Set<String> context;
-        final Set<String> threat;
-        final Set<String> demand;
-        Archetype(String id, String label, Set<String> c, Set<String> t, Set<String> d) {
-            this.id = id; this.label = label; this.context = c; this.threat = t; this.demand = d;
+        // Keyword ids in bundle order — the first one that matched is reported
+        final int[] contextIds;
+        final int[] threatIds;
+        final int[] demandIds;
+        final int hitId;
+        Archetype(String id, String label, int[] c, int[] t, int[] d, int hitId) {
+            this.id = id; this.label = label; this.contextIds = c; this.threatIds = t; this.demandIds = d;
+            this.hitId = hitId;
+        }
+    }
+
+    /**
+     * Per-thread working set for one {@link #analyze(String)} call. Everything
+     * handed out in a {@link Result} is copied, so reuse is safe.
+     */
+    private static final class Scratch {
+        final List<String> detected = new ArrayList<>();
+        final Map<String, Integer> categoryScores = new LinkedHashMap<>();
+        final Set<String> matchedLabels = new LinkedHashSet<>();
+        KeywordScan scan;
+        HitWindow.ChunkHits found;
+        ScamPatternEngine foundOwner;
+        FuzzyPhraseMatcher.Hits fuzzyHits;
+        ScamPatternEngine fuzzyOwner;
+        PhoneticIndex.Hits phoneticHits;
+        ScamPatternEngine phoneticOwner;
+        final SpanBuffer spans = new SpanBuffer();
+
+        void reset() {
+            detected.clear();
+            categoryScores.clear();
+            matchedLabels.clear();
+            spans.size = 0;
+        }
+
+        FuzzyPhraseMatcher.Hits fuzzyFor(ScamPatternEngine engine) {
+            if (fuzzyHits == null || fuzzyOwner != engine) {
+                fuzzyHits = new FuzzyPhraseMatcher.Hits(engine.phrasePoints.length);
+                fuzzyOwner = engine;
+            }
+            return fuzzyHits;
+        }
+
+        /** Hits of one {@link #analyze(String)}, for {@link #tally}. */
+        HitWindow.ChunkHits hitsFor(ScamPatternEngine engine) {
+            if (found == null || foundOwner != engine) {
+                found = new HitWindow.ChunkHits((engine.phrasePoints.length + 63) >>> 6);
+                foundOwner = engine;
+            }
+            return found;
+        }
+
+        PhoneticIndex.Hits phoneticFor(ScamPatternEngine engine) {
+            if (phoneticHits == null || phoneticOwner != engine) {
+                phoneticHits = new PhoneticIndex.Hits(engine.phrasePoints.length);
+                phoneticOwner = engine;
+            }
+            return phoneticHits;
+        }
+
+        /** Keyword scan sized for {@code engine} (rebuilt after an OTA swap). */
+        KeywordScan scanFor(ScamPatternEngine engine) {
+            if (scan == null || scan.engine() != engine) scan = engine.new KeywordScan();
+            return scan;
+        }
+    }
+
+    /** Growable list of {@code [start, end)} pairs — no boxing on the match path. */
+    private static final class SpanBuffer {
+        int[] data = new int[16];
+        int size;   // ints used, always even
+
+        void add(int start, int end) {
+            if (size + 2 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        /** Sorted by start, overlapping/adjacent pairs merged. */
+        int[] toMergedArray() {
+            if (size == 0) return NO_SPANS;
+            // Insertion sort on pairs: hit counts are tiny
+            for (int i = 2; i < size; i += 2) {
+                int s = data[i], e = data[i + 1], j = i - 2;
+                while (j >= 0 && data[j] > s) {
+                    data[j + 2] = data[j];
+                    data[j + 3] = data[j + 1];
+                    j -= 2;
+                }
+                data[j + 2] = s;
+                data[j + 3] = e;
+            }
+            int out = 0;
+            for (int i = 0; i < size; i += 2) {
+                if (out > 0 && data[i] <= data[out - 1]) {
+                    if (data[i + 1] > data[out - 1]) data[out - 1] = data[i + 1];
+                } else {
+                    data[out++] = data[i];
+                    data[out++] = data[i + 1];
+                }
+            }
+            return Arrays.copyOf(data, out);
+        }
+    }
+
+    /**
+     * One left-to-right pass of the Layer 2 keyword match, kept as state so
+     * a {@link Session} can feed each new chunk instead of rescanning the
+     * call. Per char it advances:
+     * <ul>
+     *   <li>the keyword automaton over the text (substring hits),</li>
+     *   <li>the same automaton over the text with spaces skipped (the
+     *       space-collapsed demand fallback),</li>
+     *   <li>trie cursors for the current whitespace token in both views —
+     *       a token of {@code stemMinLength}+ chars that is a prefix of a
+     *       keyword is a stem hit ({@code keyword.startsWith(token)}; the
+     *       other direction is already a substring hit).</li>
+     * </ul>
+     * Hits set archetype bits in {@link #ctx}/{@link #thr}/{@link #dem}; the
+     * per-keyword bitsets are only read to name the first matching keyword
+     * of archetypes that fire. Matches are identical to the per-archetype
+     * {@code indexOf} + word-set search this replaces.
+     */
+    final class KeywordScan {
+        int pos;                          // chars of the text consumed
+        private int state, collapsedState;
+        private int token, tokenLen;      // trie cursor, -1 once off the trie
+        private int cToken, cTokenLen;
+        long ctx, thr, dem, demCollapsed;
+
+        // Keyword-id bitsets: substring hit / stem hit, plain and collapsed
+        private final long[] hit, stemHit, cHit, cStemHit;
+        private final int[] firstEnd;     // end offset of the first substring hit
+
+        KeywordScan() {
+            int words = (keywords.size() + 63) >>> 6;
+            hit = new long[words];
+            stemHit = new long[words];
+            cHit = new long[words];
+            cStemHit = new long[words];
+            firstEnd = new int[keywords.size()];
+        }
+
+        ScamPatternEngine engine() {
+            return ScamPatternEngine.this;
+        }
+
+        void reset() {
+            pos = state = collapsedState = token = tokenLen = cToken = cTokenLen = 0;
+            ctx = thr = dem = demCollapsed = 0;
+            Arrays.fill(hit, 0);
+            Arrays.fill(stemHit, 0);
+            Arrays.fill(cHit, 0);
+            Arrays.fill(cStemHit, 0);
+        }
+
+        /** Consume {@code lower} from {@link #pos} to its end. */
+        void feed(String lower) {
+            final AhoCorasick m = keywordMatcher;
+            final int n = lower.length();
+            for (int i = pos; i < n; i++) {
+                final char c = lower.charAt(i);
+                final boolean space = c == ' ';
+                // \s as in String.split("\\s+")
+                final boolean ws = space || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+
+                state = m.step(state, c);
+                for (int ms = m.firstMatch(state); ms >= 0; ms = m.nextMatch(ms)) {
+                    int k = m.patternAt(ms);
+                    if (testAndSet(hit, k)) continue;
+                    firstEnd[k] = i + 1;
+                    int mk = keywordMask[k];
+                    ctx |= maskCtx[mk];
+                    thr |= maskThr[mk];
+                    dem |= maskDem[mk];
+                }
+                if (ws) {
+                    int t = pendingStem();
+                    if (t > 0) {
+                        int mt = stemMask[t];
+                        ctx |= maskCtx[mt];
+                        thr |= maskThr[mt];
+                        dem |= maskDem[mt];
+                        setRange(stemHit, m.rangeLo(t), m.rangeHi(t));
+                    }
+                    token = tokenLen = 0;
+                } else {
+                    tokenLen++;
+                    if (token >= 0) token = m.child(token, c);
+                }
+
+                if (space) continue;
+                collapsedState = m.step(collapsedState, c);
+                for (int ms = m.firstMatch(collapsedState); ms >= 0; ms = m.nextMatch(ms)) {
+                    int k = m.patternAt(ms);
+                    if (!testAndSet(cHit, k)) demCollapsed |= maskDem[keywordMask[k]];
+                }
+                if (ws) {
+                    int t = pendingCollapsedStem();
+                    if (t > 0) {
+                        demCollapsed |= maskDem[stemMask[t]];
+                        setRange(cStemHit, m.rangeLo(t), m.rangeHi(t));
+                    }
+                    cToken = cTokenLen = 0;
+                } else {
+                    cTokenLen++;
+                    if (cToken >= 0) cToken = m.child(cToken, c);
+                }
+            }
+            pos = n;
+        }
+
+        /** Trie state of the open token if it counts as a stem hit, else 0. */
+        int pendingStem() {
+            return tokenLen >= stemMinLength && token > 0 ? token : 0;
+        }
+
+        int pendingCollapsedStem() {
+            return cTokenLen >= stemMinLength && cToken > 0 ? cToken : 0;
+        }
+
+        /**
+         * First keyword of {@code ids} (bundle order) that matched, recording
+         * its span if it matched as a substring. Caller knows one did.
+         */
+        int firstMatch(int[] ids, boolean collapsed, SpanBuffer spans) {
+            long[] sub = collapsed ? cHit : hit;
+            long[] stem = collapsed ? cStemHit : stemHit;
+            int open = collapsed ? pendingCollapsedStem() : pendingStem();
+            int openLo = open > 0 ? keywordMatcher.rangeLo(open) : 0;
+            int openHi = open > 0 ? keywordMatcher.rangeHi(open) : 0;
+            for (int k : ids) {
+                if (get(sub, k)) {
+                    if (spans != null) spans.add(firstEnd[k] - keywords.length(k), firstEnd[k]);
+                    return k;
+                }
+                if (get(stem, k) || (k >= openLo && k < openHi)) return k;
+            }
+            throw new IllegalStateException("no keyword matched");
+        }
+
+        private boolean get(long[] bits, int k) {
+            return (bits[k >>> 6] & (1L << k)) != 0;
+        }
+
+        /** Sets bit {@code k}; returns whether it was already set. */
+        private boolean testAndSet(long[] bits, int k) {
+            long mask = 1L << k;
+            long w = bits[k >>> 6];
+            bits[k >>> 6] = w | mask;
+            return (w & mask) != 0;
+        }
+
+        private void setRange(long[] bits, int from, int to) {
+            for (int k = from; k < to; k++) bits[k >>> 6] |= 1L << k;
+        }
+    }
+
+    /**
+     * Clip merged spans to {@code [from, to)} and rebase them so {@code from}
+     * maps to {@code shift}.
+     */
+    static int[] clipSpans(int[] spans, int from, int to, int shift) {
+        if (spans.length == 0 || from >= to) return NO_SPANS;
+        int[] out = null;
+        int n = 0;
+        for (int i = 0; i < spans.length; i += 2) {
+            int s = Math.max(spans[i], from);
+            int e = Math.min(spans[i + 1], to);
+            if (s >= e) continue;
+            if (out == null) out = new int[spans.length - i];
+            out[n++] = s - from + shift;
+            out[n++] = e - from + shift;
+        }
+        return n == 0 ? NO_SPANS : Arrays.copyOf(out, n);
+    }
+
+    /** Push notification for a session whose risk score changed. */
+    public interface RiskListener {
+        void onRiskChanged(int riskScore, boolean isScam, String explanation);
+    }
+
+    /**
+     * Running analysis for one call. By default chunks are appended to the
+     * call transcript so patterns split across ASR chunks still combine.
+     * A windowed session ({@link #newSession(long, long)}) instead scores
+     * each chunk's hits with their timestamps over a sliding, decaying window.
+     *
+     * <p>A {@link RiskListener} is notified only when the score actually
+     * changes — there is nothing to poll.
+     */
+    public static final class Session {
+        private final ScamPatternEngine engine;
+        private final StringBuilder transcript = new StringBuilder(4 * 1024);
+        private KeywordScan scan;          // Layer 2 state carried across chunks
+        private HitWindow.ChunkHits found;     // this chunk's match
+        private HitWindow.ChunkHits counted;   // classic mode: hits tallied so far
+        private final HitWindow window;    // windowed mode only
+        private final long windowMs;
+        private final long halfLifeMs;
+        // Windowed mode: the end of the committed text, and what it matches on its own
+        private final StringBuilder carry = new StringBuilder();
+        private long carryTime;
+        private final HitWindow.ChunkHits carryHits;
+        private Result lastResult;
+        private int lastChunkStart, lastChunkEnd, lastChunkLead;
+        private int lastNotifiedScore = -1;
+        private boolean lastNotifiedScam;  // with lastNotifiedScore: what listeners were last told
+        private String lastNotifiedExplanation = "";
+        private int signalScore;           // strongest non-transcript signal so far
+        private String signalExplanation;
+        private final List<String> signalLabels = new ArrayList<>(2);
+        private RiskListener riskListener;
+        private Executor riskExecutor;
+
+        private Session(ScamPatternEngine engine, long windowMs, long halfLifeMs) {
+            this.engine = engine;
+            this.windowMs = windowMs;
+            this.halfLifeMs = halfLifeMs;
+            this.window = windowMs > 0
+                    ? new HitWindow(windowMs, WINDOW_BUCKET_MS, engine.phrasePoints.length,
+                            engine.patternCategories.size(), engine.archetypes.size(), INDICATOR_TAGS.length)
+                    : null;
+            int words = (engine.phrasePoints.length + 63) >>> 6;
+            this.carryHits = window != null ? new HitWindow.ChunkHits(words) : null;
+            if (window != null) this.found = new HitWindow.ChunkHits(words);
+        }
+
+        /**
+         * Receive score changes on {@code executor}. If the session already
+         * has a score, the listener is told about it right away.
+         */
+        public synchronized void setRiskListener(RiskListener listener, Executor executor) {
+            this.riskListener = listener;
+            this.riskExecutor = executor;
+            if (listener != null && lastNotifiedScore >= 0) {
+                // Replay what listeners were last told, not lastResult
+                final int score = lastNotifiedScore;
+                final boolean isScam = lastNotifiedScam;
+                final String explanation = lastNotifiedExplanation;
+                executor.execute(() -> listener.onRiskChanged(score, isScam, explanation));
+            }
+        }
+
+        /** Append a transcript chunk and re-score the call so far, timestamped now. */
+        public synchronized Result analyze(String chunk) {
+            return analyze(chunk, TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+        }
+
+        /**
+         * As {@link #analyze(String)}, with the chunk's time on any monotonic
+         * millisecond clock (only differences matter). Windowed sessions may
+         * also pass an empty chunk to let the score decay.
+         */
+        public synchronized Result analyze(String chunk, long timestampMs) {
+            return commit(window != null ? matchWindowed(chunk, timestampMs, false) : matchTranscript(chunk, timestampMs));
+        }
+
+        /**
+         * Commit a chunk scored elsewhere (e.g. by the backend). It is matched
+         * here as well, so the window, {@link #hasIndicator} and
+         * {@link #getLastChunkSpans} cover it; the result takes the higher of
+         * the two scores and both sets of labels.
+         */
+        public synchronized Result analyzeExternal(String chunk, long timestampMs, int riskScore, boolean isScam,
+                                                   String explanation, List<String> labels) {
+            Result local = window != null ? matchWindowed(chunk, timestampMs, false) : matchTranscript(chunk, timestampMs);
+            boolean remoteLouder = riskScore > local.getRiskScore();
+            List<String> merged = new ArrayList<>(local.getMatchedPatterns());
+            if (labels != null) {
+                for (String l : labels) {
+                    if (!merged.contains(l)) merged.add(l);
+                }
+            }
+            int score = Math.max(riskScore, local.getRiskScore());
+            return commit(new Result(local.isScam() || isScam, score, Math.max(local.getRiskFraction(), score / 100.0),
+                    merged, remoteLouder && explanation != null ? explanation : local.getExplanation(),
+                    local.getDebugDetails(), local.getMatchSpans()));
+        }
+
+        /** Classic mode: append {@code chunk} and match the whole transcript. */
+        private Result matchTranscript(String chunk, long timestampMs) {
+            lastChunkStart = lastChunkEnd = lastChunkLead = 0;
+            if (chunk != null && !chunk.trim().isEmpty()) {
+                if (transcript.length() > 0) transcript.append(' ');
+                String trimmed = chunk.trim();
+                lastChunkStart = transcript.length();
+                lastChunkLead = chunk.indexOf(trimmed.charAt(0));
+                transcript.append(trimmed);
+                lastChunkEnd = transcript.length();
+            }
+            if (scan == null) {
+                scan = engine.new KeywordScan();
+                int words = (engine.phrasePoints.length + 63) >>> 6;
+                found = new HitWindow.ChunkHits(words);
+                counted = new HitWindow.ChunkHits(words);
+            }
+            found.clear(timestampMs);
+            Result r = engine.analyze(transcript.toString(), scan, found);
+            if (chunk != null && !chunk.trim().isEmpty()) engine.tally(found, counted);
+            return r;
+        }
+
+        /**
+         * Score a streaming recognizer's partial hypothesis for the utterance
+         * in progress without committing it. Each partial replaces the one
+         * before, and the closing {@link #analyze(String, long)} replaces the
+         * last partial, so the growing utterance is never counted twice.
+         */
+        public synchronized Result analyzePartial(String partial, long timestampMs) {
+            if (window != null) return commit(matchWindowed(partial, timestampMs, true));
+            String text = transcript.length() == 0 ? partial : transcript + " " + partial;
+            lastChunkStart = transcript.length() == 0 ? 0 : transcript.length() + 1;
+            lastChunkEnd = text.length();
+            lastChunkLead = 0;
+            // Scored from scratch: the carried keyword scan only ever moves forward
+            return commit(engine.analyze(text, null, null));
+        }
+
+        /**
+         * Windowed mode: match {@code chunk} after the carried tail of the
+         * text before it, and record what the chunk added — hits the tail
+         * already had on its own stay with the earlier chunk's time. A
+         * partial only fills the window's pending slot.
+         */
+        private Result matchWindowed(String chunk, long timestampMs, boolean partial) {
+            int[] chunkSpans = NO_SPANS;
+            lastChunkStart = lastChunkLead = 0;
+            lastChunkEnd = chunk != null ? chunk.length() : 0;
+            // The next partial or the final replaces a pending partial (dropped if the utterance came to nothing)
+            window.dropPending();
+            if (chunk != null && !chunk.trim().isEmpty()) {
+                if (carry.length() > 0 && timestampMs - carryTime > windowMs) {
+                    carry.setLength(0);
+                    carryHits.clear(0);
+                }
+                int from = carry.length() == 0 ? 0 : carry.length() + 1;
+                String text = from == 0 ? chunk : carry + " " + chunk;
+                found.clear(timestampMs);
+                chunkSpans = clipSpans(engine.analyze(text, null, found).getMatchSpans(), from, text.length(), 0);
+                found.subtract(carryHits);
+                if (partial) {
+                    window.startPending(timestampMs).or(found);
+                } else {
+                    window.bucket(timestampMs).or(found);
+                    engine.tally(found, null);
+                    extendCarry(chunk, timestampMs);
+                }
+            }
+            return engine.scoreWindow(window, timestampMs, windowMs, halfLifeMs, chunkSpans);
+        }
+
+        /** Keep the last {@code carryChars} of committed text, from a word start, and re-match it. */
+        private void extendCarry(String chunk, long timestampMs) {
+            if (carry.length() > 0) carry.append(' ');
+            carry.append(chunk.trim());
+            int excess = carry.length() - engine.carryChars;
+            if (excess > 0) {
+                int cut = carry.indexOf(" ", excess);
+                carry.delete(0, cut < 0 ? carry.length() : cut + 1);
+            }
+            carryTime = timestampMs;
+            carryHits.clear(timestampMs);
+            if (carry.length() > 0) engine.analyze(carry.toString(), null, carryHits);
+        }
+
+        /**
+         * Add evidence that isn't in the transcript (e.g. a known scam
+         * recording heard on the line). It holds for the rest of the call:
+         * this and every later result scores at least {@code riskScore} and
+         * lists {@code label}, whatever the window decays to.
+         */
+        public synchronized Result reportSignal(String label, int riskScore, String explanation) {
+            if (!signalLabels.contains(label)) signalLabels.add(label);
+            if (riskScore > signalScore) {
+                signalScore = riskScore;
+                signalExplanation = explanation;
+            }
+            return commit(lastResult != null ? lastResult
+                    : new Result(false, 0, 0.0, Collections.emptyList(), "", Collections.emptyList()));
+        }
+
+        /** {@code r} with signals applied becomes the latest result; listeners hear of a new score. */
+        private Result commit(Result r) {
+            lastResult = withSignals(r);
+            publishIfChanged(lastResult.getRiskScore(), lastResult.isScam(), lastResult.getExplanation());
+            return lastResult;
+        }
+
+        private Result withSignals(Result r) {
+            if (signalLabels.isEmpty()) return r;
+            boolean louder = signalScore > r.getRiskScore();
+            if (!louder && r.getMatchedPatterns().containsAll(signalLabels)) return r;
+            int score = Math.max(signalScore, r.getRiskScore());
+            double fraction = Math.max(r.getRiskFraction(), score / 100.0);
+            List<String> labels = new ArrayList<>(r.getMatchedPatterns());
+            for (String l : signalLabels) {
+                if (!labels.contains(l)) labels.add(l);
+            }
+            return new Result(r.isScam() || fraction >= engine.scamThreshold, score, fraction, labels,
+                    louder ? signalExplanation : r.getExplanation(), r.getDebugDetails(), r.getMatchSpans());
+        }
+
+        /**
+         * Whether the latest result raised the indicator {@code tag} (e.g.
+         * {@code FINANCIAL_RISK}) — in a windowed session, within the window.
+         */
+        public synchronized boolean hasIndicator(String tag) {
+            String label = engine.labelForCategory(tag);
+            return label != null && lastResult != null && lastResult.getMatchedPatterns().contains(label);
+        }
+
+        /** Most recent result, or {@code null} before the first chunk. */
+        public synchronized Result getLastResult() { return lastResult; }
+
+        /**
+         * Match spans of the last {@link #analyze(String)} call that fall in
+         * that chunk, as offsets into the chunk string as passed in.
+         */
+        public synchronized int[] getLastChunkSpans() {
+            if (lastResult == null) return NO_SPANS;
+            return clipSpans(lastResult.getMatchSpans(), lastChunkStart, lastChunkEnd, lastChunkLead);
+        }
+
+        public ScamPatternEngine getEngine() { return engine; }
+
+        private void publishIfChanged(int score, boolean isScam, String explanation) {
+            if (score == lastNotifiedScore) return;
+            lastNotifiedScore = score;
+            lastNotifiedScam = isScam;
+            lastNotifiedExplanation = explanation != null ? explanation : "";
+            final RiskListener l = riskListener;
+            if (l != null) {
+                riskExecutor.execute(() -> l.onRiskChanged(score, isScam, explanation));
+            }
         }
     }
 
@@ -466,16 +1499,24 @@ public final class ScamPatternEngine {
         private final List<String> matchedPatterns;
         private final String explanation;
         private final List<String> debugDetails;
+        private final int[] matchSpans;
 
         public Result(boolean isScam, int riskScore, double riskFraction,
                       List<String> matchedPatterns, String explanation,
                       List<String> debugDetails) {
+            this(isScam, riskScore, riskFraction, matchedPatterns, explanation, debugDetails, NO_SPANS);
+        }
+
+        public Result(boolean isScam, int riskScore, double riskFraction,
+                      List<String> matchedPatterns, String explanation,
+                      List<String> debugDetails, int[] matchSpans) {
             this.isScam = isScam;
             this.riskScore = riskScore;
             this.riskFraction = riskFraction;
             this.matchedPatterns = Collections.unmodifiableList(new ArrayList<>(matchedPatterns));
             this.explanation = explanation;
             this.debugDetails = Collections.unmodifiableList(new ArrayList<>(debugDetails));
+            this.matchSpans = matchSpans;
         }
 
         public boolean isScam()                   { return isScam; }
@@ -484,5 +1525,12 @@ public final class ScamPatternEngine {
         public List<String> getMatchedPatterns()  { return matchedPatterns; }
         public String getExplanation()            { return explanation; }
         public List<String> getDebugDetails()     { return debugDetails; }
+
+        /**
+         * Matched text as sorted, merged {@code [start, end)} pairs into the
+         * analyzed string: {@code spans[2i]} start, {@code spans[2i+1]} end.
+         * Shared — do not modify.
+         */
+        public int[] getMatchSpans()              { return matchSpans; }
     }
 }
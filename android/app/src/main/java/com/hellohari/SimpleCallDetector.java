@@ -1,9 +1,6 @@
 package com.hellohari;
 
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.telephony.TelephonyManager;
 import android.util.Log;
 import android.widget.Toast;
@@ -11,7 +8,7 @@ import android.widget.Toast;
 public class SimpleCallDetector {
     private static final String TAG = "SimpleCallDetector";
     private Context context;
-    private BroadcastReceiver callReceiver;
+    private CallSessionCoordinator.Subscriber callSubscriber;
     private boolean isMonitoring = false;
     
     // Define constants for switch-case compatibility
@@ -40,37 +37,27 @@ public class SimpleCallDetector {
         }
 
         try {
-            callReceiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    String action = intent.getAction();
-                    Log.d(TAG, "Received broadcast: " + action);
-                    
-                    if (TelephonyManager.ACTION_PHONE_STATE_CHANGED.equals(action)) {
-                        String state = intent.getStringExtra(TelephonyManager.EXTRA_STATE);
-                        String phoneNumber = intent.getStringExtra(TelephonyManager.EXTRA_INCOMING_NUMBER);
-                        
-                        Log.d(TAG, "Phone state changed: " + state + ", Number: " + phoneNumber);
-                        
-                        // Show toast for testing
-                        showToast("Call State: " + state + (phoneNumber != null ? " from " + phoneNumber : ""));
-                        
-                        // Handle different call states
-                        handleCallStateChange(state, phoneNumber);
-                        
-                        // Notify listener
-                        if (listener != null) {
-                            listener.onCallStateChanged(state, phoneNumber);
-                        }
-                    }
+            callSubscriber = event -> {
+                String state = toLegacyState(event.getType());
+                if (state == null) return;
+                String phoneNumber = event.getPhoneNumber();
+
+                Log.d(TAG, "Phone state changed: " + state + ", Number: " + phoneNumber);
+
+                // Show toast for testing
+                showToast("Call State: " + state + (phoneNumber != null ? " from " + phoneNumber : ""));
+
+                // Handle different call states
+                handleCallStateChange(state, phoneNumber);
+
+                // Notify listener
+                if (listener != null) {
+                    listener.onCallStateChanged(state, phoneNumber);
                 }
             };
 
-            IntentFilter filter = new IntentFilter();
-            filter.addAction(TelephonyManager.ACTION_PHONE_STATE_CHANGED);
-            filter.setPriority(IntentFilter.SYSTEM_HIGH_PRIORITY);
-            
-            context.registerReceiver(callReceiver, filter);
+            // Shared telephony subscription — see CallSessionCoordinator
+            CallSessionCoordinator.getInstance(context).subscribe(callSubscriber);
             isMonitoring = true;
             
             Log.d(TAG, "Call detection started successfully");
@@ -85,14 +72,14 @@ public class SimpleCallDetector {
     }
 
     public boolean stopCallDetection() {
-        if (!isMonitoring || callReceiver == null) {
+        if (!isMonitoring || callSubscriber == null) {
             Log.d(TAG, "Call detection not running");
             return false;
         }
 
         try {
-            context.unregisterReceiver(callReceiver);
-            callReceiver = null;
+            CallSessionCoordinator.getInstance(context).unsubscribe(callSubscriber);
+            callSubscriber = null;
             isMonitoring = false;
             
             Log.d(TAG, "Call detection stopped");
@@ -109,6 +96,17 @@ public class SimpleCallDetector {
         return isMonitoring;
     }
 
+    /** Map coordinator events onto the EXTRA_STATE strings our listener expects. */
+    private static String toLegacyState(CallSessionCoordinator.EventType type) {
+        switch (type) {
+            case RINGING:  return STATE_RINGING;
+            case ANSWERED:
+            case OUTGOING: return STATE_OFFHOOK;
+            case ENDED:    return STATE_IDLE;
+            default:       return null;
+        }
+    }
+
     private void handleCallStateChange(String state, String phoneNumber) {
         // Use if-else instead of switch for string comparison
         if (STATE_RINGING.equals(state)) {
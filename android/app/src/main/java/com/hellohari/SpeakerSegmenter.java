@@ -0,0 +1,165 @@
+package com.hellohari;
+
+/**
+ * Energy-based two-speaker segmentation of a single speakerphone mic
+ * stream, for devices that won't give us the call's downlink separately.
+ *
+ * <p>With the call on speaker, the user talks into the mic from close by
+ * while the caller comes out of the loudspeaker and reaches the mic
+ * quieter. Each {@link #FRAME}-sample (20 ms at 16 kHz) frame's log energy
+ * is compared against a tracked noise floor ({@link Vad}) to find runs of
+ * speech between pauses. Syllables swing one speaker's frame energy by
+ * 10 dB or more, so it is the run's mean energy that is clustered online
+ * into a loud (near, the user) and a quiet (far, the caller) level. A run
+ * counts as the user once it is {@link #HOLD_FRAMES} frames long, the two
+ * levels are clearly apart and its mean sits well on the loud side; until
+ * then, and whenever in doubt, audio goes to the caller side, which is what
+ * the mixed stream did before.
+ *
+ * <p>{@link #process} passes caller speech and silence through (the
+ * backend's VAD needs the pauses) and drops the user's frames; those feed
+ * the {@link DigitCadenceDetector} instead. No allocation per call.
+ */
+final class SpeakerSegmenter {
+
+    static final int FRAME = 320;                    // 20 ms at 16 kHz
+    private static final int HOLD_FRAMES = 5;        // 100 ms of a run before it can be the user's
+    private static final int PAUSE_FRAMES = 8;       // 160 ms of silence ends a run
+    private static final double MIN_SEPARATION_DB = 6;
+    private static final double NEAR_MARGIN_DB = 2;
+    private static final double CENTROID_RATE = 0.2;  // per run
+
+    enum Label { SILENCE, FAR, NEAR }
+
+    private final Vad vad = new Vad();
+    private final DigitCadenceDetector cadence;
+    private final short[] frame = new short[FRAME];
+    private int framed;                               // samples in frame so far
+    private double nearDb = Double.NaN, farDb = Double.NaN;
+    private double runSumDb;                          // current speech run
+    private int runFrames, silentRun;
+    private long nearFrames, farFrames;
+    private boolean digitsPending;
+
+    SpeakerSegmenter(DigitCadenceDetector cadence) {
+        this.cadence = cadence;
+    }
+
+    /** Output {@link #process} may write for {@code n} input samples. */
+    static int maxOutput(int n) {
+        return n + FRAME;
+    }
+
+    /**
+     * Segment {@code in[0, n)}; the caller's side and silence are copied to
+     * {@code out}. A partial trailing frame is held back until the next call.
+     *
+     * @return samples written to {@code out}
+     */
+    int process(short[] in, int n, short[] out) {
+        int written = 0;
+        for (int i = 0; i < n; ) {
+            int take = Math.min(FRAME - framed, n - i);
+            System.arraycopy(in, i, frame, framed, take);
+            framed += take;
+            i += take;
+            if (framed < FRAME) break;
+            framed = 0;
+            Label l = classify(Vad.energyDb(frame, 0, FRAME));
+            if (cadence != null && cadence.onFrame(l == Label.NEAR)) digitsPending = true;
+            if (l != Label.NEAR) {
+                System.arraycopy(frame, 0, out, written, FRAME);
+                written += FRAME;
+            }
+        }
+        return written;
+    }
+
+    /** True once after the user's side looked like digits being read out. */
+    boolean takeDigitsDetected() {
+        boolean d = digitsPending;
+        digitsPending = false;
+        return d;
+    }
+
+    /** Share of speech frames attributed to the user so far, for diagnostics. */
+    double nearShare() {
+        long total = nearFrames + farFrames;
+        return total == 0 ? 0 : (double) nearFrames / total;
+    }
+
+    private Label classify(double db) {
+        if (!vad.isSpeech(db)) {
+            if (++silentRun == PAUSE_FRAMES) endRun();
+            return Label.SILENCE;
+        }
+        silentRun = 0;
+        runSumDb += db;
+        runFrames++;
+        if (runFrames < HOLD_FRAMES || Double.isNaN(nearDb) || nearDb - farDb < MIN_SEPARATION_DB) {
+            return Label.FAR;
+        }
+        return runSumDb / runFrames >= (nearDb + farDb) / 2 + NEAR_MARGIN_DB ? Label.NEAR : Label.FAR;
+    }
+
+    /** Fold the finished run's mean level into the nearer of the two speaker levels. */
+    private void endRun() {
+        if (runFrames >= HOLD_FRAMES) {
+            double mean = runSumDb / runFrames;
+            if (Double.isNaN(nearDb)) {
+                nearDb = farDb = mean;
+            } else if (nearDb == farDb) {
+                // One level so far: the first clearly different run seeds the other
+                if (Math.abs(mean - farDb) >= MIN_SEPARATION_DB) {
+                    nearDb = Math.max(mean, farDb);
+                    farDb = Math.min(mean, farDb);
+                } else {
+                    nearDb = farDb = farDb + CENTROID_RATE * (mean - farDb);
+                }
+            } else if (Math.abs(mean - nearDb) < Math.abs(mean - farDb)) {
+                nearDb += CENTROID_RATE * (mean - nearDb);
+            } else {
+                farDb += CENTROID_RATE * (mean - farDb);
+            }
+            if (nearDb < farDb) {
+                double t = nearDb;
+                nearDb = farDb;
+                farDb = t;
+            }
+            boolean near = nearDb - farDb >= MIN_SEPARATION_DB && mean >= (nearDb + farDb) / 2 + NEAR_MARGIN_DB;
+            if (near) nearFrames += runFrames;
+            else farFrames += runFrames;
+        }
+        runSumDb = 0;
+        runFrames = 0;
+    }
+
+    /**
+     * Frame energy against an adaptive noise floor: the floor follows drops
+     * at once and rises slowly (about 1 dB/s), so steady speech never
+     * becomes the floor.
+     */
+    static final class Vad {
+        private static final double SPEECH_ABOVE_FLOOR_DB = 9;
+        private static final double FLOOR_RISE_DB = 0.02;   // per frame
+
+        private double floorDb = Double.NaN;
+
+        boolean isSpeech(double db) {
+            if (Double.isNaN(floorDb) || db < floorDb) floorDb = db;
+            else floorDb += FLOOR_RISE_DB;
+            return db > floorDb + SPEECH_ABOVE_FLOOR_DB;
+        }
+
+        /** Mean-square energy of {@code pcm[from, from + n)} in dB relative to one LSB. */
+        static double energyDb(short[] pcm, int from, int n) {
+            long sum = 0;
+            for (int i = from; i < from + n; i++) sum += pcm[i] * pcm[i];
+            return toDb(sum, n);
+        }
+
+        static double toDb(long sumOfSquares, int n) {
+            return 10 * Math.log10(1 + (double) sumOfSquares / n);
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.hellohari;
 
 import android.util.Log;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
@@ -37,7 +41,8 @@ public final class StreamingAsrClient {
 
         /** Called for each transcription result from the backend. */
         void onTranscription(String text, String language, boolean isScam,
-                             double riskScore, String explanation);
+                             double riskScore, String explanation,
+                             List<String> matchedPatterns);
 
         /** Called when the backend reports silence (no speech detected). */
         void onSilence();
@@ -102,21 +107,25 @@ public final class StreamingAsrClient {
 
             @Override
             public void onMessage(WebSocket ws, String text) {
+                final long receivedAt = System.nanoTime();
                 try {
                     JSONObject msg = new JSONObject(text);
                     String type = msg.optString("type", "");
 
                     switch (type) {
                         case "transcription": {
+                            PipelineLatency.onTranscriptReceived(receivedAt);
                             String transcript = msg.optString("text", "");
                             String lang = msg.optString("language", "");
                             JSONObject analysis = msg.optJSONObject("scam_analysis");
                             boolean isScam = analysis != null && analysis.optBoolean("is_scam", false);
                             double score = analysis != null ? analysis.optDouble("risk_score", 0) : 0;
                             String explanation = analysis != null ? analysis.optString("explanation", "") : "";
+                            List<String> matched = toList(analysis != null
+                                    ? analysis.optJSONArray("matched_patterns") : null);
 
                             if (listener != null) {
-                                listener.onTranscription(transcript, lang, isScam, score, explanation);
+                                listener.onTranscription(transcript, lang, isScam, score, explanation, matched);
                             }
                             break;
                         }
@@ -180,6 +189,15 @@ public final class StreamingAsrClient {
         webSocket.send(ByteString.of(buf.array()));
     }
 
+    /**
+     * Bytes handed to {@link #sendAudio} (and control messages) that OkHttp
+     * has not yet written to the socket — grows when the uplink can't keep up.
+     */
+    public long queuedBytes() {
+        WebSocket ws = webSocket;
+        return ws != null ? ws.queueSize() : 0;
+    }
+
     /**
      * Signal the backend to stop, drain remaining queued chunks, and close.
      * After calling this, do NOT send more audio.
@@ -208,4 +226,11 @@ public final class StreamingAsrClient {
     public boolean isConnected() {
         return connected;
     }
+
+    private static List<String> toList(JSONArray arr) {
+        if (arr == null || arr.length() == 0) return Collections.emptyList();
+        List<String> out = new ArrayList<>(arr.length());
+        for (int i = 0; i < arr.length(); i++) out.add(arr.optString(i));
+        return out;
+    }
 }
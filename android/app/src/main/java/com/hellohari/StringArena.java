@@ -0,0 +1,67 @@
+package com.hellohari;
+
+import java.util.List;
+
+/**
+ * Immutable list of strings packed into one {@code char[]} with an offset
+ * table: two arrays however many strings, instead of a {@code String} (and
+ * its backing array) per entry. Chars are UTF-16, so entries compare
+ * directly against {@link String#charAt} and Indic text costs no more than
+ * in a {@code String}.
+ */
+final class StringArena {
+
+    private final char[] chars;
+    private final int[] offsets;   // entry i is chars[offsets[i], offsets[i + 1])
+
+    StringArena(List<String> strings) {
+        int total = 0;
+        for (String s : strings) total += s.length();
+        chars = new char[total];
+        offsets = new int[strings.size() + 1];
+        int at = 0;
+        for (int i = 0; i < strings.size(); i++) {
+            String s = strings.get(i);
+            s.getChars(0, s.length(), chars, at);
+            at += s.length();
+            offsets[i + 1] = at;
+        }
+    }
+
+    int size() {
+        return offsets.length - 1;
+    }
+
+    int length(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    char charAt(int i, int index) {
+        return chars[offsets[i] + index];
+    }
+
+    /** New {@code String} for entry {@code i} — for reporting, not the match path. */
+    String get(int i) {
+        return new String(chars, offsets[i], length(i));
+    }
+
+    /** First index of entry {@code i} in {@code text}, or -1; like {@link String#indexOf(String)}. */
+    int indexIn(String text, int i) {
+        final int off = offsets[i];
+        final int len = offsets[i + 1] - off;
+        if (len == 0) return 0;
+        final char first = chars[off];
+        final int max = text.length() - len;
+        for (int at = text.indexOf(first); at >= 0 && at <= max; at = text.indexOf(first, at + 1)) {
+            int j = 1;
+            while (j < len && text.charAt(at + j) == chars[off + j]) j++;
+            if (j == len) return at;
+        }
+        return -1;
+    }
+
+    /** Estimated heap bytes, see {@link HeapSize}. */
+    long footprint() {
+        return HeapSize.OBJECT + HeapSize.of(chars) + HeapSize.of(offsets);
+    }
+}
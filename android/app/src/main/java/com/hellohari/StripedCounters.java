@@ -0,0 +1,54 @@
+package com.hellohari;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed set of counters indexed by small int ids, striped across a few
+ * cells per id so concurrent analyzers don't contend on one cache line —
+ * the {@code LongAdder} idea without one object per counter.
+ *
+ * <p>Layout is stripe-major with each stripe padded to a whole number of
+ * 64-byte lines, so two stripes never share a line.
+ */
+final class StripedCounters {
+
+    private static final int LONGS_PER_LINE = 8;
+
+    private final int size;
+    private final int stride;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+
+    StripedCounters(int size) {
+        this.size = size;
+        this.stride = ((size + LONGS_PER_LINE - 1) / LONGS_PER_LINE + 1) * LONGS_PER_LINE;
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * stride);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void increment(int id) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        cells.getAndIncrement(stripe * stride + id);
+    }
+
+    /** Estimated heap bytes, see {@link HeapSize}. */
+    long footprint() {
+        return HeapSize.OBJECT * 2 + HeapSize.array(cells.length(), 8);
+    }
+
+    /** Sum every id's stripes into a new array and zero them. */
+    long[] drain() {
+        long[] out = new long[size];
+        for (int base = 0; base < cells.length(); base += stride) {
+            for (int id = 0; id < size; id++) {
+                if (cells.get(base + id) != 0) out[id] += cells.getAndSet(base + id, 0);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hellohari;
+
+/**
+ * Fixed-capacity ring of transcript rows, indexed newest-first.
+ *
+ * <p>Replaces {@code ArrayList.add(0, item)} (O(n) per chunk, unbounded)
+ * in the live transcript: {@link #addNewest(Object)} is O(1) and, once full,
+ * evicts and returns the oldest row so memory stays flat however long the
+ * call runs. Main-thread only — no synchronization.
+ */
+final class TranscriptRingBuffer<T> {
+
+    private final Object[] items;
+    private int head = 0;   // slot of the newest item
+    private int size = 0;
+
+    TranscriptRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * Insert at position 0.
+     *
+     * @return the evicted oldest item when the buffer was full, else {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    T addNewest(T item) {
+        head = (head - 1 + items.length) % items.length;
+        T evicted = null;
+        if (size == items.length) {
+            evicted = (T) items[head];     // oldest lived just behind the old head
+        } else {
+            size++;
+        }
+        items[head] = item;
+        return evicted;
+    }
+
+    /** @param index 0 = newest */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index + " / " + size);
+        return (T) items[(head + index) % items.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    void clear() {
+        for (int i = 0; i < items.length; i++) items[i] = null;
+        head = 0;
+        size = 0;
+    }
+}
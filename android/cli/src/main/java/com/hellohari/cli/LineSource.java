@@ -0,0 +1,132 @@
+package com.hellohari.cli;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Physical input lines, without the trailing {@code \n} / {@code \r\n}.
+ * Files are memory-mapped; stdin is read through a large buffer.
+ */
+interface LineSource extends Closeable {
+
+    /** Next line, or {@code null} at end of input. */
+    String next() throws IOException;
+
+    /** Bytes consumed so far (for throughput reporting). */
+    long bytesRead();
+
+    static LineSource open(String path) throws IOException {
+        if (path == null || "-".equals(path)) return new Stream(System.in);
+        return new Mapped(Path.of(path));
+    }
+
+    /**
+     * Walks a file through read-only mappings of up to {@link #WINDOW} bytes,
+     * so multi-GB corpora never go through a heap copy of the whole file —
+     * each line is decoded straight out of the page cache. A line that runs
+     * past the end of a window is picked up by remapping from its start.
+     */
+    final class Mapped implements LineSource {
+        private static final long WINDOW = 256L << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long pos;
+        private byte[] buf = new byte[8192];
+
+        Mapped(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            map(0, WINDOW);
+            // Skip a UTF-8 BOM (spreadsheet CSV exports)
+            if (size >= 3 && (window.get(0) & 0xFF) == 0xEF
+                    && (window.get(1) & 0xFF) == 0xBB && (window.get(2) & 0xFF) == 0xBF) {
+                pos = 3;
+            }
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (pos >= size) return null;
+            long length = WINDOW;
+            while (true) {
+                int off = (int) (pos - windowStart);
+                int limit = window.limit();
+                int i = off;
+                while (i < limit && window.get(i) != '\n') i++;
+                boolean eof = windowStart + limit == size;
+                if (i < limit || eof) {
+                    pos = windowStart + i + 1;
+                    int end = i;
+                    if (end > off && window.get(end - 1) == '\r') end--;
+                    return decode(off, end - off);
+                }
+                // Line continues past this window
+                if (off == 0) {
+                    if (length >= Integer.MAX_VALUE) throw new IOException("Line over 2 GB at offset " + pos);
+                    length = Math.min(length * 2, Integer.MAX_VALUE);
+                }
+                map(pos, length);
+            }
+        }
+
+        private void map(long start, long length) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+            windowStart = start;
+        }
+
+        private String decode(int off, int len) {
+            if (len > buf.length) buf = new byte[Math.max(len, buf.length * 2)];
+            window.get(off, buf, 0, len);
+            return new String(buf, 0, len, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public long bytesRead() {
+            return Math.min(pos, size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+
+    /** Pipes and stdin — anything that can't be mapped. */
+    final class Stream implements LineSource {
+        private final BufferedReader reader;
+        private long bytes;
+
+        Stream(InputStream in) {
+            reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 20);
+        }
+
+        @Override
+        public String next() throws IOException {
+            String line = reader.readLine();
+            if (line != null) bytes += line.length() + 1;   // chars, close enough for a rate
+            return line;
+        }
+
+        @Override
+        public long bytesRead() {
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.hellohari.cli;
+
+import com.hellohari.PolyphaseResampler;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Accuracy and throughput of {@link PolyphaseResampler} for the rate pairs
+ * the app meets (recorder 44.1 / 48 kHz, telephony 8 kHz → 16 kHz).
+ *
+ * <p>Accuracy is measured against an analytic reference: a sum of
+ * pass-band tones is resampled and compared with the same tones evaluated
+ * at the output instants (shifted by the filter delay), giving an SNR that
+ * covers pass-band ripple, images, aliasing and rounding. For downsampling,
+ * a tone above the output Nyquist rate must also be rejected. Throughput
+ * runs a minute of audio through in capture-sized blocks, best of several
+ * runs after warm-up.
+ */
+final class ResamplerCheck {
+
+    static final int[] INPUT_RATES = {44100, 48000, 8000};
+    private static final int OUTPUT_RATE = 16000;
+    private static final double MIN_SNR_DB = 60;
+    private static final double MIN_REJECTION_DB = 60;
+    private static final int BLOCK = 4096;
+
+    private ResamplerCheck() {}
+
+    /** Prints one line per rate pair; false if any misses its accuracy bound. */
+    static boolean run(int runs) {
+        boolean ok = true;
+        System.out.printf(Locale.ROOT, "%-15s %5s %9s %12s %10s %12s%n",
+                "rates", "taps", "snr dB", "reject dB", "Msamp/s", "x realtime");
+        for (int rate : INPUT_RATES) {
+            double snr = passbandSnr(rate);
+            double reject = rate > OUTPUT_RATE ? stopbandRejection(rate) : Double.NaN;
+            double msps = throughput(rate, runs);
+            boolean pass = snr >= MIN_SNR_DB && (Double.isNaN(reject) || reject >= MIN_REJECTION_DB);
+            ok &= pass;
+            System.out.printf(Locale.ROOT, "%5d -> %-5d %5d %9.1f %12s %10.1f %12.0f  %s%n",
+                    rate, OUTPUT_RATE, new PolyphaseResampler(rate, OUTPUT_RATE).taps(), snr,
+                    Double.isNaN(reject) ? "-" : String.format(Locale.ROOT, "%.1f", reject),
+                    msps, msps * 1e6 / rate, pass ? "ok" : "FAIL");
+        }
+        return ok;
+    }
+
+    /** Tones comfortably inside the pass band of both rates. */
+    private static double[] tones(int inRate) {
+        return inRate < OUTPUT_RATE
+                ? new double[] {300, 1000, 1700, 2500, 2900}
+                : new double[] {300, 1000, 2500, 4000, 5500};
+    }
+
+    private static double passbandSnr(int inRate) {
+        double[] freqs = tones(inRate);
+        double amp = 30000.0 / freqs.length;
+        short[] in = new short[inRate * 2];
+        for (int i = 0; i < in.length; i++) in[i] = (short) Math.round(sumOfTones(freqs, amp, (double) i / inRate));
+
+        PolyphaseResampler r = new PolyphaseResampler(inRate, OUTPUT_RATE);
+        short[] out = resampleAll(r, in);
+        double delay = r.delaySeconds();
+        // Skip the filter's warm-up at both ends, where the reference tones have no input behind them
+        int edge = r.taps() * OUTPUT_RATE / Math.min(inRate, OUTPUT_RATE) + 1;
+        double signal = 0, noise = 0;
+        for (int k = edge; k < out.length - edge; k++) {
+            double ref = sumOfTones(freqs, amp, (double) k / OUTPUT_RATE - delay);
+            signal += ref * ref;
+            noise += (out[k] - ref) * (out[k] - ref);
+        }
+        return 10 * Math.log10(signal / Math.max(noise, 1e-9));
+    }
+
+    /**
+     * A 9 kHz tone has no place at 16 kHz; how far below the input it comes
+     * out, floored at the output's own rounding noise (1/12 LSB²).
+     */
+    private static double stopbandRejection(int inRate) {
+        short[] in = new short[inRate * 2];
+        for (int i = 0; i < in.length; i++) in[i] = (short) Math.round(20000 * Math.sin(2 * Math.PI * 9000 * i / inRate));
+        short[] out = resampleAll(new PolyphaseResampler(inRate, OUTPUT_RATE), in);
+        return 10 * Math.log10(meanSquare(in, 0, in.length) / Math.max(meanSquare(out, 100, out.length - 100), 1.0 / 12));
+    }
+
+    private static double throughput(int inRate, int runs) {
+        short[] in = new short[BLOCK];
+        for (int i = 0; i < in.length; i++) in[i] = (short) (8000 * Math.sin(i * 0.05));
+        PolyphaseResampler r = new PolyphaseResampler(inRate, OUTPUT_RATE);
+        short[] out = new short[r.maxOutput(BLOCK)];
+        int blocks = inRate * 60 / BLOCK;
+        long best = Long.MAX_VALUE, sink = 0;
+        for (int run = -2; run < runs; run++) {          // two warm-up runs for the JIT
+            long start = System.nanoTime();
+            for (int b = 0; b < blocks; b++) sink += r.process(in, 0, BLOCK, out, 0);
+            long elapsed = System.nanoTime() - start;
+            if (run >= 0) best = Math.min(best, elapsed);
+        }
+        if (sink == 0) throw new AssertionError();
+        return (double) blocks * BLOCK / best * 1e3;
+    }
+
+    private static short[] resampleAll(PolyphaseResampler r, short[] in) {
+        short[] out = new short[r.maxOutput(in.length) + r.maxOutput(r.taps())];
+        int n = 0;
+        for (int off = 0; off < in.length; off += BLOCK) {
+            n += r.process(in, off, Math.min(BLOCK, in.length - off), out, n);
+        }
+        n += r.flush(out, n);
+        return Arrays.copyOf(out, n);
+    }
+
+    private static double sumOfTones(double[] freqs, double amp, double t) {
+        double v = 0;
+        for (double f : freqs) v += amp * Math.sin(2 * Math.PI * f * t);
+        return v;
+    }
+
+    private static double meanSquare(short[] a, int from, int to) {
+        double s = 0;
+        for (int i = from; i < to; i++) s += (double) a[i] * a[i];
+        return s / Math.max(1, to - from);
+    }
+}
@@ -0,0 +1,696 @@
+package com.hellohari.cli;
+
+import com.hellohari.AudioFingerprinter;
+import com.hellohari.FingerprintIndex;
+import com.hellohari.FingerprintMatcher;
+import com.hellohari.OfflineAsr;
+import com.hellohari.PolyphaseResampler;
+import com.hellohari.ScamPatternEngine;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.vosk.Model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Command-line front end for {@link ScamPatternEngine}, for offline
+ * evaluation and pattern tuning on a workstation or server.
+ *
+ * <pre>
+ *   score [input] [--format jsonl|csv|text] [--text-field text] [--id-field id]
+ *         [--out file] [--threads N] [--patterns patterns.json] [--details] [--hits file]
+ *   bench [--input file] [--count N] [--threads 1,2,4] [--runs N] [--patterns patterns.json]
+ *   footprint [--budget BYTES] [--patterns patterns.json]
+ *   transcribe call.wav --model DIR [--out file] [--patterns patterns.json]
+ *   resample in.wav --out out.wav [--rate 16000]
+ *   resample --check [--runs N]
+ *   fingerprint rec.wav [rec.wav ...] --out index.fpi [--score N]
+ *   fingerprint call.wav --index index.fpi
+ * </pre>
+ *
+ * <p>{@code score} streams records from a file (memory-mapped) or stdin and
+ * writes one JSON result per line, in input order. Records are scored in
+ * batches on a fork-join pool; the next batch is read while the current one
+ * is scored, so a large corpus runs at whichever is slower of the disk and
+ * the cores. {@code bench} reports throughput per thread count against the
+ * sequential baseline, checking that parallel results are identical.
+ * {@code footprint} prints the compiled model's estimated heap and exits
+ * non-zero over budget, so a growing bundle can be gated in CI.
+ * {@code transcribe} runs a recorded call through the phone's offline path —
+ * the on-device recognizer in capture-sized frames, partials scored by a
+ * windowed session as they change — and writes one JSON line per partial
+ * and final transcript; recordings at other rates are resampled to 16 kHz
+ * on the way in. {@code resample} converts a WAV file with the same
+ * {@link PolyphaseResampler}, or with {@code --check} measures its accuracy
+ * against an analytic reference and its throughput, exiting non-zero if
+ * accuracy regresses. {@code fingerprint} builds the app's index of known
+ * scam recordings ({@code assets/scam_fingerprints.fpi}) from WAV files,
+ * each named after its file, or with {@code --index} plays a call through
+ * the phone's matcher and prints when each known recording is recognized.
+ *
+ * <p>The bundle defaults to the app's {@code assets/patterns.json}, packed
+ * into the jar; {@code --patterns} scores with a candidate bundle instead.
+ */
+public final class ScoreCli {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int EXIT_USAGE = 2;
+    /** Default heap budget for the compiled model — it stays resident in the call service. */
+    private static final long FOOTPRINT_BUDGET = 3L << 20;
+    // transcribe: as on the phone (AsrManager) — 16 kHz, 4096-sample reads, 5 min window, 2 min half-life
+    private static final int ASR_SAMPLE_RATE = 16000;
+    private static final int ASR_FRAME = 4096;
+    private static final long SCORE_WINDOW_MS = 5 * 60_000L;
+    private static final long SCORE_HALF_LIFE_MS = 2 * 60_000L;
+
+    private static final String USAGE = String.join("\n",
+            "usage: cli score [input|-] [options]",
+            "         --format jsonl|csv|text   input format (default: from extension, else jsonl)",
+            "         --text-field NAME         transcript field / CSV column (default: text)",
+            "         --id-field NAME           id field / CSV column (default: id)",
+            "         --out FILE                write results here instead of stdout",
+            "         --threads N               scoring threads (default: all cores)",
+            "         --patterns FILE           score with this bundle instead of the built-in one",
+            "         --details                 include the engine's per-hit debug lines",
+            "         --hits FILE               write per-pattern hit counts as JSON when done",
+            "       cli bench [options]",
+            "         --input FILE              corpus to time (default: synthetic from the bundle)",
+            "         --count N                 texts per run (default: 20000)",
+            "         --threads LIST            thread counts, e.g. 1,2,4,8 (default: powers of two up to all cores)",
+            "         --runs N                  timed runs per thread count, best is kept (default: 3)",
+            "         --patterns FILE",
+            "       cli footprint [options]",
+            "         --budget BYTES            fail above this estimated model heap (default: 3 MiB)",
+            "         --patterns FILE",
+            "       cli transcribe call.wav --model DIR [options]",
+            "         --model DIR               unpacked Vosk model (e.g. vosk-model-small-hi-0.22)",
+            "         --out FILE                write transcript events here instead of stdout",
+            "         --patterns FILE",
+            "       cli resample in.wav --out out.wav [options]",
+            "         --rate HZ                 output sample rate (default: 16000)",
+            "       cli resample --check [--runs N]",
+            "         --check                   accuracy vs an analytic reference, and throughput",
+            "       cli fingerprint rec.wav [rec.wav ...] --out index.fpi [--score N]",
+            "         --score N                 risk score a match reports (default: 90)",
+            "       cli fingerprint call.wav --index index.fpi",
+            "         --index FILE              match against this index instead of building one");
+
+    private ScoreCli() {}
+
+    public static void main(String[] args) {
+        if (args.length == 0 || "-h".equals(args[0]) || "--help".equals(args[0])) {
+            System.err.println(USAGE);
+            System.exit(args.length == 0 ? EXIT_USAGE : 0);
+        }
+        try {
+            Options opts = Options.parse(args);
+            if ("resample".equals(opts.command)) {
+                // No pattern bundle involved
+                if (!resample(opts)) System.exit(1);
+                return;
+            }
+            if ("fingerprint".equals(opts.command)) {
+                if (opts.index != null) {
+                    if (!matchFingerprints(opts)) System.exit(1);
+                } else {
+                    buildFingerprints(opts);
+                }
+                return;
+            }
+            ScamPatternEngine engine = ScamPatternEngine.fromJson(loadBundle(opts.patterns));
+            System.err.println("patterns: " + engine.getPatternCount() + " phrases, bundle "
+                    + engine.getGeneratedAt());
+            if ("bench".equals(opts.command)) {
+                bench(engine, opts);
+            } else if ("footprint".equals(opts.command)) {
+                if (!footprint(engine, opts)) System.exit(1);
+            } else if ("transcribe".equals(opts.command)) {
+                transcribe(engine, opts);
+            } else {
+                score(engine, opts);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+        } catch (IOException | JSONException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // ---- score ----
+
+    private static void score(ScamPatternEngine engine, Options opts) throws IOException {
+        TranscriptReader.Format format = opts.format != null
+                ? opts.format : TranscriptReader.guessFormat(opts.input);
+        ForkJoinPool pool = new ForkJoinPool(opts.threads);
+        long started = System.nanoTime();
+        long records = 0, scams = 0, errors = 0;
+
+        try (TranscriptReader reader = new TranscriptReader(LineSource.open(opts.input),
+                     format, opts.textField, opts.idField);
+             Writer out = openOutput(opts.out)) {
+            List<TranscriptReader.Record> batch = reader.readBatch(BATCH_SIZE);
+            ForkJoinTask<List<ScamPatternEngine.Result>> scoring = submit(engine, pool, batch);
+            while (!batch.isEmpty()) {
+                // Read ahead while the pool scores the current batch
+                List<TranscriptReader.Record> next = reader.readBatch(BATCH_SIZE);
+                List<ScamPatternEngine.Result> results = scoring.join();
+                scoring = submit(engine, pool, next);
+
+                StringBuilder sb = new StringBuilder(256);
+                for (int i = 0; i < batch.size(); i++) {
+                    TranscriptReader.Record r = batch.get(i);
+                    sb.setLength(0);
+                    if (r.error != null) {
+                        errors++;
+                        appendError(sb, r);
+                    } else {
+                        ScamPatternEngine.Result res = results.get(i);
+                        if (res.isScam()) scams++;
+                        appendResult(sb, r, res, opts.details);
+                    }
+                    out.write(sb.append('\n').toString());
+                }
+                records += batch.size();
+                batch = next;
+            }
+
+            double secs = (System.nanoTime() - started) / 1e9;
+            System.err.printf(Locale.ROOT,
+                    "scored %d records (%d scam, %d errors) in %.1f s - %.0f records/s, %.1f MB/s, %d threads%n",
+                    records, scams, errors, secs, records / secs,
+                    reader.bytesRead() / 1e6 / secs, opts.threads);
+        } finally {
+            pool.shutdown();
+        }
+
+        if (opts.hits != null) writeHits(engine, Path.of(opts.hits));
+    }
+
+    private static ForkJoinTask<List<ScamPatternEngine.Result>> submit(
+            ScamPatternEngine engine, ForkJoinPool pool, List<TranscriptReader.Record> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (TranscriptReader.Record r : batch) texts.add(r.text);   // null for bad records
+        return pool.submit(() -> engine.analyzeAll(texts, pool));
+    }
+
+    private static void appendResult(StringBuilder sb, TranscriptReader.Record r,
+                                     ScamPatternEngine.Result res, boolean details) {
+        sb.append("{\"id\":");
+        appendId(sb, r.id);
+        sb.append(",\"risk_score\":").append(res.getRiskScore())
+          .append(",\"risk\":").append(res.getRiskFraction())
+          .append(",\"is_scam\":").append(res.isScam())
+          .append(",\"patterns\":");
+        appendStrings(sb, res.getMatchedPatterns());
+        sb.append(",\"explanation\":").append(JSONObject.quote(res.getExplanation()));
+        if (details) {
+            sb.append(",\"details\":");
+            appendStrings(sb, res.getDebugDetails());
+        }
+        sb.append('}');
+    }
+
+    private static void appendError(StringBuilder sb, TranscriptReader.Record r) {
+        sb.append("{\"id\":");
+        appendId(sb, r.id);
+        sb.append(",\"error\":").append(JSONObject.quote(r.error)).append('}');
+    }
+
+    private static void appendId(StringBuilder sb, Object id) {
+        if (id instanceof Number) sb.append(JSONObject.numberToString((Number) id));
+        else sb.append(JSONObject.quote(id.toString()));
+    }
+
+    private static void appendStrings(StringBuilder sb, List<String> items) {
+        sb.append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(JSONObject.quote(items.get(i)));
+        }
+        sb.append(']');
+    }
+
+    /** Hit counts, most frequent first — what actually fires on this corpus. */
+    private static void writeHits(ScamPatternEngine engine, Path path) throws IOException {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(engine.drainHitCounts().entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        StringBuilder sb = new StringBuilder("{\n");
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<String, Long> e = entries.get(i);
+            sb.append("  ").append(JSONObject.quote(e.getKey())).append(": ").append(e.getValue())
+              .append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        sb.append("}\n");
+        Files.writeString(path, sb.toString(), StandardCharsets.UTF_8);
+        System.err.println("hit counts: " + path);
+    }
+
+    // ---- bench ----
+
+    private static void bench(ScamPatternEngine engine, Options opts) throws IOException, JSONException {
+        List<String> corpus = opts.input != null
+                ? readCorpus(opts) : syntheticCorpus(loadBundle(opts.patterns), opts.count);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.err.printf(Locale.ROOT, "%d texts, %d cores, best of %d runs%n",
+                corpus.size(), cores, opts.runs);
+
+        // Sequential baseline — also the reference for the parity check
+        List<ScamPatternEngine.Result> expected = new ArrayList<>(corpus.size());
+        for (String t : corpus) expected.add(engine.analyze(t));
+        long seqBest = Long.MAX_VALUE;
+        for (int run = 0; run < opts.runs; run++) {
+            long t0 = System.nanoTime();
+            for (String t : corpus) engine.analyze(t);
+            seqBest = Math.min(seqBest, System.nanoTime() - t0);
+        }
+        double seqRate = corpus.size() / (seqBest / 1e9);
+
+        PrintStream out = System.out;
+        out.printf(Locale.ROOT, "%-10s %12s %9s %11s %7s%n",
+                "threads", "texts/s", "speedup", "efficiency", "parity");
+        out.printf(Locale.ROOT, "%-10s %12.0f %8.2fx %10.0f%% %7s%n",
+                "sequential", seqRate, 1.0, 100.0, "-");
+
+        for (int threads : opts.threadList(cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<ScamPatternEngine.Result> results = engine.analyzeAll(corpus, pool);   // warm-up
+                boolean parity = sameResults(expected, results);
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < opts.runs; run++) {
+                    long t0 = System.nanoTime();
+                    engine.analyzeAll(corpus, pool);
+                    best = Math.min(best, System.nanoTime() - t0);
+                }
+                double rate = corpus.size() / (best / 1e9);
+                out.printf(Locale.ROOT, "%-10d %12.0f %8.2fx %10.0f%% %7s%n",
+                        threads, rate, rate / seqRate, 100.0 * rate / seqRate / threads, parity);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // ---- footprint ----
+
+    private static boolean footprint(ScamPatternEngine engine, Options opts) {
+        long bytes = engine.getMemoryFootprint();
+        boolean ok = bytes <= opts.budget;
+        System.out.printf(Locale.ROOT, "model heap: %d bytes (%.1f KiB, %.0f bytes/phrase), budget %d: %s%n",
+                bytes, bytes / 1024.0, (double) bytes / Math.max(1, engine.getPatternCount()),
+                opts.budget, ok ? "ok" : "OVER");
+        return ok;
+    }
+
+    // ---- transcribe ----
+
+    private static void transcribe(ScamPatternEngine engine, Options opts) throws IOException {
+        if (opts.input == null || opts.model == null) {
+            throw new IllegalArgumentException("transcribe needs a WAV file and --model");
+        }
+        long loadStart = System.nanoTime();
+        Model model = OfflineAsr.loadModel(new File(opts.model));
+        System.err.printf(Locale.ROOT, "model: %s loaded in %.1f s%n",
+                opts.model, (System.nanoTime() - loadStart) / 1e9);
+
+        ScamPatternEngine.Session session = engine.newSession(SCORE_WINDOW_MS, SCORE_HALF_LIFE_MS);
+        long[] audioMs = new long[1];
+        int[] peak = new int[1];
+        try (WavReader wav = new WavReader(Path.of(opts.input));
+             Writer out = openOutput(opts.out)) {
+            // Recorder output is 44.1 / 48 kHz; the recognizer takes what AudioRecord captures
+            PolyphaseResampler resampler = wav.sampleRate() != ASR_SAMPLE_RATE
+                    ? new PolyphaseResampler(wav.sampleRate(), ASR_SAMPLE_RATE) : null;
+            if (resampler != null) {
+                System.err.printf(Locale.ROOT, "resampling %d -> %d Hz%n", wav.sampleRate(), ASR_SAMPLE_RATE);
+            }
+            OfflineAsr.Listener events = (text, isFinal, result, spans) -> {
+                peak[0] = Math.max(peak[0], result.getRiskScore());
+                StringBuilder sb = new StringBuilder(256);
+                sb.append("{\"t_ms\":").append(audioMs[0])
+                        .append(",\"final\":").append(isFinal)
+                        .append(",\"text\":").append(JSONObject.quote(text))
+                        .append(",\"risk_score\":").append(result.getRiskScore())
+                        .append(",\"is_scam\":").append(result.isScam())
+                        .append(",\"matched_patterns\":");
+                appendStrings(sb, result.getMatchedPatterns());
+                try {
+                    out.write(sb.append("}\n").toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            long started = System.nanoTime();
+            short[] read = new short[ASR_FRAME];
+            short[] frame = resampler != null
+                    ? new short[Math.max(resampler.maxOutput(ASR_FRAME), resampler.maxOutput(resampler.taps()))] : read;
+            long samples = 0;
+            try (OfflineAsr asr = new OfflineAsr(model, ASR_SAMPLE_RATE, session, events)) {
+                // Audio time is the session clock, so windowing matches a live call
+                for (int got; (got = wav.read(read)) > 0; ) {
+                    int n = resampler != null ? resampler.process(read, 0, got, frame, 0) : got;
+                    if (n == 0) continue;
+                    samples += n;
+                    audioMs[0] = samples * 1000 / ASR_SAMPLE_RATE;
+                    asr.accept(frame, n, audioMs[0]);
+                }
+                // The filter still holds the last few milliseconds of the file
+                int tail = resampler != null ? resampler.flush(frame, 0) : 0;
+                if (tail > 0) {
+                    samples += tail;
+                    audioMs[0] = samples * 1000 / ASR_SAMPLE_RATE;
+                    asr.accept(frame, tail, audioMs[0]);
+                }
+                asr.finish(audioMs[0]);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            double secs = (System.nanoTime() - started) / 1e9;
+            System.err.printf(Locale.ROOT,
+                    "transcribed %.1f s of audio in %.1f s (real-time factor %.2f), peak risk %d%n",
+                    audioMs[0] / 1000.0, secs, secs * 1000 / Math.max(1, audioMs[0]), peak[0]);
+        }
+    }
+
+    // ---- resample ----
+
+    private static boolean resample(Options opts) throws IOException {
+        if (opts.check) return ResamplerCheck.run(opts.runs);
+        if (opts.input == null || opts.out == null) {
+            throw new IllegalArgumentException("resample needs a WAV file and --out");
+        }
+        long started = System.nanoTime();
+        long written = 0;
+        try (WavReader wav = new WavReader(Path.of(opts.input));
+             WavWriter out = new WavWriter(Path.of(opts.out), opts.rate)) {
+            PolyphaseResampler r = new PolyphaseResampler(wav.sampleRate(), opts.rate);
+            short[] in = new short[ASR_FRAME];
+            short[] buf = new short[Math.max(r.maxOutput(in.length), r.maxOutput(r.taps()))];
+            for (int got; (got = wav.read(in)) > 0; ) {
+                int n = r.process(in, 0, got, buf, 0);
+                out.write(buf, n);
+                written += n;
+            }
+            int n = r.flush(buf, 0);
+            out.write(buf, n);
+            written += n;
+            System.err.printf(Locale.ROOT, "%d -> %d Hz: %.1f s of audio in %.2f s (%d taps, delay %.2f ms)%n",
+                    wav.sampleRate(), opts.rate, (double) written / opts.rate,
+                    (System.nanoTime() - started) / 1e9, r.taps(), r.delaySeconds() * 1e3);
+        }
+        return true;
+    }
+
+    // ---- fingerprint ----
+
+    private static void buildFingerprints(Options opts) throws IOException {
+        if (opts.inputs.isEmpty() || opts.out == null) {
+            throw new IllegalArgumentException("fingerprint needs WAV files and --out (or --index to match)");
+        }
+        FingerprintIndex.Builder builder = new FingerprintIndex.Builder();
+        for (String file : opts.inputs) {
+            String name = Path.of(file).getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            builder.begin(name, opts.score);
+            readAt16k(file, (pcm, n) -> builder.add(pcm, 0, n));
+            int frames = builder.end();
+            System.err.printf(Locale.ROOT, "%-40s %7.1f s%n", name, AudioFingerprinter.frameSeconds(frames));
+        }
+        try (OutputStream out = Files.newOutputStream(Path.of(opts.out))) {
+            builder.write(out);
+        }
+        FingerprintIndex index = readIndex(opts.out);
+        System.err.printf(Locale.ROOT, "%s: %d recordings, %d landmarks, %d KiB%n", opts.out,
+                index.recordingCount(), index.entryCount(), Files.size(Path.of(opts.out)) / 1024);
+    }
+
+    /** @return whether any known recording was recognized */
+    private static boolean matchFingerprints(Options opts) throws IOException {
+        if (opts.inputs.size() != 1) throw new IllegalArgumentException("fingerprint --index needs one WAV file");
+        FingerprintIndex index = readIndex(opts.index);
+        FingerprintMatcher matcher = new FingerprintMatcher(index);
+        AudioFingerprinter fingerprinter = new AudioFingerprinter(matcher);
+        int[] found = new int[1];
+        long started = System.nanoTime();
+        // Fed in capture-sized reads, as on the phone
+        readAt16k(opts.inputs.get(0), (pcm, n) -> {
+            fingerprinter.process(pcm, 0, n);
+            for (int r; (r = matcher.takeMatch()) >= 0; ) {
+                found[0]++;
+                System.out.printf(Locale.ROOT, "{\"t_ms\":%d,\"recording\":%s,\"score\":%d}%n",
+                        Math.round(AudioFingerprinter.frameSeconds(fingerprinter.frames()) * 1000),
+                        JSONObject.quote(index.name(r)), index.score(r));
+            }
+        });
+        System.err.printf(Locale.ROOT, "%.1f s of audio matched in %.2f s against %d recordings: %d recognized%n",
+                AudioFingerprinter.frameSeconds(fingerprinter.frames()), (System.nanoTime() - started) / 1e9,
+                index.recordingCount(), found[0]);
+        return found[0] > 0;
+    }
+
+    private static FingerprintIndex readIndex(String path) throws IOException {
+        try (FileChannel ch = FileChannel.open(Path.of(path))) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return FingerprintIndex.read(buf);
+        }
+    }
+
+    private interface PcmSink {
+        void accept(short[] pcm, int n) throws IOException;
+    }
+
+    /** Stream a WAV file as 16 kHz mono in {@link #ASR_FRAME}-sample reads, resampling if needed. */
+    private static void readAt16k(String file, PcmSink sink) throws IOException {
+        try (WavReader wav = new WavReader(Path.of(file))) {
+            PolyphaseResampler resampler = wav.sampleRate() != ASR_SAMPLE_RATE
+                    ? new PolyphaseResampler(wav.sampleRate(), ASR_SAMPLE_RATE) : null;
+            short[] read = new short[ASR_FRAME];
+            short[] frame = resampler != null
+                    ? new short[Math.max(resampler.maxOutput(ASR_FRAME), resampler.maxOutput(resampler.taps()))] : read;
+            for (int got; (got = wav.read(read)) > 0; ) {
+                int n = resampler != null ? resampler.process(read, 0, got, frame, 0) : got;
+                if (n > 0) sink.accept(frame, n);
+            }
+            int tail = resampler != null ? resampler.flush(frame, 0) : 0;
+            if (tail > 0) sink.accept(frame, tail);
+        }
+    }
+
+    private static boolean sameResults(List<ScamPatternEngine.Result> a, List<ScamPatternEngine.Result> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            ScamPatternEngine.Result x = a.get(i), y = b.get(i);
+            if (x.getRiskScore() != y.getRiskScore() || x.isScam() != y.isScam()
+                    || !x.getMatchedPatterns().equals(y.getMatchedPatterns())
+                    || !x.getDebugDetails().equals(y.getDebugDetails())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** First {@code count} texts of the input, repeated if it is shorter. */
+    private static List<String> readCorpus(Options opts) throws IOException {
+        TranscriptReader.Format format = opts.format != null
+                ? opts.format : TranscriptReader.guessFormat(opts.input);
+        List<String> texts = new ArrayList<>();
+        try (TranscriptReader reader = new TranscriptReader(LineSource.open(opts.input),
+                format, opts.textField, opts.idField)) {
+            TranscriptReader.Record r;
+            while (texts.size() < opts.count && (r = reader.next()) != null) {
+                if (r.text != null) texts.add(r.text);
+            }
+        }
+        if (texts.isEmpty()) throw new IOException("No transcripts in " + opts.input);
+        for (int i = 0; texts.size() < opts.count; i++) texts.add(texts.get(i));
+        return texts;
+    }
+
+    /**
+     * Call-like filler with bundle phrases and archetype keywords mixed into
+     * about half the texts, so every engine layer gets exercised. Seeded, so
+     * runs are comparable.
+     */
+    private static List<String> syntheticCorpus(JSONObject bundle, int count) throws JSONException {
+        List<String> phrases = new ArrayList<>();
+        JSONArray cats = bundle.getJSONArray("pattern_categories");
+        for (int i = 0; i < cats.length(); i++) {
+            Iterator<String> it = cats.getJSONObject(i).getJSONObject("patterns").keys();
+            while (it.hasNext()) phrases.add(it.next());
+        }
+        JSONArray archetypes = bundle.getJSONArray("archetypes");
+        for (int i = 0; i < archetypes.length(); i++) {
+            JSONObject a = archetypes.getJSONObject(i);
+            for (String key : new String[] {"context", "threat", "demand"}) {
+                JSONArray kws = a.getJSONArray(key);
+                for (int k = 0; k < kws.length(); k++) phrases.add(kws.getString(k));
+            }
+        }
+        Collections.sort(phrases);   // JSON key order isn't guaranteed; keep the seed meaningful
+
+        String[] filler = ("hello sir madam haan ji theek hai please listen this is regarding your "
+                + "account number call today tomorrow office family okay yes no what why kab "
+                + "kya aap main hum batao accha the a to and of is it for on with").split(" ");
+        Random rnd = new Random(42);
+        List<String> texts = new ArrayList<>(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            int words = 12 + rnd.nextInt(40);
+            int inserts = rnd.nextBoolean() ? 1 + rnd.nextInt(3) : 0;
+            for (int w = 0; w < words; w++) {
+                if (sb.length() > 0) sb.append(' ');
+                if (inserts > 0 && rnd.nextInt(words - w) < inserts) {
+                    sb.append(phrases.get(rnd.nextInt(phrases.size())));
+                    inserts--;
+                } else {
+                    sb.append(filler[rnd.nextInt(filler.length)]);
+                }
+            }
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    // ---- helpers ----
+
+    private static JSONObject loadBundle(String path) throws IOException, JSONException {
+        if (path != null) return new JSONObject(Files.readString(Path.of(path), StandardCharsets.UTF_8));
+        try (InputStream is = ScoreCli.class.getResourceAsStream("/patterns.json")) {
+            if (is == null) throw new IOException("No built-in patterns.json — pass --patterns");
+            return new JSONObject(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Writer openOutput(String path) throws IOException {
+        OutputStream os = path == null || "-".equals(path)
+                ? System.out : Files.newOutputStream(Path.of(path));
+        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 20);
+    }
+
+    private static final class Options {
+        String command = "score";
+        String input;
+        String out;
+        String patterns;
+        String model;
+        String hits;
+        String index;
+        final List<String> inputs = new ArrayList<>();
+        int score;
+        TranscriptReader.Format format;
+        String textField = "text";
+        String idField = "id";
+        boolean details;
+        boolean check;
+        int rate = ASR_SAMPLE_RATE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String threadSpec;
+        int count = 20000;
+        int runs = 3;
+        long budget = FOOTPRINT_BUDGET;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            int i = 0;
+            if ("score".equals(args[0]) || "bench".equals(args[0]) || "footprint".equals(args[0])
+                    || "transcribe".equals(args[0]) || "resample".equals(args[0])
+                    || "fingerprint".equals(args[0])) {
+                o.command = args[i++];
+            }
+            for (; i < args.length; i++) {
+                String a = args[i];
+                switch (a) {
+                    case "--format":
+                        String f = value(args, ++i, a).toUpperCase(Locale.ROOT);
+                        try {
+                            o.format = TranscriptReader.Format.valueOf(f);
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("unknown format " + f.toLowerCase(Locale.ROOT));
+                        }
+                        break;
+                    case "--text-field": o.textField = value(args, ++i, a); break;
+                    case "--id-field":   o.idField = value(args, ++i, a); break;
+                    case "--out":        o.out = value(args, ++i, a); break;
+                    case "--patterns":   o.patterns = value(args, ++i, a); break;
+                    case "--model":      o.model = value(args, ++i, a); break;
+                    case "--hits":       o.hits = value(args, ++i, a); break;
+                    case "--index":      o.index = value(args, ++i, a); break;
+                    case "--score":      o.score = positive(value(args, ++i, a), a); break;
+                    case "--input":      o.input = value(args, ++i, a); break;
+                    case "--details":    o.details = true; break;
+                    case "--check":      o.check = true; break;
+                    case "--rate":       o.rate = positive(value(args, ++i, a), a); break;
+                    case "--count":      o.count = positive(value(args, ++i, a), a); break;
+                    case "--runs":       o.runs = positive(value(args, ++i, a), a); break;
+                    case "--budget":     o.budget = positive(value(args, ++i, a), a); break;
+                    case "--threads":
+                        o.threadSpec = value(args, ++i, a);
+                        if (!o.threadSpec.contains(",")) o.threads = positive(o.threadSpec, a);
+                        break;
+                    default:
+                        boolean many = "fingerprint".equals(o.command);
+                        if (a.startsWith("--") || (o.input != null && !many)) {
+                            throw new IllegalArgumentException("unexpected argument " + a);
+                        }
+                        if (o.input == null) o.input = a;
+                        o.inputs.add(a);
+                }
+            }
+            return o;
+        }
+
+        /** Thread counts for bench: explicit list, else 1, 2, 4, … plus the core count. */
+        List<Integer> threadList(int cores) {
+            List<Integer> list = new ArrayList<>();
+            if (threadSpec != null) {
+                for (String s : threadSpec.split(",")) list.add(positive(s.trim(), "--threads"));
+                return list;
+            }
+            for (int t = 1; t < cores; t *= 2) list.add(t);
+            list.add(cores);
+            return list;
+        }
+
+        private static String value(String[] args, int i, String flag) {
+            if (i >= args.length) throw new IllegalArgumentException(flag + " needs a value");
+            return args[i];
+        }
+
+        private static int positive(String s, String flag) {
+            try {
+                int n = Integer.parseInt(s);
+                if (n > 0) return n;
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+            throw new IllegalArgumentException(flag + " must be a positive integer: " + s);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.hellohari.cli;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns {@link LineSource} lines into transcript records.
+ *
+ * <ul>
+ *   <li>{@code jsonl} — one object per line; text from {@code textField},
+ *       id from {@code idField} if present.</li>
+ *   <li>{@code csv} — RFC 4180 with a header row; quoted fields may span
+ *       lines. Columns are picked by header name.</li>
+ *   <li>{@code text} — one transcript per line.</li>
+ * </ul>
+ * Records without an id are numbered by input position (1-based). A record
+ * that can't be parsed comes back with {@link Record#error} set, so one bad
+ * line doesn't stop a multi-GB run.
+ */
+final class TranscriptReader implements Closeable {
+
+    enum Format { JSONL, CSV, TEXT }
+
+    static final class Record {
+        final long number;
+        final Object id;        // String or Number
+        final String text;
+        final String error;
+
+        Record(long number, Object id, String text, String error) {
+            this.number = number;
+            this.id = id != null ? id : number;
+            this.text = text;
+            this.error = error;
+        }
+    }
+
+    private final LineSource source;
+    private final Format format;
+    private final String textField;
+    private final String idField;
+
+    private long count;
+    private int csvTextColumn = -1;
+    private int csvIdColumn = -1;
+    private final List<String> fields = new ArrayList<>();
+
+    TranscriptReader(LineSource source, Format format, String textField, String idField) {
+        this.source = source;
+        this.format = format;
+        this.textField = textField;
+        this.idField = idField;
+    }
+
+    static Format guessFormat(String path) {
+        if (path != null && path.toLowerCase().endsWith(".csv")) return Format.CSV;
+        if (path != null && path.toLowerCase().endsWith(".txt")) return Format.TEXT;
+        return Format.JSONL;
+    }
+
+    /** Up to {@code max} records; empty at end of input. */
+    List<Record> readBatch(int max) throws IOException {
+        List<Record> batch = new ArrayList<>(max);
+        Record r;
+        while (batch.size() < max && (r = next()) != null) batch.add(r);
+        return batch;
+    }
+
+    Record next() throws IOException {
+        while (true) {
+            String line = source.next();
+            if (line == null) return null;
+            if (line.isEmpty()) continue;
+            switch (format) {
+                case TEXT:
+                    return new Record(++count, null, line, null);
+                case CSV:
+                    Record r = csvRecord(line);
+                    if (r != null) return r;
+                    break;
+                default:
+                    return jsonRecord(line);
+            }
+        }
+    }
+
+    long bytesRead() {
+        return source.bytesRead();
+    }
+
+    private Record jsonRecord(String line) {
+        long n = ++count;
+        try {
+            JSONObject o = new JSONObject(line);
+            Object id = idField != null ? o.opt(idField) : null;
+            if (!(id instanceof String) && !(id instanceof Number)) id = null;
+            if (!o.has(textField) || o.isNull(textField)) {
+                return new Record(n, id, null, "missing \"" + textField + "\"");
+            }
+            return new Record(n, id, o.get(textField).toString(), null);
+        } catch (JSONException e) {
+            return new Record(n, null, null, "bad JSON: " + e.getMessage());
+        }
+    }
+
+    /** Returns {@code null} for the header row. */
+    private Record csvRecord(String line) throws IOException {
+        StringBuilder logical = null;
+        while (!splitCsv(logical != null ? logical : line, fields)) {
+            // Unbalanced quote: the field continues on the next physical line
+            String more = source.next();
+            if (more == null) break;
+            if (logical == null) logical = new StringBuilder(line);
+            logical.append('\n').append(more);
+        }
+
+        if (csvTextColumn < 0) {
+            csvTextColumn = fields.indexOf(textField);
+            csvIdColumn = idField != null ? fields.indexOf(idField) : -1;
+            if (csvTextColumn < 0) {
+                throw new IOException("CSV header has no \"" + textField + "\" column: " + fields);
+            }
+            return null;
+        }
+
+        long n = ++count;
+        String id = csvIdColumn >= 0 && csvIdColumn < fields.size() ? fields.get(csvIdColumn) : null;
+        if (id != null && id.isEmpty()) id = null;
+        if (csvTextColumn >= fields.size()) {
+            return new Record(n, id, null, "row has " + fields.size() + " columns");
+        }
+        return new Record(n, id, fields.get(csvTextColumn), null);
+    }
+
+    /**
+     * Split one CSV record into {@code out}. Returns {@code false} if it ends
+     * inside a quoted field (caller appends the next line and retries).
+     */
+    static boolean splitCsv(CharSequence s, List<String> out) {
+        out.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < n && s.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) return false;
+        out.add(field.toString());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.hellohari.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 16-bit PCM samples from a RIFF/WAVE file, mono or downmixed to mono.
+ * The file is memory-mapped and samples are read straight out of the page
+ * cache in capture-sized frames, the way {@code AudioRecord} hands them to
+ * the phone's capture thread.
+ */
+final class WavReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ShortBuffer samples;   // interleaved, little-endian
+    private final int channels;
+    private final int sampleRate;
+
+    WavReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.remaining() < 12 || map.getInt(0) != 0x46464952 || map.getInt(8) != 0x45564157) {
+                throw new IOException(path + ": not a RIFF/WAVE file");
+            }
+            int fmtChannels = 0, fmtRate = 0, fmtBits = 0, fmtCode = 0;
+            ShortBuffer data = null;
+            // Chunks are id, little-endian size, payload padded to an even length
+            for (int at = 12; at + 8 <= map.limit(); ) {
+                int id = map.getInt(at);
+                long size = map.getInt(at + 4) & 0xFFFFFFFFL;
+                int body = at + 8;
+                long end = Math.min(body + size, map.limit());
+                if (id == 0x20746d66) {                       // "fmt "
+                    fmtCode = map.getShort(body) & 0xFFFF;
+                    fmtChannels = map.getShort(body + 2);
+                    fmtRate = map.getInt(body + 4);
+                    fmtBits = map.getShort(body + 14);
+                } else if (id == 0x61746164) {                // "data"
+                    data = map.position(body).limit((int) end).slice()
+                            .order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+                    map.clear();
+                }
+                at = (int) (end + (size & 1));
+            }
+            // 0xFFFE is WAVE_FORMAT_EXTENSIBLE; the bit depth check still applies
+            if ((fmtCode != 1 && fmtCode != 0xFFFE) || fmtBits != 16 || fmtChannels < 1) {
+                throw new IOException(path + ": need 16-bit PCM (format " + fmtCode + ", "
+                        + fmtBits + " bits, " + fmtChannels + " channels)");
+            }
+            if (data == null) throw new IOException(path + ": no data chunk");
+            this.samples = data;
+            this.channels = fmtChannels;
+            this.sampleRate = fmtRate;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int sampleRate() {
+        return sampleRate;
+    }
+
+    /** Mono samples left to read. */
+    long remainingFrames() {
+        return samples.remaining() / channels;
+    }
+
+    /**
+     * Fill {@code buf} with up to {@code buf.length} mono samples.
+     *
+     * @return samples read, or 0 at end of file
+     */
+    int read(short[] buf) {
+        int n = (int) Math.min(buf.length, remainingFrames());
+        if (channels == 1) {
+            samples.get(buf, 0, n);
+            return n;
+        }
+        for (int i = 0; i < n; i++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) sum += samples.get();
+            buf[i] = (short) (sum / channels);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.hellohari.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams 16-bit mono PCM into a RIFF/WAVE file; the header sizes are
+ * filled in on {@link #close()}.
+ */
+final class WavWriter implements Closeable {
+
+    private static final int HEADER = 44;
+
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final int sampleRate;
+    private long dataBytes;
+
+    WavWriter(Path path, int sampleRate) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.sampleRate = sampleRate;
+        channel.position(HEADER);
+    }
+
+    void write(short[] samples, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            if (buf.remaining() < 2) drain();
+            buf.putShort(samples[i]);
+        }
+        dataBytes += 2L * n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            ByteBuffer h = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            h.putInt(0x46464952).putInt((int) (36 + dataBytes)).putInt(0x45564157)   // "RIFF" size "WAVE"
+                    .putInt(0x20746d66).putInt(16)                                    // "fmt " chunk
+                    .putShort((short) 1).putShort((short) 1)                          // PCM, mono
+                    .putInt(sampleRate).putInt(sampleRate * 2)
+                    .putShort((short) 2).putShort((short) 16)
+                    .putInt(0x61746164).putInt((int) dataBytes);                      // "data"
+            h.flip();
+            channel.write(h, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+}